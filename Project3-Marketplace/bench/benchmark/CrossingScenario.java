@@ -0,0 +1,81 @@
+package benchmark;
+
+/**
+ * This scenario places orders that cross the spread, so every operation goes through checkTransactions and fills
+ * against the top of the other side. The book is refilled by the partially filled orders, so it keeps a steady depth
+ * during the whole iteration. When a depth is given, the books hold that many resting orders on each side before the
+ * measured operations.
+ * @author Eren
+ *
+ */
+public class CrossingScenario extends Scenario {
+
+	/**
+	 * The number of price levels the resting orders are spread over on each side.
+	 */
+	private static final int LEVELS = 1000;
+
+	/**
+	 * The number of price levels a crossing order reaches into the other side.
+	 */
+	private static final int REACH = 3;
+
+	/**
+	 * The number of resting orders on each side before the measured operations.
+	 */
+	private final int depth;
+
+	/**
+	 * The amounts of the measured orders, in lots.
+	 */
+	private long[] amounts;
+
+	/**
+	 * The distances of the measured orders from the mid price, in ticks.
+	 */
+	private long[] offsets;
+
+	/**
+	 * Constructor for the CrossingScenario class.
+	 * @param name The name of the scenario.
+	 * @param operations The number of orders placed by each call of run.
+	 * @param depth The number of resting orders on each side before the measured operations.
+	 */
+	public CrossingScenario(String name, int operations, int depth) {
+		super(name, operations);
+		this.depth = depth;
+	}
+
+	/**
+	 * This method fills the books up to the depth of the scenario and generates the measured orders.
+	 */
+	@Override
+	protected void prepare() {
+		this.fillBook(this.depth, LEVELS);
+		this.amounts = new long[this.getOperations()];
+		this.offsets = new long[this.getOperations()];
+		for(int i = 0; i < this.getOperations(); i++) {
+			this.amounts[i] = this.randomAmount();
+			this.offsets[i] = this.random.nextInt(REACH + 1) * STEP;
+		}
+	}
+
+	/**
+	 * This method places the generated orders, alternating between buying orders priced above the best selling price
+	 * and selling orders priced below the best buying price.
+	 */
+	@Override
+	public void run() {
+		for(int i = 0; i < this.getOperations(); i++) {
+			if((i & 1) == 0) {
+				long best = this.market.getTopSellingPrice();
+				long price = (best < 0 ? MID : best) + this.offsets[i];
+				this.trader(i % TRADERS).buy(this.amounts[i], price, this.market);
+			} else {
+				long best = this.market.getTopBuyingPrice();
+				long price = Math.max((best < 0 ? MID : best) - this.offsets[i], 0);
+				this.trader(i % TRADERS).sell(this.amounts[i], price, this.market);
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import executable.ExchangeMain;
+import executable.Main;
+
+/**
+ * This program checks that a multi-instrument exchange gives the same output every time it is run on the same input.
+ * It turns a single-market query file into an exchange query file in which every instrument gets the same traders and
+ * the same queries, interleaved one by one, and runs ExchangeMain on it several times. The output of every instrument
+ * must be identical in all runs, and the output of instrument 0, which uses the same seed as the single-market run,
+ * must be identical to the output of Main on the original file. The program exits with status 1 if any check fails.
+ * <p>
+ * Usage: ExchangeDeterminismCheck [query file], with the following system properties:
+ * <ul>
+ * <li>bench.instruments: the number of instruments, 8 by default</li>
+ * <li>bench.shards: the number of shards, 4 by default</li>
+ * <li>bench.runs: the number of runs, 5 by default</li>
+ * </ul>
+ * The program should be compiled together with the sources of the marketplace, like MarketBenchmark.
+ * @author Eren
+ *
+ */
+public class ExchangeDeterminismCheck {
+
+	public static void main(String[] args) throws IOException {
+		int instruments = Integer.getInteger("bench.instruments", 8);
+		int shards = Integer.getInteger("bench.shards", 4);
+		int runs = Integer.getInteger("bench.runs", 5);
+		Path input = Paths.get(args[0]);
+		Path directory = Files.createTempDirectory("exchange-check");
+
+		Path exchangeInput = directory.resolve("exchange.txt");
+		ExchangeDeterminismCheck.writeExchangeInput(input, exchangeInput, instruments, shards);
+		Path single = directory.resolve("single.txt");
+		Main.main(new String[] {input.toString(), single.toString()});
+
+		byte[][] expected = null;
+		for(int run = 0; run < runs; run++) {
+			Path output = directory.resolve("run_" + run);
+			ExchangeMain.main(new String[] {exchangeInput.toString(), output.toString()});
+			byte[][] outputs = new byte[instruments][];
+			for(int i = 0; i < instruments; i++) {
+				outputs[i] = Files.readAllBytes(output.resolve("instrument_" + i + ".txt"));
+			}
+			if(expected == null) {
+				expected = outputs;
+				if(!Arrays.equals(outputs[0], Files.readAllBytes(single))) {
+					ExchangeDeterminismCheck.fail("instrument 0 differs from the single-market run.");
+				}
+				continue;
+			}
+			for(int i = 0; i < instruments; i++) {
+				if(!Arrays.equals(outputs[i], expected[i])) {
+					ExchangeDeterminismCheck.fail("instrument " + i + " differs between run 0 and run " + run + ".");
+				}
+			}
+		}
+		System.out.println("All " + runs + " runs of " + instruments + " instruments on " + shards
+				+ " shards gave the same output.");
+	}
+
+	/**
+	 * This method writes an exchange query file in which every instrument gets the traders and queries of a
+	 * single-market query file.
+	 * @param input The single-market query file.
+	 * @param output The exchange query file to be written.
+	 * @param instruments The number of instruments.
+	 * @param shards The number of shards.
+	 * @throws IOException If a file can't be read or written.
+	 */
+	private static void writeExchangeInput(Path input, Path output, int instruments, int shards) throws IOException {
+		List<String> lines = Files.readAllLines(input, StandardCharsets.US_ASCII);
+		String[] header = lines.get(1).trim().split("\\s+");
+		int numOfUsers = Integer.parseInt(header[1]);
+		int numOfQueries = Integer.parseInt(header[2]);
+
+		List<String> result = new ArrayList<String>();
+		result.add(lines.get(0));
+		result.add(header[0] + " " + numOfUsers + " " + (long) numOfQueries * instruments + " " + instruments + " "
+				+ shards);
+		for(int i = 0; i < numOfUsers; i++) {
+			String[] wallet = lines.get(2 + i).trim().split("\\s+");
+			StringBuilder line = new StringBuilder();
+			for(int j = 0; j < instruments; j++) {
+				line.append(j == 0 ? "" : " ").append(wallet[0]).append(' ').append(wallet[1]);
+			}
+			result.add(line.toString());
+		}
+		for(int i = 0; i < numOfQueries; i++) {
+			String query = lines.get(2 + numOfUsers + i);
+			for(int j = 0; j < instruments; j++) {
+				result.add(j + " " + query);
+			}
+		}
+		Files.write(output, result, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * This method reports a failed check and stops the program.
+	 * @param message The description of the failed check.
+	 */
+	private static void fail(String message) {
+		System.out.println("FAILED: " + message);
+		System.exit(1);
+	}
+}
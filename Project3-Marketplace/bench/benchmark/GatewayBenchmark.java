@@ -0,0 +1,276 @@
+package benchmark;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Locale;
+import java.util.Random;
+
+import elements.FixedPoint;
+import elements.Market;
+import elements.Trader;
+import executable.Gateway;
+import executable.GatewayProtocol;
+import executable.Histogram;
+
+/**
+ * This program measures the order-entry gateway from the outside: many clients connect to it at the same time, each
+ * over its own TCP connection, and send limit orders that cross each other as fast as the gateway answers them. Every
+ * client keeps a fixed number of requests in flight, and measures the round trip of every request from the moment it
+ * is written to the socket until its acknowledgement or rejection arrives, which includes all of its fills. The
+ * program reports the sustained number of orders per second over all clients, and the percentiles of the round trip.
+ * <p>
+ * Usage: GatewayBenchmark, with the following system properties:
+ * <ul>
+ * <li>bench.connections: the number of concurrent clients, 64 by default</li>
+ * <li>bench.requests: the number of orders sent by each client, 20000 by default</li>
+ * <li>bench.window: the number of requests each client keeps in flight, 8 by default</li>
+ * <li>bench.warmup: the number of orders of each client whose round trip isn't recorded, 2000 by default</li>
+ * <li>bench.traders: the number of traders the orders are spread over, 64 by default</li>
+ * <li>bench.host and bench.port: the address of a running GatewayMain to measure. Its market must have at least
+ * bench.traders traders with enough funds. If they aren't set, a gateway is started in this program on a free
+ * port.</li>
+ * </ul>
+ * The program should be compiled together with the sources of the marketplace, like MarketBenchmark.
+ * @author Eren
+ *
+ */
+public class GatewayBenchmark {
+
+	/**
+	 * The market fee of the gateway started by the program.
+	 */
+	private static final int FEE = 5;
+
+	/**
+	 * The price all orders are placed around, in ticks.
+	 */
+	private static final long MID = 50 * FixedPoint.SCALE;
+
+	/**
+	 * The distance between two neighbouring price levels, in ticks.
+	 */
+	private static final long STEP = FixedPoint.SCALE / 100;
+
+	/**
+	 * The amount of dollars and PQoins every trader of the gateway started by the program starts with.
+	 */
+	private static final long FUNDS = 1000000000L * FixedPoint.SCALE;
+
+	/**
+	 * This class represents a single client. It runs on its own thread and uses a blocking channel.
+	 * @author Eren
+	 *
+	 */
+	private static class Client implements Runnable {
+
+		/**
+		 * The address of the gateway.
+		 */
+		private final InetSocketAddress address;
+
+		/**
+		 * The number of orders the client sends.
+		 */
+		private final int requests;
+
+		/**
+		 * The number of requests the client keeps in flight.
+		 */
+		private final int window;
+
+		/**
+		 * The number of orders whose round trip isn't recorded.
+		 */
+		private final int warmup;
+
+		/**
+		 * The number of traders the orders are spread over.
+		 */
+		private final int traders;
+
+		/**
+		 * The random number generator of the orders.
+		 */
+		private final Random random;
+
+		/**
+		 * The round trips of the orders, in nanoseconds.
+		 */
+		final Histogram latencies;
+
+		/**
+		 * The number of fills reported to the client.
+		 */
+		long fills;
+
+		/**
+		 * The number of orders that have been rejected.
+		 */
+		long rejected;
+
+		/**
+		 * The failure of the client, null if there is none.
+		 */
+		IOException failure;
+
+		/**
+		 * Constructor for the Client class.
+		 * @param address The address of the gateway.
+		 * @param requests The number of orders the client sends.
+		 * @param window The number of requests the client keeps in flight.
+		 * @param warmup The number of orders whose round trip isn't recorded.
+		 * @param traders The number of traders the orders are spread over.
+		 * @param seed The seed of the random number generator of the orders.
+		 */
+		Client(InetSocketAddress address, int requests, int window, int warmup, int traders, long seed) {
+			this.address = address;
+			this.requests = requests;
+			this.window = window;
+			this.warmup = warmup;
+			this.traders = traders;
+			this.random = new Random(seed);
+			this.latencies = new Histogram();
+			this.fills = 0;
+			this.rejected = 0;
+			this.failure = null;
+		}
+
+		/**
+		 * This method sends all orders of the client and reads all responses.
+		 */
+		@Override
+		public void run() {
+			try(SocketChannel channel = SocketChannel.open(this.address)) {
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				ByteBuffer out = ByteBuffer.allocate(this.window * GatewayProtocol.REQUEST_SIZE);
+				ByteBuffer in = ByteBuffer.allocate(256 * GatewayProtocol.RESPONSE_SIZE);
+				long[] sent = new long[this.window];
+				long next = 0;
+				long done = 0;
+				while(done < this.requests) {
+					long first = next;
+					while(next < this.requests && next - done < this.window) {
+						this.writeOrder(out, next);
+						next++;
+					}
+					out.flip();
+					while(out.hasRemaining()) {
+						channel.write(out);
+					}
+					out.clear();
+					long now = System.nanoTime();
+					for(long i = first; i < next; i++) {
+						sent[(int) (i % this.window)] = now;
+					}
+
+					if(channel.read(in) < 0) {
+						throw new EOFException("The gateway has closed the connection.");
+					}
+					in.flip();
+					now = System.nanoTime();
+					while(in.remaining() >= GatewayProtocol.RESPONSE_SIZE) {
+						int type = in.getInt();
+						in.getInt();
+						long requestID = in.getLong();
+						in.position(in.position() + GatewayProtocol.VALUES * Long.BYTES);
+						if(type == GatewayProtocol.FILL) {
+							this.fills++;
+						} else if(type == GatewayProtocol.ACK || type == GatewayProtocol.REJECT) {
+							if(type == GatewayProtocol.REJECT) {
+								this.rejected++;
+							}
+							if(requestID >= this.warmup) {
+								this.latencies.record(now - sent[(int) (requestID % this.window)]);
+							}
+							done++;
+						}
+					}
+					in.compact();
+				}
+			} catch (IOException e) {
+				this.failure = e;
+			}
+		}
+
+		/**
+		 * This method writes a limit order that reaches a few price levels into the other side of the market.
+		 * @param out The buffer the request is written into.
+		 * @param requestID The request ID of the order.
+		 */
+		private void writeOrder(ByteBuffer out, long requestID) {
+			boolean buying = this.random.nextBoolean();
+			long offset = this.random.nextInt(4) * STEP;
+			long amount = (1 + this.random.nextInt(10)) * FixedPoint.SCALE;
+			GatewayProtocol.writeRequest(out, buying ? 10 : 20, this.random.nextInt(this.traders), requestID, 0,
+					buying ? MID + offset : MID - offset, 0, amount);
+		}
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int connections = Integer.getInteger("bench.connections", 64);
+		int requests = Integer.getInteger("bench.requests", 20000);
+		int window = Integer.getInteger("bench.window", 8);
+		int warmup = Integer.getInteger("bench.warmup", 2000);
+		int traders = Integer.getInteger("bench.traders", 64);
+		String host = System.getProperty("bench.host");
+
+		Market market = null;
+		Gateway gateway = null;
+		InetSocketAddress address;
+		if(host != null) {
+			address = new InetSocketAddress(host, Integer.getInteger("bench.port"));
+		} else {
+			market = new Market(FEE);
+			for(int i = 0; i < traders; i++) {
+				new Trader(market, FUNDS, FUNDS);
+			}
+			gateway = new Gateway(market, new Random(160), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			gateway.start();
+			address = new InetSocketAddress(InetAddress.getLoopbackAddress(), gateway.getPort());
+		}
+
+		Client[] clients = new Client[connections];
+		Thread[] threads = new Thread[connections];
+		for(int i = 0; i < connections; i++) {
+			clients[i] = new Client(address, requests, window, warmup, traders, 160 + i);
+			threads[i] = new Thread(clients[i], "gateway-client-" + i);
+		}
+		long startTime = System.nanoTime();
+		for(Thread thread : threads) {
+			thread.start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		long time = System.nanoTime() - startTime;
+
+		Histogram latencies = new Histogram();
+		long fills = 0;
+		long rejected = 0;
+		for(Client client : clients) {
+			if(client.failure != null) {
+				client.failure.printStackTrace();
+			}
+			latencies.add(client.latencies);
+			fills += client.fills;
+			rejected += client.rejected;
+		}
+		if(gateway != null) {
+			gateway.close();
+			market.getTradeJournal().close();
+		}
+
+		long orders = (long) connections * requests;
+		System.out.printf(Locale.ROOT, "%d connections, %d orders in %.2f s: %.0f orders/s, %d fills, %d rejected%n",
+				connections, orders, time / 1e9, orders / (time / 1e9), fills, rejected);
+		System.out.printf(Locale.ROOT, "round trip (us): p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+				latencies.getValueAtPercentile(50) / 1e3, latencies.getValueAtPercentile(90) / 1e3,
+				latencies.getValueAtPercentile(99) / 1e3, latencies.getValueAtPercentile(99.9) / 1e3,
+				latencies.getMax() / 1e3);
+	}
+}
@@ -0,0 +1,159 @@
+package benchmark;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+import elements.FixedPoint;
+import elements.Market;
+import elements.Trader;
+import executable.Gateway;
+import executable.GatewayProtocol;
+
+/**
+ * This program checks that the order-entry gateway answers single requests whose responses don't fit into its
+ * response ring, which has 16384 slots. It sends two such requests to a gateway with many traders: a #555 report,
+ * which produces one report per trader, and a buying order that sweeps one resting selling order of every trader,
+ * which produces one fill per order. Each answer must arrive complete within a time limit. The program exits with
+ * status 1 if any check fails or the gateway stops answering.
+ * <p>
+ * Usage: GatewayBurstCheck, with the optional system property bench.traders, the number of traders, 50000 by default.
+ * The program should be compiled together with the sources of the marketplace, like MarketBenchmark.
+ * @author Eren
+ *
+ */
+public class GatewayBurstCheck {
+
+	/**
+	 * The time the whole check may take, in milliseconds.
+	 */
+	private static final long TIMEOUT_MILLIS = 120000;
+
+	/**
+	 * The price of all orders, in ticks.
+	 */
+	private static final long PRICE = FixedPoint.SCALE;
+
+	/**
+	 * The amount of dollars and PQoins every trader starts with.
+	 */
+	private static final long FUNDS = 1000000L * FixedPoint.SCALE;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int traders = Integer.getInteger("bench.traders", 50000);
+		Market market = new Market(0);
+		for(int i = 0; i < traders; i++) {
+			new Trader(market, FUNDS, FUNDS);
+		}
+		Gateway gateway = new Gateway(market, new Random(160), new InetSocketAddress(InetAddress.getLoopbackAddress(),
+				0));
+		gateway.start();
+
+		String[] failure = new String[1];
+		Thread client = new Thread(() -> {
+			try {
+				failure[0] = GatewayBurstCheck.check(gateway.getPort(), traders);
+			} catch (IOException e) {
+				failure[0] = e.toString();
+			}
+		}, "burst-client");
+		client.start();
+		client.join(TIMEOUT_MILLIS);
+		if(client.isAlive()) {
+			System.out.println("FAILED: the gateway stopped answering.");
+			System.exit(1);
+		}
+		if(failure[0] != null) {
+			System.out.println("FAILED: " + failure[0]);
+			System.exit(1);
+		}
+		gateway.close();
+		market.getTradeJournal().close();
+		System.out.println("All bursts of " + traders + " responses were answered.");
+	}
+
+	/**
+	 * This method sends the requests of the check and verifies their answers.
+	 * @param port The port of the gateway.
+	 * @param traders The number of traders of the market.
+	 * @return A description of the failed check, null if all checks passed.
+	 * @throws IOException If the connection fails.
+	 */
+	private static String check(int port, int traders) throws IOException {
+		try(SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+				port))) {
+			ByteBuffer out = ByteBuffer.allocate(64 * 1024 * GatewayProtocol.REQUEST_SIZE);
+			ByteBuffer in = ByteBuffer.allocate(1024 * GatewayProtocol.RESPONSE_SIZE);
+
+			GatewayProtocol.writeRequest(out, 555, 0, 0, 0, 0, 0, 0);
+			GatewayBurstCheck.send(channel, out);
+			long[] counts = GatewayBurstCheck.readAnswer(channel, in, 0);
+			if(counts[GatewayProtocol.TRADER] != traders || counts[GatewayProtocol.ACK] != 1) {
+				return "#555 got " + counts[GatewayProtocol.TRADER] + " reports instead of " + traders;
+			}
+
+			long requestID = 1;
+			for(int i = 1; i < traders; i++) {
+				if(out.remaining() < GatewayProtocol.REQUEST_SIZE) {
+					GatewayBurstCheck.send(channel, out);
+				}
+				GatewayProtocol.writeRequest(out, 20, i, requestID++, 0, PRICE, 0, FixedPoint.SCALE);
+			}
+			GatewayProtocol.writeRequest(out, 10, 0, requestID, 0, PRICE, 0, (traders - 1) * FixedPoint.SCALE);
+			GatewayBurstCheck.send(channel, out);
+			counts = GatewayBurstCheck.readAnswer(channel, in, requestID);
+			if(counts[GatewayProtocol.FILL] != traders - 1 || counts[GatewayProtocol.ACK] != traders) {
+				return "the sweep got " + counts[GatewayProtocol.FILL] + " fills instead of " + (traders - 1);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * This method writes the requests in a buffer to the gateway and clears the buffer.
+	 * @param channel The channel of the connection.
+	 * @param out The buffer.
+	 * @throws IOException If the channel can't be written.
+	 */
+	private static void send(SocketChannel channel, ByteBuffer out) throws IOException {
+		out.flip();
+		while(out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	/**
+	 * This method reads responses until the acknowledgement or rejection of the given request.
+	 * @param channel The channel of the connection.
+	 * @param in The buffer the responses are read into, which is empty between calls.
+	 * @param requestID The request ID of the last request.
+	 * @return The number of responses of each type.
+	 * @throws IOException If the channel can't be read or is closed by the gateway.
+	 */
+	private static long[] readAnswer(SocketChannel channel, ByteBuffer in, long requestID) throws IOException {
+		long[] counts = new long[GatewayProtocol.CANDLE + 1];
+		while(true) {
+			if(channel.read(in) < 0) {
+				throw new EOFException("The gateway has closed the connection.");
+			}
+			in.flip();
+			while(in.remaining() >= GatewayProtocol.RESPONSE_SIZE) {
+				int type = in.getInt();
+				in.getInt();
+				long id = in.getLong();
+				in.position(in.position() + GatewayProtocol.VALUES * Long.BYTES);
+				counts[type]++;
+				if(id == requestID && (type == GatewayProtocol.ACK || type == GatewayProtocol.REJECT)) {
+					in.compact();
+					return counts;
+				}
+			}
+			in.compact();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+/**
+ * This scenario places orders that never cross the spread, so every operation only adds an order to a book. When a
+ * depth is given, the orders are placed into books that already hold that many resting orders on each side.
+ * <p>
+ * Since every order stays in the book, the scenario still allocates memory per operation, but the price levels are
+ * neither boxed nor allocated once they exist. What remains is the growth of the order slab, the order index and the
+ * heaps of the levels as the books fill up, which is amortized over the operations, and the order object passed to
+ * the market.
+ * @author Eren
+ *
+ */
+public class InsertScenario extends Scenario {
+
+	/**
+	 * The number of price levels the orders are spread over on each side.
+	 */
+	private static final int LEVELS = 1000;
+
+	/**
+	 * The number of resting orders on each side before the measured operations.
+	 */
+	private final int depth;
+
+	/**
+	 * The amounts of the measured orders, in lots.
+	 */
+	private long[] amounts;
+
+	/**
+	 * The distances of the measured orders from the mid price, in ticks.
+	 */
+	private long[] offsets;
+
+	/**
+	 * Constructor for the InsertScenario class.
+	 * @param name The name of the scenario.
+	 * @param operations The number of orders placed by each call of run.
+	 * @param depth The number of resting orders on each side before the measured operations.
+	 */
+	public InsertScenario(String name, int operations, int depth) {
+		super(name, operations);
+		this.depth = depth;
+	}
+
+	/**
+	 * This method fills the books up to the depth of the scenario and generates the measured orders.
+	 */
+	@Override
+	protected void prepare() {
+		this.fillBook(this.depth, LEVELS);
+		this.amounts = new long[this.getOperations()];
+		this.offsets = new long[this.getOperations()];
+		for(int i = 0; i < this.getOperations(); i++) {
+			this.amounts[i] = this.randomAmount();
+			this.offsets[i] = (1 + this.random.nextInt(LEVELS)) * STEP;
+		}
+	}
+
+	/**
+	 * This method places the generated orders, alternating between buying and selling orders.
+	 */
+	@Override
+	public void run() {
+		for(int i = 0; i < this.getOperations(); i++) {
+			if((i & 1) == 0) {
+				this.trader(i % TRADERS).buy(this.amounts[i], MID - this.offsets[i], this.market);
+			} else {
+				this.trader(i % TRADERS).sell(this.amounts[i], MID + this.offsets[i], this.market);
+			}
+		}
+	}
+}
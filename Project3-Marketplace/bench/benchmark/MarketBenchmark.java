@@ -0,0 +1,169 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import elements.FixedPoint;
+
+/**
+ * This program runs the benchmark scenarios of the market and reports, for each scenario, the time and the memory
+ * allocated per operation. The allocated memory is measured per thread, so it is the same quantity as the allocation
+ * rate reported by a garbage collection profiler, but without the noise of other threads. Each scenario is run for a
+ * number of warmup iterations, which are thrown away, and then for a number of measured iterations, and the median of
+ * the measured iterations is reported.
+ * <p>
+ * The results can be saved to a CSV file and compared against a saved baseline. A scenario is reported as a
+ * regression if its median time or its allocation per operation is worse than the baseline by more than the
+ * tolerance, and the program exits with status 1 if there are any regressions.
+ * <p>
+ * Usage: MarketBenchmark [scenario names...], with the following system properties:
+ * <ul>
+ * <li>bench.depth: the number of resting orders on each side in the deep scenarios, 100000 by default</li>
+ * <li>bench.warmup: the number of warmup iterations, 5 by default</li>
+ * <li>bench.iterations: the number of measured iterations, 10 by default</li>
+ * <li>bench.output: the path of the CSV file the results are written to</li>
+ * <li>bench.baseline: the path of a CSV file written by an earlier run, to compare the results against</li>
+ * <li>bench.tolerance: the allowed relative slowdown compared to the baseline, 0.10 by default</li>
+ * </ul>
+ * The program should be compiled together with the sources of the marketplace, for example with
+ * "javac -d out $(find src bench -name '*.java')", and run with "java -cp out benchmark.MarketBenchmark".
+ * @author Eren
+ *
+ */
+public class MarketBenchmark {
+
+	/**
+	 * The header line of the CSV files.
+	 */
+	private static final String CSV_HEADER = "scenario,operations,median_ns_per_op,min_ns_per_op,bytes_per_op,"
+			+ "alloc_mb_per_s";
+
+	/**
+	 * The bean that reports the memory allocated by a thread.
+	 */
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	public static void main(String[] args) throws IOException {
+		int depth = Integer.getInteger("bench.depth", 100000);
+		int warmup = Integer.getInteger("bench.warmup", 5);
+		int iterations = Integer.getInteger("bench.iterations", 10);
+		double tolerance = Double.parseDouble(System.getProperty("bench.tolerance", "0.10"));
+
+		List<Scenario> scenarios = new ArrayList<Scenario>();
+		scenarios.add(new InsertScenario("insert", 100000, 0));
+		scenarios.add(new InsertScenario("insert-deep", 100000, depth));
+		scenarios.add(new CrossingScenario("crossing", 100000, 1000));
+		scenarios.add(new CrossingScenario("crossing-deep", 100000, depth));
+		scenarios.add(new MarketOrderScenario("market-order", 1000, depth, 500 * FixedPoint.SCALE));
+		scenarios.add(new SweepScenario("sweep-666", 1000, depth));
+		scenarios.add(new QueryScenario("query-500-505", 1000000, depth));
+		if(args.length > 0) {
+			List<String> names = Arrays.asList(args);
+			scenarios.removeIf(scenario -> !names.contains(scenario.getName()));
+		}
+
+		Map<String, String[]> baseline = new HashMap<String, String[]>();
+		String baselinePath = System.getProperty("bench.baseline");
+		if(baselinePath != null) {
+			for(String line : Files.readAllLines(Paths.get(baselinePath))) {
+				String[] fields = line.split(",");
+				if(!line.equals(CSV_HEADER) && fields.length == 6) {
+					baseline.put(fields[0], fields);
+				}
+			}
+		}
+
+		List<String> lines = new ArrayList<String>();
+		lines.add(CSV_HEADER);
+		int regressions = 0;
+		System.out.printf(Locale.ROOT, "%-16s %10s %14s %14s %12s %12s%n", "scenario", "ops", "median ns/op",
+				"min ns/op", "B/op", "alloc MB/s");
+		for(Scenario scenario : scenarios) {
+			double[] result = MarketBenchmark.measure(scenario, warmup, iterations);
+			String line = String.format(Locale.ROOT, "%s,%d,%.2f,%.2f,%.2f,%.2f", scenario.getName(),
+					scenario.getOperations(), result[0], result[1], result[2], result[3]);
+			lines.add(line);
+			System.out.printf(Locale.ROOT, "%-16s %10d %14.2f %14.2f %12.2f %12.2f", scenario.getName(),
+					scenario.getOperations(), result[0], result[1], result[2], result[3]);
+
+			String[] old = baseline.get(scenario.getName());
+			if(old != null) {
+				double oldTime = Double.parseDouble(old[2]);
+				double oldBytes = Double.parseDouble(old[4]);
+				System.out.printf(Locale.ROOT, "   %+.1f%% time", 100 * (result[0] / oldTime - 1));
+				if(result[0] > oldTime * (1 + tolerance) || result[2] > oldBytes * (1 + tolerance) + 1) {
+					System.out.print("   REGRESSION");
+					regressions++;
+				}
+			}
+			System.out.println();
+		}
+
+		String outputPath = System.getProperty("bench.output");
+		if(outputPath != null) {
+			try(PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(outputPath)))) {
+				for(String line : lines) {
+					out.println(line);
+				}
+			}
+		}
+		if(regressions > 0) {
+			System.out.println(regressions + " regression(s) compared to the baseline.");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * This method runs a scenario for the given numbers of warmup and measured iterations.
+	 * @param scenario The scenario.
+	 * @param warmup The number of warmup iterations.
+	 * @param iterations The number of measured iterations.
+	 * @return The median time per operation in nanoseconds, the minimum time per operation in nanoseconds, the
+	 * median number of bytes allocated per operation, and the allocation rate of the median iteration in megabytes
+	 * per second.
+	 * @throws IOException If the trade journal of the scenario can't be closed.
+	 */
+	private static double[] measure(Scenario scenario, int warmup, int iterations) throws IOException {
+		long thread = Thread.currentThread().getId();
+		long[] times = new long[iterations];
+		long[] bytes = new long[iterations];
+		for(int i = -warmup; i < iterations; i++) {
+			scenario.setUp();
+			System.gc();
+			long startBytes = THREADS.getThreadAllocatedBytes(thread);
+			long startTime = System.nanoTime();
+			scenario.run();
+			long time = System.nanoTime() - startTime;
+			long allocated = THREADS.getThreadAllocatedBytes(thread) - startBytes;
+			scenario.tearDown();
+			if(i >= 0) {
+				times[i] = time;
+				bytes[i] = allocated;
+			}
+		}
+
+		double operations = scenario.getOperations();
+		long[] sortedTimes = times.clone();
+		Arrays.sort(sortedTimes);
+		long[] sortedBytes = bytes.clone();
+		Arrays.sort(sortedBytes);
+		long medianTime = sortedTimes[iterations / 2];
+		long medianBytes = sortedBytes[iterations / 2];
+		return new double[] {
+			medianTime / operations,
+			sortedTimes[0] / operations,
+			medianBytes / operations,
+			medianBytes / (1024.0 * 1024.0) / (medianTime / 1e9)
+		};
+	}
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+/**
+ * This scenario measures large market orders. The books hold the given number of resting orders on each side, and
+ * every operation is a market order big enough to sweep several price levels of the other side.
+ * @author Eren
+ *
+ */
+public class MarketOrderScenario extends Scenario {
+
+	/**
+	 * The number of price levels the resting orders are spread over on each side.
+	 */
+	private static final int LEVELS = 1000;
+
+	/**
+	 * The number of resting orders on each side before the measured operations.
+	 */
+	private final int depth;
+
+	/**
+	 * The amount of every market order, in lots.
+	 */
+	private final long amount;
+
+	/**
+	 * Constructor for the MarketOrderScenario class.
+	 * @param name The name of the scenario.
+	 * @param operations The number of market orders placed by each call of run.
+	 * @param depth The number of resting orders on each side before the measured operations.
+	 * @param amount The amount of every market order, in lots.
+	 */
+	public MarketOrderScenario(String name, int operations, int depth, long amount) {
+		super(name, operations);
+		this.depth = depth;
+		this.amount = amount;
+	}
+
+	/**
+	 * This method fills the books up to the depth of the scenario.
+	 */
+	@Override
+	protected void prepare() {
+		this.fillBook(this.depth, LEVELS);
+	}
+
+	/**
+	 * This method places the market orders, alternating between buying and selling orders.
+	 */
+	@Override
+	public void run() {
+		for(int i = 0; i < this.getOperations(); i++) {
+			if((i & 1) == 0) {
+				this.trader(i % TRADERS).marketBuy(this.amount, this.market);
+			} else {
+				this.trader(i % TRADERS).marketSell(this.amount, this.market);
+			}
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package benchmark;
+
+import java.util.Random;
+
+import executable.Query;
+import executable.QueryExecutor;
+import executable.Reporter;
+
+/**
+ * This scenario measures the queries that only read the state of the market, orders #500 and #505, on books that hold
+ * the given number of resting orders on each side. The queries go through the QueryExecutor, and their results are
+ * passed to a reporter that only adds them up, so the cost of formatting the output isn't included.
+ * @author Eren
+ *
+ */
+public class QueryScenario extends Scenario {
+
+	/**
+	 * The number of price levels the resting orders are spread over on each side.
+	 */
+	private static final int LEVELS = 1000;
+
+	/**
+	 * The number of resting orders on each side.
+	 */
+	private final int depth;
+
+	/**
+	 * The reporter that adds up the results of the queries.
+	 */
+	private final SumReporter reporter;
+
+	/**
+	 * The executor of the current iteration.
+	 */
+	private QueryExecutor executor;
+
+	/**
+	 * The query of order #500.
+	 */
+	private final Query size;
+
+	/**
+	 * The query of order #505.
+	 */
+	private final Query prices;
+
+	/**
+	 * Constructor for the QueryScenario class.
+	 * @param name The name of the scenario.
+	 * @param operations The number of queries executed by each call of run.
+	 * @param depth The number of resting orders on each side.
+	 */
+	public QueryScenario(String name, int operations, int depth) {
+		super(name, operations);
+		this.depth = depth;
+		this.reporter = new SumReporter();
+		this.size = new Query();
+		this.size.set(500, 0, 0, 0, 0, 0);
+		this.prices = new Query();
+		this.prices.set(505, 0, 0, 0, 0, 0);
+	}
+
+	/**
+	 * This method fills the books up to the depth of the scenario.
+	 */
+	@Override
+	protected void prepare() {
+		this.fillBook(this.depth, LEVELS);
+		this.executor = new QueryExecutor(this.market, new Random(0), this.reporter);
+	}
+
+	/**
+	 * This method executes the queries, alternating between orders #500 and #505.
+	 */
+	@Override
+	public void run() {
+		for(int i = 0; i < this.getOperations(); i++) {
+			this.executor.execute((i & 1) == 0 ? this.size : this.prices);
+		}
+	}
+
+	/**
+	 * Getter method for the sum of all reported values, which keeps the results of the queries alive.
+	 * @return The sum of all reported values.
+	 */
+	public long getSum() {
+		return this.reporter.sum;
+	}
+
+	/**
+	 * This class is a reporter that only adds up the values it receives.
+	 * @author Eren
+	 *
+	 */
+	private static class SumReporter implements Reporter {
+
+		/**
+		 * The sum of all reported values.
+		 */
+		long sum;
+
+		/**
+		 * This method adds the reported values to the sum.
+		 */
+		@Override
+		public void reportTrader(int traderID, long dollars, long coins) {
+			this.sum += traderID + dollars + coins;
+		}
+
+		/**
+		 * This method adds the reported values to the sum.
+		 */
+		@Override
+		public void reportMarketSize(long dollars, long coins) {
+			this.sum += dollars + coins;
+		}
+
+		/**
+		 * This method adds the reported value to the sum.
+		 */
+		@Override
+		public void reportSuccessfulTransactions(int count) {
+			this.sum += count;
+		}
+
+		/**
+		 * This method adds the reported value to the sum.
+		 */
+		@Override
+		public void reportInvalidQueries(int count) {
+			this.sum += count;
+		}
+
+		/**
+		 * This method adds the reported values to the sum.
+		 */
+		@Override
+		public void reportPrices(long buyingPrice, long sellingPrice, long average) {
+			this.sum += buyingPrice + sellingPrice + average;
+		}
+
+		/**
+		 * This method adds the reported values to the sum.
+		 */
+		@Override
+		public void reportCandle(long index, long open, long high, long low, long close, long volume, long vwap) {
+			this.sum += index + open + high + low + close + volume + vwap;
+		}
+	}
+}
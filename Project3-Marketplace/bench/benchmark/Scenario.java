@@ -0,0 +1,154 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+
+import elements.FixedPoint;
+import elements.Market;
+import elements.Trader;
+
+/**
+ * This class represents a single benchmark scenario of the market. Every iteration of a scenario works on a fresh
+ * market: setUp builds the market and everything the scenario needs, which isn't measured, then run performs a fixed
+ * number of operations on it, which is measured, and tearDown releases the market.
+ * @author Eren
+ *
+ */
+public abstract class Scenario {
+
+	/**
+	 * The market fee used in all scenarios.
+	 */
+	protected static final int FEE = 5;
+
+	/**
+	 * The price all generated orders are placed around, in ticks.
+	 */
+	protected static final long MID = 50 * FixedPoint.SCALE;
+
+	/**
+	 * The distance between two neighbouring price levels, in ticks.
+	 */
+	protected static final long STEP = FixedPoint.SCALE / 100;
+
+	/**
+	 * The number of traders that place the generated orders.
+	 */
+	protected static final int TRADERS = 64;
+
+	/**
+	 * The amount of dollars and PQoins every trader starts with. It is large enough that no generated order is ever
+	 * rejected for lack of funds.
+	 */
+	private static final long FUNDS = 1000000000L * FixedPoint.SCALE;
+
+	/**
+	 * The name of the scenario.
+	 */
+	private final String name;
+
+	/**
+	 * The number of operations performed by each call of run.
+	 */
+	private final int operations;
+
+	/**
+	 * The market of the current iteration.
+	 */
+	protected Market market;
+
+	/**
+	 * The random number generator of the current iteration. It is reset with the same seed in every iteration, so all
+	 * iterations do exactly the same work.
+	 */
+	protected Random random;
+
+	/**
+	 * Constructor for the Scenario class.
+	 * @param name The name of the scenario.
+	 * @param operations The number of operations performed by each call of run.
+	 */
+	protected Scenario(String name, int operations) {
+		this.name = name;
+		this.operations = operations;
+	}
+
+	/**
+	 * Getter method for the name of the scenario.
+	 * @return The name of the scenario.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Getter method for the number of operations performed by each call of run.
+	 * @return The number of operations.
+	 */
+	public int getOperations() {
+		return this.operations;
+	}
+
+	/**
+	 * This method creates a fresh market with the traders of the scenario, then calls prepare.
+	 */
+	public void setUp() {
+		this.market = new Market(FEE);
+		this.random = new Random(160);
+		new Trader(this.market, 0, 0);
+		for(int i = 0; i < TRADERS; i++) {
+			new Trader(this.market, FUNDS, FUNDS);
+		}
+		this.prepare();
+	}
+
+	/**
+	 * This method prepares the market and the inputs of the operations. It isn't measured.
+	 */
+	protected abstract void prepare();
+
+	/**
+	 * This method performs the measured operations.
+	 */
+	public abstract void run();
+
+	/**
+	 * This method releases the market of the current iteration.
+	 * @throws IOException If the trade journal of the market can't be closed.
+	 */
+	public void tearDown() throws IOException {
+		this.market.getTradeJournal().close();
+		this.market = null;
+	}
+
+	/**
+	 * Getter method for a trader of the scenario.
+	 * @param index Index of the trader, between 0 and the number of traders of the scenario.
+	 * @return The trader.
+	 */
+	protected Trader trader(int index) {
+		return this.market.getTrader(index + 1);
+	}
+
+	/**
+	 * This method generates a random amount for an order.
+	 * @return An amount between 0.01 and 10 PQoins, in lots.
+	 */
+	protected long randomAmount() {
+		return (1 + this.random.nextInt(1000)) * (FixedPoint.SCALE / 100);
+	}
+
+	/**
+	 * This method fills both sides of the book with resting orders that don't cross. Buying orders are placed on the
+	 * given number of levels below the mid price, and selling orders on the same number of levels above it.
+	 * @param orders The number of orders on each side.
+	 * @param levels The number of price levels on each side.
+	 */
+	protected void fillBook(int orders, int levels) {
+		for(int i = 0; i < orders; i++) {
+			long offset = (1 + this.random.nextInt(levels)) * STEP;
+			this.trader(i % TRADERS).buy(this.randomAmount(), MID - offset, this.market);
+			this.trader((i + 1) % TRADERS).sell(this.randomAmount(), MID + offset, this.market);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+/**
+ * This scenario measures order #666. The books are filled with resting orders on both sides, and every operation is
+ * an open market operation at a price that lies a little further from the mid price than the previous one, so each
+ * operation sweeps the levels that have come into reach since the previous one.
+ * @author Eren
+ *
+ */
+public class SweepScenario extends Scenario {
+
+	/**
+	 * The number of resting orders on each side before the measured operations.
+	 */
+	private final int depth;
+
+	/**
+	 * Constructor for the SweepScenario class.
+	 * @param name The name of the scenario.
+	 * @param operations The number of open market operations performed by each call of run. It is also the number of
+	 * price levels on each side, so that the last operation empties both books.
+	 * @param depth The number of resting orders on each side before the measured operations.
+	 */
+	public SweepScenario(String name, int operations, int depth) {
+		super(name, operations);
+		this.depth = depth;
+	}
+
+	/**
+	 * This method fills the books up to the depth of the scenario, over as many levels as there are operations.
+	 */
+	@Override
+	protected void prepare() {
+		this.fillBook(this.depth, this.getOperations());
+	}
+
+	/**
+	 * This method performs the open market operations, alternating between sweeping the buying side downwards and the
+	 * selling side upwards.
+	 */
+	@Override
+	public void run() {
+		for(int i = 0; i < this.getOperations(); i++) {
+			long offset = (i + 1) * STEP;
+			if((i & 1) == 0) {
+				this.market.makeOpenMarketOperation(MID - offset);
+			} else {
+				this.market.makeOpenMarketOperation(MID + offset);
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package elements;
+
+/**
+ * This interface is told about every change in the price levels of the order books of a market. A level is the total
+ * of all orders of one side that have exactly the same price. The methods are called by the thread that changes the
+ * market, right after the change, so implementations should only record the change and return quickly.
+ * @author Eren
+ *
+ */
+public interface BookListener {
+
+	/**
+	 * This method is called when a level is created by the first order with its price.
+	 * @param buying true if the level holds buying orders, false if it holds selling orders.
+	 * @param price The price of the level, in ticks.
+	 * @param volume The total amount of PQoins in the level, in lots.
+	 * @param orders The number of orders in the level.
+	 */
+	void levelAdded(boolean buying, long price, long volume, int orders);
+
+	/**
+	 * This method is called when the total amount or the number of orders of an existing level changes.
+	 * @param buying true if the level holds buying orders, false if it holds selling orders.
+	 * @param price The price of the level, in ticks.
+	 * @param volume The new total amount of PQoins in the level, in lots.
+	 * @param orders The new number of orders in the level.
+	 */
+	void levelChanged(boolean buying, long price, long volume, int orders);
+
+	/**
+	 * This method is called when the last order of a level is filled or cancelled, or the whole level is filled at
+	 * once.
+	 * @param buying true if the level held buying orders, false if it held selling orders.
+	 * @param price The price of the level, in ticks.
+	 */
+	void levelRemoved(boolean buying, long price);
+}
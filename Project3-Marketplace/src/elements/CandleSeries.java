@@ -0,0 +1,244 @@
+package elements;
+
+/**
+ * This class builds OHLCV candles from the fills of a market while they happen. A candle covers either a fixed number
+ * of queries or a fixed number of fills, and holds the open, high, low and close prices, the traded volume and the
+ * traded dollars of its period, from which the volume weighted average price is found. Only the latest candles are
+ * kept, in ring buffers of a fixed size, so the series never grows and no trades have to be stored.
+ * <p>
+ * A candle without any fills takes the close price of the previous candle as all four of its prices, or 0 if nothing
+ * has been traded yet.
+ * @author Eren
+ *
+ */
+public class CandleSeries implements TradeListener {
+
+	/**
+	 * The number of queries or fills covered by each candle.
+	 */
+	private final int period;
+
+	/**
+	 * true if each candle covers a number of fills, false if it covers a number of queries.
+	 */
+	private final boolean byTrades;
+
+	/**
+	 * The open prices of the kept candles in ticks, indexed by candle index modulo the capacity.
+	 */
+	private final long[] open;
+
+	/**
+	 * The highest prices of the kept candles in ticks.
+	 */
+	private final long[] high;
+
+	/**
+	 * The lowest prices of the kept candles in ticks.
+	 */
+	private final long[] low;
+
+	/**
+	 * The close prices of the kept candles in ticks.
+	 */
+	private final long[] close;
+
+	/**
+	 * The traded amounts of PQoins of the kept candles in lots.
+	 */
+	private final long[] volume;
+
+	/**
+	 * The traded amounts of dollars of the kept candles in ticks.
+	 */
+	private final long[] notional;
+
+	/**
+	 * The number of fills of the kept candles.
+	 */
+	private final int[] trades;
+
+	/**
+	 * Index of the current candle. Candles are numbered from 0.
+	 */
+	private long current;
+
+	/**
+	 * The number of queries executed during the current candle.
+	 */
+	private int queries;
+
+	/**
+	 * The price of the last fill in ticks, 0 if nothing has been traded yet.
+	 */
+	private long lastPrice;
+
+	/**
+	 * Constructor for the CandleSeries class.
+	 * @param period The number of queries or fills covered by each candle.
+	 * @param byTrades true if each candle covers a number of fills, false if it covers a number of queries.
+	 * @param capacity The number of latest candles that are kept.
+	 */
+	public CandleSeries(int period, boolean byTrades, int capacity) {
+		if(period <= 0 || capacity <= 0) {
+			throw new IllegalArgumentException("The period and the capacity of the candles must be positive.");
+		}
+		this.period = period;
+		this.byTrades = byTrades;
+		this.open = new long[capacity];
+		this.high = new long[capacity];
+		this.low = new long[capacity];
+		this.close = new long[capacity];
+		this.volume = new long[capacity];
+		this.notional = new long[capacity];
+		this.trades = new int[capacity];
+		this.current = 0;
+		this.queries = 0;
+		this.lastPrice = 0;
+	}
+
+	/**
+	 * This method adds a fill to the current candle. If the candles cover a number of fills and the current candle
+	 * is full, a new candle is started.
+	 */
+	@Override
+	public void tradeExecuted(int sellerID, int buyerID, long amount, long price) {
+		int slot = this.slot(this.current);
+		if(this.trades[slot] == 0) {
+			this.open[slot] = price;
+			this.high[slot] = price;
+			this.low[slot] = price;
+		} else if(price > this.high[slot]) {
+			this.high[slot] = price;
+		} else if(price < this.low[slot]) {
+			this.low[slot] = price;
+		}
+		this.close[slot] = price;
+		this.volume[slot] += amount;
+		this.notional[slot] += FixedPoint.multiply(amount, price);
+		this.trades[slot]++;
+		this.lastPrice = price;
+		if(this.byTrades && this.trades[slot] == this.period) {
+			this.startCandle();
+		}
+	}
+
+	/**
+	 * This method is called after every query. If the candles cover a number of queries and the current candle is
+	 * full, a new candle is started.
+	 */
+	public void queryExecuted() {
+		if(!this.byTrades && ++this.queries == this.period) {
+			this.startCandle();
+		}
+	}
+
+	/**
+	 * This method starts a new candle, which overwrites the oldest kept candle.
+	 */
+	private void startCandle() {
+		this.current++;
+		this.queries = 0;
+		int slot = this.slot(this.current);
+		this.open[slot] = this.lastPrice;
+		this.high[slot] = this.lastPrice;
+		this.low[slot] = this.lastPrice;
+		this.close[slot] = this.lastPrice;
+		this.volume[slot] = 0;
+		this.notional[slot] = 0;
+		this.trades[slot] = 0;
+	}
+
+	/**
+	 * This method finds the position of a candle in the ring buffers.
+	 * @param index Index of the candle.
+	 * @return The position of the candle.
+	 */
+	private int slot(long index) {
+		return (int) (index % this.open.length);
+	}
+
+	/**
+	 * Getter method for the index of the current candle, which is still being filled.
+	 * @return Index of the current candle.
+	 */
+	public long getCurrentIndex() {
+		return this.current;
+	}
+
+	/**
+	 * Getter method for the index of the oldest kept candle.
+	 * @return Index of the oldest candle that can still be read.
+	 */
+	public long getOldestIndex() {
+		return Math.max(0, this.current - this.open.length + 1);
+	}
+
+	/**
+	 * Getter method for the open price of a candle.
+	 * @param index Index of the candle, between the oldest and the current index.
+	 * @return The open price of the candle, in ticks.
+	 */
+	public long getOpen(long index) {
+		return this.open[this.slot(index)];
+	}
+
+	/**
+	 * Getter method for the highest price of a candle.
+	 * @param index Index of the candle, between the oldest and the current index.
+	 * @return The highest price of the candle, in ticks.
+	 */
+	public long getHigh(long index) {
+		return this.high[this.slot(index)];
+	}
+
+	/**
+	 * Getter method for the lowest price of a candle.
+	 * @param index Index of the candle, between the oldest and the current index.
+	 * @return The lowest price of the candle, in ticks.
+	 */
+	public long getLow(long index) {
+		return this.low[this.slot(index)];
+	}
+
+	/**
+	 * Getter method for the close price of a candle.
+	 * @param index Index of the candle, between the oldest and the current index.
+	 * @return The close price of the candle, in ticks.
+	 */
+	public long getClose(long index) {
+		return this.close[this.slot(index)];
+	}
+
+	/**
+	 * Getter method for the volume of a candle.
+	 * @param index Index of the candle, between the oldest and the current index.
+	 * @return The traded amount of PQoins during the candle, in lots.
+	 */
+	public long getVolume(long index) {
+		return this.volume[this.slot(index)];
+	}
+
+	/**
+	 * Getter method for the number of fills of a candle.
+	 * @param index Index of the candle, between the oldest and the current index.
+	 * @return The number of fills during the candle.
+	 */
+	public int getTrades(long index) {
+		return this.trades[this.slot(index)];
+	}
+
+	/**
+	 * This method calculates the volume weighted average price of a candle.
+	 * @param index Index of the candle, between the oldest and the current index.
+	 * @return The volume weighted average price of the candle in ticks, or its close price if nothing has been traded
+	 * during the candle.
+	 */
+	public long getVWAP(long index) {
+		int slot = this.slot(index);
+		if(this.volume[slot] == 0) {
+			return this.close[slot];
+		}
+		return FixedPoint.quotient(this.notional[slot], this.volume[slot]);
+	}
+}
@@ -0,0 +1,122 @@
+package elements;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents an exchange in which many instruments are traded against dollars. Each instrument has its
+ * own Market with its own order books, and the markets are distributed over a fixed number of shards. Every shard is
+ * a single thread that runs all work of its instruments in the order it was submitted, so a market is only ever
+ * touched by one thread and no locks are needed inside the markets.
+ * <p>
+ * A trader has the same ID in every instrument. The wallet of a trader is kept per instrument: it holds the PQoins of
+ * that instrument, and the dollars the trader has put aside for trading it. Keeping the dollars per instrument is what
+ * lets the shards run without ever waiting for each other, and it also keeps the output of every instrument
+ * independent of how the shards are scheduled, so the same input always gives the same output.
+ * @author Eren
+ *
+ */
+public class Exchange {
+
+	/**
+	 * The markets of all instruments, indexed by instrument ID.
+	 */
+	private final Market[] markets;
+
+	/**
+	 * The single-threaded executors of the shards.
+	 */
+	private final ExecutorService[] shards;
+
+	/**
+	 * Constructor for the Exchange class.
+	 * @param fee The amount of dollars received by each market for every 1000 dollars processed.
+	 * @param numOfInstruments The number of instruments.
+	 * @param numOfShards The number of shards, i.e. the number of matching threads.
+	 */
+	public Exchange(int fee, int numOfInstruments, int numOfShards) {
+		this.markets = new Market[numOfInstruments];
+		for(int i = 0; i < numOfInstruments; i++) {
+			this.markets[i] = new Market(fee);
+		}
+		this.shards = new ExecutorService[numOfShards];
+		for(int i = 0; i < numOfShards; i++) {
+			this.shards[i] = Executors.newSingleThreadExecutor();
+		}
+	}
+
+	/**
+	 * This method adds a new trader to every instrument.
+	 * @param dollars The initial amount of dollars of the trader for each instrument, in ticks.
+	 * @param coins The initial amount of coins of the trader for each instrument, in lots.
+	 * @return ID of the new trader.
+	 */
+	public int addTrader(long[] dollars, long[] coins) {
+		int id = this.markets[0].getNumberOfTraders();
+		for(int i = 0; i < this.markets.length; i++) {
+			new Trader(this.markets[i], dollars[i], coins[i]);
+		}
+		return id;
+	}
+
+	/**
+	 * Getter method for the number of instruments.
+	 * @return The number of instruments.
+	 */
+	public int getNumberOfInstruments() {
+		return this.markets.length;
+	}
+
+	/**
+	 * Getter method for the market of an instrument. The market must only be used from tasks submitted for the same
+	 * instrument, or after the exchange has been shut down.
+	 * @param instrument ID of the instrument.
+	 * @return The market of the instrument.
+	 */
+	public Market getMarket(int instrument) {
+		return this.markets[instrument];
+	}
+
+	/**
+	 * This method finds the shard an instrument belongs to.
+	 * @param instrument ID of the instrument.
+	 * @return Index of the shard.
+	 */
+	public int shardOf(int instrument) {
+		return instrument % this.shards.length;
+	}
+
+	/**
+	 * This method submits a task to the shard of an instrument. Tasks of the same instrument are run one by one, in
+	 * the order they are submitted.
+	 * @param instrument ID of the instrument the task works on.
+	 * @param task The task. Exceptions thrown by the task are passed to the uncaught exception handler of the shard
+	 * thread.
+	 */
+	public void submit(int instrument, Runnable task) {
+		this.shards[this.shardOf(instrument)].execute(task);
+	}
+
+	/**
+	 * This method waits until all submitted tasks have been run, then stops the shards and closes the trade journals
+	 * of all markets.
+	 * @throws InterruptedException If the current thread is interrupted while waiting.
+	 */
+	public void shutdown() throws InterruptedException {
+		for(ExecutorService shard : this.shards) {
+			shard.shutdown();
+		}
+		for(ExecutorService shard : this.shards) {
+			shard.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		for(Market market : this.markets) {
+			try {
+				market.getTradeJournal().close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
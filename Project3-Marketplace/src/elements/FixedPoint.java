@@ -0,0 +1,197 @@
+package elements;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class contains the fixed-point arithmetic used throughout the market. All prices and amounts of dollars are
+ * stored as a long number of ticks, and all amounts of PQoins are stored as a long number of lots, where a tick is
+ * 10^-8 dollars and a lot is 10^-8 PQoins. Values are only converted from and to decimal numbers while reading the
+ * input and printing the output.
+ * <p>
+ * The fixed-point values replace the doubles the market used to keep, on purpose and without a switch back to them.
+ * Since every comparison is exact, the output differs from the double version wherever rounding errors used to show:
+ * partial fills no longer leave tiny remainders behind that are later traded as separate transactions, and the last
+ * printed digit of a balance may change. The expected outputs in the data directory are those of the fixed-point
+ * version.
+ * @author Eren
+ *
+ */
+public final class FixedPoint {
+
+	/**
+	 * The number of decimal digits kept in ticks and lots.
+	 */
+	public static final int DECIMALS = 8;
+
+	/**
+	 * The number of ticks in 1 dollar, which is also the number of lots in 1 PQoin.
+	 */
+	public static final long SCALE = 100000000L;
+
+	/**
+	 * The constructor is private, since this class only contains static methods.
+	 */
+	private FixedPoint() {
+	}
+
+	/**
+	 * This method parses a decimal number such as "12.5" or "-3" into a fixed-point value. Digits beyond the
+	 * supported number of decimals are rounded half up. Numbers in scientific notation are parsed through the
+	 * double representation.
+	 * @param text The decimal number.
+	 * @return The fixed-point value of the number.
+	 */
+	public static long parse(String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+		return FixedPoint.parse(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * This method parses a decimal number written in ASCII characters into a fixed-point value, in the same way as
+	 * the parse method that takes a String, but without creating any objects for plain decimal numbers.
+	 * @param bytes The array that contains the characters of the number.
+	 * @param offset The index of the first character of the number.
+	 * @param length The number of characters in the number.
+	 * @return The fixed-point value of the number.
+	 */
+	public static long parse(byte[] bytes, int offset, int length) {
+		int end = offset + length;
+		int index = offset;
+		boolean negative = false;
+		if(index < end && (bytes[index] == '-' || bytes[index] == '+')) {
+			negative = bytes[index] == '-';
+			index++;
+		}
+		long whole = 0;
+		long fraction = 0;
+		int fractionDigits = 0;
+		boolean roundUp = false;
+		boolean seenPoint = false;
+		boolean seenDigit = false;
+		for(; index < end; index++) {
+			byte c = bytes[index];
+			if(c >= '0' && c <= '9') {
+				seenDigit = true;
+				if(!seenPoint) {
+					whole = Math.addExact(Math.multiplyExact(whole, 10), c - '0');
+				} else if(fractionDigits < DECIMALS) {
+					fraction = fraction * 10 + (c - '0');
+					fractionDigits++;
+				} else if(fractionDigits == DECIMALS) {
+					roundUp = c >= '5';
+					fractionDigits++;
+				}
+			} else if(c == '.' && !seenPoint) {
+				seenPoint = true;
+			} else {
+				String text = new String(bytes, offset, length, StandardCharsets.US_ASCII);
+				return FixedPoint.fromDouble(Double.parseDouble(text));
+			}
+		}
+		if(!seenDigit) {
+			throw new NumberFormatException("Not a number: \"" + new String(bytes, offset, length,
+					StandardCharsets.US_ASCII) + "\"");
+		}
+		for(int i = Math.min(fractionDigits, DECIMALS); i < DECIMALS; i++) {
+			fraction *= 10;
+		}
+		long value = Math.addExact(Math.multiplyExact(whole, SCALE), fraction + (roundUp ? 1 : 0));
+		return negative ? -value : value;
+	}
+
+	/**
+	 * This method converts a double into the nearest fixed-point value.
+	 * @param value The value to be converted.
+	 * @return The fixed-point value.
+	 */
+	public static long fromDouble(double value) {
+		return Math.round(value * SCALE);
+	}
+
+	/**
+	 * This method converts a fixed-point value into a double, for printing.
+	 * @param value The fixed-point value.
+	 * @return The value as a double.
+	 */
+	public static double toDouble(long value) {
+		return (double) value / SCALE;
+	}
+
+	/**
+	 * This method multiplies two fixed-point values, such as an amount of lots and a price in ticks, rounding the
+	 * result half up. The multiplication is done in two parts so that the intermediate results fit in a long for all
+	 * realistic prices, and falls back to exact big number arithmetic otherwise.
+	 * @param a The first value.
+	 * @param b The second value.
+	 * @return The product of the values, in the same scale as the values.
+	 */
+	public static long multiply(long a, long b) {
+		long whole = a / SCALE;
+		long fraction = a % SCALE;
+		long high = Math.multiplyHigh(fraction, b);
+		long low = fraction * b;
+		if(high != (low >> 63)) {
+			BigInteger product = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+			return new BigDecimal(product, DECIMALS).setScale(0, RoundingMode.HALF_UP).longValueExact();
+		}
+		return Math.addExact(Math.multiplyExact(whole, b), FixedPoint.divide(low, SCALE));
+	}
+
+	/**
+	 * This method finds the largest amount that can be bought at the given price with the given amount of dollars,
+	 * i.e. the largest amount whose product with the price, as calculated by the multiply method, doesn't exceed the
+	 * dollars. It is only needed when an order runs out of dollars, so it uses exact big number arithmetic.
+	 * @param dollars The amount of dollars, which must not be negative.
+	 * @param price The price, which must be positive.
+	 * @return The largest affordable amount.
+	 */
+	public static long affordable(long dollars, long price) {
+		// multiply rounds half up, so the product is at most the dollars as long as it is below dollars + 1/2
+		BigInteger limit = BigInteger.valueOf(dollars).shiftLeft(1).add(BigInteger.ONE)
+				.multiply(BigInteger.valueOf(SCALE)).subtract(BigInteger.ONE);
+		BigInteger amount = limit.divide(BigInteger.valueOf(price).shiftLeft(1));
+		return amount.min(BigInteger.valueOf(Long.MAX_VALUE)).longValue();
+	}
+
+	/**
+	 * This method calculates the given fraction of a fixed-point value, rounding the result half up.
+	 * @param value The fixed-point value.
+	 * @param numerator The numerator of the fraction.
+	 * @param denominator The denominator of the fraction.
+	 * @return The fraction of the value.
+	 */
+	public static long fraction(long value, long numerator, long denominator) {
+		return FixedPoint.divide(Math.multiplyExact(value, numerator), denominator);
+	}
+
+	/**
+	 * This method divides two fixed-point values, such as an amount of dollars in ticks and an amount of PQoins in
+	 * lots, rounding the result half up. It uses exact big number arithmetic, so it should only be used outside of the
+	 * matching loops.
+	 * @param a The dividend.
+	 * @param b The divisor, which must be positive.
+	 * @return The quotient of the values, in the same scale as the values.
+	 */
+	public static long quotient(long a, long b) {
+		return BigDecimal.valueOf(a).divide(BigDecimal.valueOf(b), DECIMALS, RoundingMode.HALF_UP).unscaledValue()
+				.longValueExact();
+	}
+
+	/**
+	 * This method divides two longs, rounding the result half away from zero.
+	 * @param value The dividend.
+	 * @param divisor The divisor, which must be positive.
+	 * @return The rounded quotient.
+	 */
+	private static long divide(long value, long divisor) {
+		long quotient = value / divisor;
+		long remainder = value % divisor;
+		if(Math.abs(remainder) * 2 >= divisor) {
+			quotient += Long.signum(value);
+		}
+		return quotient;
+	}
+}
@@ -1,11 +1,17 @@
 package elements;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.PriorityQueue;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 
 /**
- * This class represents the market. Only 1 instance of this is created throughout the whole program, which acts as
- * the sole market.
+ * This class represents the market. Each simulation creates its own instance, which holds all of the state of that
+ * simulation: the order books, the traders and the counters. Different instances don't share anything, so many
+ * simulations can run at the same time.
  * @author Eren
  *
  */
@@ -17,181 +23,1178 @@ public class Market {
 	private final int marketFee;
 	
 	/**
-	 * The priority queue of all active selling orders. The orders are sorted first by increasing price, then by
-	 * decreasing amount, and finally by increasing trader ID.
+	 * The order book of all active selling orders. The orders are sorted first by increasing price, then by
+	 * decreasing amount, then by increasing trader ID, and finally by increasing order ID.
 	 */
-	private PriorityQueue<SellingOrder> sellingOrders;
+	private OrderBook sellingOrders;
 	
 	/**
-	 * The priority queue of all active buying orders. The orders are sorted first by decreasing price, then by
-	 * decreasing amount, and finally by increasing trader ID.
+	 * The order book of all active buying orders. The orders are sorted first by decreasing price, then by
+	 * decreasing amount, then by increasing trader ID, and finally by increasing order ID.
 	 */
-	private PriorityQueue<BuyingOrder> buyingOrders;
+	private OrderBook buyingOrders;
 	
 	/**
-	 * List of all processed transactions. This list has no purpose other than storage.
+	 * The slab that stores all active orders of both sides. The order books and the index only hold handles to it.
 	 */
-	private ArrayList<Transaction> transactions;
+	private OrderSlab orders;
 	
 	/**
-	 * List of all traders.
+	 * The index of all active orders of both sides, by order ID.
 	 */
-	public static ArrayList<Trader> traders = new ArrayList<Trader>();
+	private OrderIndex activeOrders;
+	
+	/**
+	 * The dormant buying stop orders, which are triggered when the last trade price rises to their stop prices.
+	 */
+	private StopBook buyingStops;
+	
+	/**
+	 * The dormant selling stop orders, which are triggered when the last trade price falls to their stop prices.
+	 */
+	private StopBook sellingStops;
+	
+	/**
+	 * The index of all dormant stop orders of both sides, by order ID.
+	 */
+	private HashMap<Long, StopOrder> stopOrders;
+	
+	/**
+	 * The price of the last fill in ticks, -1 if nothing has been traded yet.
+	 */
+	private long lastTradePrice;
+	
+	/**
+	 * The highest and lowest prices of the fills since the stop orders were last checked, in ticks. Between two
+	 * operations both are equal to the last trade price, and during an operation they cover every price it has traded
+	 * at, so a stop price that is crossed and then left by the same operation still triggers its orders.
+	 */
+	private long highestTradePrice;
+	private long lowestTradePrice;
+	
+	/**
+	 * Whether triggered stop orders are being activated. The orders placed by an activation trigger further stop
+	 * orders, which are activated by the same loop instead of a nested one.
+	 */
+	private boolean activatingStops;
+	
+	/**
+	 * The wallet changes collected during an open market operation.
+	 */
+	private Settlement settlement;
+	
+	/**
+	 * ID of the last order placed in the market, 0 if no orders have been placed yet.
+	 */
+	private long lastOrderID;
+	
+	/**
+	 * Journal of all processed transactions. The journal is kept in a file, and has no purpose other than storage.
+	 */
+	private TradeJournal transactions;
+	
+	/**
+	 * The listener that is told about every fill, null if there is none.
+	 */
+	private TradeListener tradeListener;
+	
+	/**
+	 * The total amount of dollars in all active buying orders, in ticks. It is updated with every change in the
+	 * buying orders, so that it doesn't have to be calculated from scratch.
+	 */
+	private long dollarsInBuying;
+	
+	/**
+	 * The total amount of PQoins in all active selling orders, in lots. It is updated with every change in the
+	 * selling orders, so that it doesn't have to be calculated from scratch.
+	 */
+	private long coinsInSelling;
+	
+	/**
+	 * Whether the market is in a call auction, in which new orders are only collected and the books are only matched
+	 * when the auction is uncrossed.
+	 */
+	private boolean auction;
+	
+	/**
+	 * The prices of the crossing selling levels, kept between uncrosses so that finding the equilibrium price
+	 * doesn't allocate. It grows when a book has more crossing levels than ever before.
+	 */
+	private long[] sellingScratchPrices;
+	
+	/**
+	 * The volumes of the crossing selling levels, in the same order as sellingScratchPrices.
+	 */
+	private long[] sellingScratchVolumes;
+	
+	/**
+	 * The prices of the crossing buying levels, kept between uncrosses like sellingScratchPrices.
+	 */
+	private long[] buyingScratchPrices;
+	
+	/**
+	 * The volumes of the crossing buying levels, in the same order as buyingScratchPrices.
+	 */
+	private long[] buyingScratchVolumes;
+	
+	/**
+	 * The number of operations between two checks of the running totals against the order books. 0 means that the
+	 * totals are never checked.
+	 */
+	private int verificationInterval;
+	
+	/**
+	 * The number of operations performed since the running totals were last checked.
+	 */
+	private int operationsSinceVerification;
+	
+	/**
+	 * List of all traders in the market.
+	 */
+	private ArrayList<Trader> traders;
+	
+	/**
+	 * The wallets of all traders in the market, indexed by trader ID.
+	 */
+	private WalletStore wallets;
 	
 	/**
 	 * Counter of successful transactions performed.
 	 */
-	public static int successfulTransactions = 0;
+	private int successfulTransactions;
 	
 	/**
 	 * Counter of invalid queries. A query is invalid if a trader is trying to make an operation they can't afford,
 	 * or if there are no buying / selling orders when the operation requires at least one.
 	 */
-	public static int invalidQueries = 0;
+	private int invalidQueries;
 
 	/**
-	 * Constructor for the Market class.
+	 * Constructor for the Market class. The transactions are recorded in a temporary journal file.
 	 * @param fee The amount of dollars received by the market for every 1000 dollars processed.
 	 */
 	public Market(int fee) {
+		this(fee, TradeJournal.createTemporary());
+	}
+	
+	/**
+	 * Constructor for the Market class.
+	 * @param fee The amount of dollars received by the market for every 1000 dollars processed.
+	 * @param journal The journal in which the transactions are recorded.
+	 */
+	public Market(int fee, TradeJournal journal) {
+		this(fee, journal, false);
+	}
+	
+	/**
+	 * Constructor for the Market class.
+	 * @param fee The amount of dollars received by the market for every 1000 dollars processed.
+	 * @param journal The journal in which the transactions are recorded.
+	 * @param offHeapOrders true to store the active orders outside of the heap, false to store them in the heap.
+	 */
+	public Market(int fee, TradeJournal journal, boolean offHeapOrders) {
 		this.marketFee = fee;
-		this.sellingOrders = new PriorityQueue<SellingOrder>();
-		this.buyingOrders = new PriorityQueue<BuyingOrder>();
-		this.transactions = new ArrayList<Transaction>();
+		this.orders = new OrderSlab(1024, offHeapOrders);
+		this.sellingOrders = new OrderBook(false, this.orders);
+		this.buyingOrders = new OrderBook(true, this.orders);
+		this.activeOrders = new OrderIndex();
+		this.buyingStops = new StopBook(true);
+		this.sellingStops = new StopBook(false);
+		this.stopOrders = new HashMap<Long, StopOrder>();
+		this.lastTradePrice = -1;
+		this.highestTradePrice = -1;
+		this.lowestTradePrice = -1;
+		this.activatingStops = false;
+		this.lastOrderID = 0;
+		this.settlement = new Settlement();
+		this.transactions = journal;
+		this.tradeListener = null;
+		this.traders = new ArrayList<Trader>();
+		this.wallets = new WalletStore();
+		this.successfulTransactions = 0;
+		this.invalidQueries = 0;
+		this.dollarsInBuying = 0;
+		this.coinsInSelling = 0;
+		this.verificationInterval = 0;
+		this.operationsSinceVerification = 0;
+		this.auction = false;
+		this.sellingScratchPrices = new long[16];
+		this.sellingScratchVolumes = new long[16];
+		this.buyingScratchPrices = new long[16];
+		this.buyingScratchVolumes = new long[16];
+	}
+	
+	/**
+	 * This method restores a market from a snapshot written by the writeSnapshot method. The running totals are
+	 * calculated again from the restored orders.
+	 * @param in The input the snapshot is read from.
+	 * @param journal The journal in which the transactions are recorded, null to use a temporary journal. It is
+	 * rewound to the number of trades recorded at the time of the snapshot.
+	 * @return The restored market.
+	 * @throws IOException If the input can't be read.
+	 */
+	public static Market readSnapshot(DataInput in, TradeJournal journal) throws IOException {
+		return Market.readSnapshot(in, journal, false);
+	}
+	
+	/**
+	 * This method restores a market from a snapshot written by the writeSnapshot method. The running totals are
+	 * calculated again from the restored orders.
+	 * @param in The input the snapshot is read from.
+	 * @param journal The journal in which the transactions are recorded, null to use a temporary journal. It is
+	 * rewound to the number of trades recorded at the time of the snapshot.
+	 * @param offHeapOrders true to store the active orders outside of the heap, false to store them in the heap.
+	 * @return The restored market.
+	 * @throws IOException If the input can't be read.
+	 */
+	public static Market readSnapshot(DataInput in, TradeJournal journal, boolean offHeapOrders) throws IOException {
+		int fee = in.readInt();
+		long journalSize = in.readLong();
+		if(journal == null) {
+			journal = TradeJournal.createTemporary();
+		} else {
+			journal.rewind(journalSize);
+		}
+		Market market = new Market(fee, journal, offHeapOrders);
+		market.lastOrderID = in.readLong();
+		market.successfulTransactions = in.readInt();
+		market.invalidQueries = in.readInt();
+		market.auction = in.readBoolean();
+		
+		int numOfTraders = in.readInt();
+		for(int i = 0; i < numOfTraders; i++) {
+			new Trader(market, in);
+		}
+		
+		int numOfBuyingOrders = in.readInt();
+		for(int i = 0; i < numOfBuyingOrders; i++) {
+			int order = market.readOrder(in, true);
+			market.buyingOrders.add(order);
+			market.dollarsInBuying += FixedPoint.multiply(market.orders.amount(order), market.orders.price(order));
+		}
+		int numOfSellingOrders = in.readInt();
+		for(int i = 0; i < numOfSellingOrders; i++) {
+			int order = market.readOrder(in, false);
+			market.sellingOrders.add(order);
+			market.coinsInSelling += market.orders.amount(order);
+		}
+		
+		market.lastTradePrice = in.readLong();
+		market.highestTradePrice = market.lastTradePrice;
+		market.lowestTradePrice = market.lastTradePrice;
+		int numOfStopOrders = in.readInt();
+		for(int i = 0; i < numOfStopOrders; i++) {
+			long id = in.readLong();
+			StopOrder order = new StopOrder(in.readInt(), in.readBoolean(), in.readLong(), in.readLong(), in.readLong());
+			order.id = id;
+			(order.buying ? market.buyingStops : market.sellingStops).add(order);
+			market.stopOrders.put(id, order);
+		}
+		return market;
+	}
+	
+	/**
+	 * This method reads a single order of a snapshot into the slab and adds it to the index of active orders.
+	 * @param in The input the snapshot is read from.
+	 * @param buying true for a buying order, false for a selling order.
+	 * @return The handle of the order.
+	 * @throws IOException If the input can't be read.
+	 */
+	private int readOrder(DataInput in, boolean buying) throws IOException {
+		long id = in.readLong();
+		int traderID = in.readInt();
+		long amount = in.readLong();
+		long price = in.readLong();
+		int order = this.orders.add(id, traderID, buying, amount, price);
+		this.activeOrders.put(id, order);
+		return order;
+	}
+	
+	/**
+	 * This method writes the whole state of the market: the fee, the number of recorded trades, the counters, whether
+	 * an auction is running, the wallets of all traders, all active orders, the last trade price and all dormant stop
+	 * orders. The running totals aren't written, since they follow from the orders.
+	 * @param out The output the snapshot is written to.
+	 * @throws IOException If the output can't be written.
+	 */
+	public void writeSnapshot(DataOutput out) throws IOException {
+		out.writeInt(this.marketFee);
+		out.writeLong(this.transactions.size());
+		out.writeLong(this.lastOrderID);
+		out.writeInt(this.successfulTransactions);
+		out.writeInt(this.invalidQueries);
+		out.writeBoolean(this.auction);
+		
+		out.writeInt(this.traders.size());
+		for(int i = 0; i < this.wallets.size(); i++) {
+			this.wallets.write(i, out);
+		}
+		
+		this.writeOrders(out, this.buyingOrders);
+		this.writeOrders(out, this.sellingOrders);
+		
+		out.writeLong(this.lastTradePrice);
+		out.writeInt(this.stopOrders.size());
+		Market.writeStops(out, this.buyingStops);
+		Market.writeStops(out, this.sellingStops);
 	}
 	
 	/**
-	 * This method adds the given selling order to the priority queue of all selling orders, then checks if any
-	 * transactions can be made between traders.
-	 * @param order The selling order to be added to the priority queue of all selling orders.
+	 * This method writes all orders of one order book of a snapshot, level by level.
+	 * @param out The output the snapshot is written to.
+	 * @param book The order book.
+	 * @throws IOException If the output can't be written.
+	 */
+	private void writeOrders(DataOutput out, OrderBook book) throws IOException {
+		out.writeInt(book.size());
+		for(int rank = 0; rank < book.levelCount(); rank++) {
+			PriceLevel level = book.level(rank);
+			for(int i = 0; i < level.size(); i++) {
+				int order = level.get(i);
+				out.writeLong(this.orders.id(order));
+				out.writeInt(this.orders.traderID(order));
+				out.writeLong(this.orders.amount(order));
+				out.writeLong(this.orders.price(order));
+			}
+		}
+	}
+	
+	/**
+	 * This method writes all orders of one stop book of a snapshot, in the order they are triggered.
+	 * @param out The output the snapshot is written to.
+	 * @param book The stop book.
+	 * @throws IOException If the output can't be written.
+	 */
+	private static void writeStops(DataOutput out, StopBook book) throws IOException {
+		for(StopLevel level : book.levels()) {
+			for(StopOrder order = level.first(); order != null; order = order.next) {
+				out.writeLong(order.id);
+				out.writeInt(order.traderID);
+				out.writeBoolean(order.buying);
+				out.writeLong(order.amount);
+				out.writeLong(order.stopPrice);
+				out.writeLong(order.limitPrice);
+			}
+		}
+	}
+	
+	/**
+	 * This method records a fill in the trade journal and tells the trade listener about it.
+	 * @param sellerID ID of the seller, 0 if the market itself has sold.
+	 * @param buyerID ID of the buyer, 0 if the market itself has bought.
+	 * @param amount The amount of PQoins traded, in lots.
+	 * @param price The price of each PQoin, in ticks.
+	 */
+	private void recordTrade(int sellerID, int buyerID, long amount, long price) {
+		this.transactions.record(sellerID, buyerID, amount, price);
+		this.lastTradePrice = price;
+		this.highestTradePrice = Math.max(this.highestTradePrice, price);
+		this.lowestTradePrice = this.lowestTradePrice < 0 ? price : Math.min(this.lowestTradePrice, price);
+		if(this.tradeListener != null) {
+			this.tradeListener.tradeExecuted(sellerID, buyerID, amount, price);
+		}
+	}
+	
+	/**
+	 * Setter method for the trade listener of the market.
+	 * @param listener The listener that is told about every fill, null for none.
+	 */
+	public void setTradeListener(TradeListener listener) {
+		this.tradeListener = listener;
+	}
+	
+	/**
+	 * This method adds a new trader to the market. It is called by the constructor of the Trader class.
+	 * @param trader The new trader, whose ID must be equal to the current number of traders.
+	 */
+	void addTrader(Trader trader) {
+		this.traders.add(trader);
+	}
+	
+	/**
+	 * Getter method for the trader with the given ID.
+	 * @param id ID of the trader.
+	 * @return The trader with the given ID.
+	 */
+	public Trader getTrader(int id) {
+		return this.traders.get(id);
+	}
+	
+	/**
+	 * Getter method for the list of all traders. The list must not be modified.
+	 * @return The list of all traders, ordered by their IDs.
+	 */
+	public List<Trader> getTraders() {
+		return this.traders;
+	}
+	
+	/**
+	 * Getter method for the wallets of all traders. Operations that go through every trader should use the store
+	 * directly instead of going through the Trader objects.
+	 * @return The wallets of all traders, indexed by trader ID.
+	 */
+	public WalletStore getWallets() {
+		return this.wallets;
+	}
+	
+	/**
+	 * Getter method for the number of traders in the market.
+	 * @return The number of traders in the market.
+	 */
+	public int getNumberOfTraders() {
+		return this.traders.size();
+	}
+	
+	/**
+	 * Getter method for the counter of successful transactions.
+	 * @return The number of successful transactions performed.
+	 */
+	public int getSuccessfulTransactions() {
+		return this.successfulTransactions;
+	}
+	
+	/**
+	 * Getter method for the counter of invalid queries.
+	 * @return The number of invalid queries.
+	 */
+	public int getInvalidQueries() {
+		return this.invalidQueries;
+	}
+	
+	/**
+	 * This method increments the counter of invalid queries.
+	 */
+	public void addInvalidQuery() {
+		this.invalidQueries++;
+	}
+	
+	/**
+	 * This method enables the debug verification of the running totals of the market. After every given number of
+	 * operations, the totals are compared to the totals calculated from scratch.
+	 * @param interval The number of operations between two checks, 0 to disable the verification.
+	 */
+	public void setVerificationInterval(int interval) {
+		this.verificationInterval = interval;
+		this.operationsSinceVerification = 0;
+	}
+	
+	/**
+	 * Getter method for the ID of the last order placed in the market. Since IDs are given in the order the orders are
+	 * placed, this is also the number of orders placed so far.
+	 * @return ID of the last order, 0 if no orders have been placed yet.
+	 */
+	public long getLastOrderID() {
+		return this.lastOrderID;
+	}
+	
+	/**
+	 * This method finds an active order of either side by its ID.
+	 * @param id ID of the order.
+	 * @return The handle of the order with the given ID, -1 if there is no such order or it has already been filled
+	 * or cancelled.
+	 */
+	int findOrder(long id) {
+		return this.activeOrders.get(id);
+	}
+	
+	/**
+	 * Getter method for the trader of an active order.
+	 * @param id ID of the order.
+	 * @return ID of the trader that has placed the order, -1 if there is no such order or it has already been filled
+	 * or cancelled.
+	 */
+	public int getOrderTrader(long id) {
+		int order = this.activeOrders.get(id);
+		return order < 0 ? -1 : this.orders.traderID(order);
+	}
+	
+	/**
+	 * Getter method for the slab of active orders, through which the fields of an order found by the findOrder method
+	 * are read.
+	 * @return The slab that stores all active orders.
+	 */
+	OrderSlab getOrders() {
+		return this.orders;
+	}
+	
+	/**
+	 * This method gives the next order ID to the given order, copies it into the slab of active orders and adds it to
+	 * the index of active orders. An order that already has an ID, which is the case for the limit order of a
+	 * triggered stop-limit order, keeps it. The order object itself isn't kept by the market.
+	 * @param order The order being placed.
+	 * @param buying true for a buying order, false for a selling order.
+	 * @return The handle of the order in the slab.
+	 */
+	private int place(Order order, boolean buying) {
+		if(order.id == 0) {
+			order.id = ++this.lastOrderID;
+		}
+		int handle = this.orders.add(order.id, order.traderID, buying, order.amount, order.price);
+		this.activeOrders.put(order.id, handle);
+		return handle;
+	}
+	
+	/**
+	 * This method adds the given selling order to the order book of all selling orders, then checks if any
+	 * transactions can be made between traders, unless an auction is running. The order gets the next order ID, even
+	 * if it is filled immediately.
+	 * @param order The selling order to be added to the order book of all selling orders.
 	 */
 	public void giveSellOrder(SellingOrder order) {
-		sellingOrders.add(order);
-		this.checkTransactions(Market.traders);
+		sellingOrders.add(this.place(order, false));
+		this.coinsInSelling += order.amount;
+		if(!this.auction) {
+			this.checkTransactions();
+		}
+		this.operationPerformed();
 	}
 	
 	/**
-	 * This method adds the given buying order to the priority queue of all buying orders, then checks if any
-	 * transactions can be made between traders.
-	 * @param order The buying order to be added to the priority queue of all buying orders.
+	 * This method adds the given buying order to the order book of all buying orders, then checks if any
+	 * transactions can be made between traders, unless an auction is running. The order gets the next order ID, even
+	 * if it is filled immediately.
+	 * @param order The buying order to be added to the order book of all buying orders.
 	 */
 	public void giveBuyOrder(BuyingOrder order) {
-		buyingOrders.add(order);
-		this.checkTransactions(Market.traders);
+		buyingOrders.add(this.place(order, true));
+		this.dollarsInBuying += FixedPoint.multiply(order.amount, order.price);
+		if(!this.auction) {
+			this.checkTransactions();
+		}
+		this.operationPerformed();
 	}
 	
 	/**
-	 * This is the method for executing order #666. The aim of this method is to try to fix the value of 1 PQoin to a
-	 * given price. To accomplish this, the market itself makes appropriate transactions with traders.
-	 * @param price The price the market is trying to converge to.
-	 */
-	public void makeOpenMarketOperation(double price) {
-		while(!this.buyingOrders.isEmpty() && this.buyingOrders.peek().price >= price - 1e-6) {
-			BuyingOrder buyingOrder = this.buyingOrders.poll();
-			int buyerID = buyingOrder.traderID;
-			double amount = buyingOrder.amount;
-			double orderPrice = buyingOrder.price;
-			Transaction transaction = new Transaction(0, buyerID, amount, orderPrice);
-			this.transactions.add(transaction);
+	 * This method adds a stop order or a stop-limit order to the dormant orders of its side. The order gets the next
+	 * order ID, and it is triggered immediately if the last trade price has already reached its stop price. The funds
+	 * the order needs once it is triggered must already be blocked by its trader.
+	 * @param order The stop order.
+	 */
+	void giveStopOrder(StopOrder order) {
+		order.id = ++this.lastOrderID;
+		this.stopOrders.put(order.id, order);
+		(order.buying ? this.buyingStops : this.sellingStops).add(order);
+		this.operationPerformed();
+	}
+	
+	/**
+	 * This method finds a dormant stop order of either side by its ID.
+	 * @param id ID of the order.
+	 * @return The stop order with the given ID, null if there is no such order or it has already been triggered or
+	 * cancelled.
+	 */
+	StopOrder findStop(long id) {
+		return this.stopOrders.get(id);
+	}
+	
+	/**
+	 * This method removes a dormant stop order. The funds blocked for the order are not touched, the trader of the
+	 * order is responsible for unblocking them.
+	 * @param order The stop order to be cancelled. It must be dormant.
+	 */
+	void cancelStop(StopOrder order) {
+		(order.buying ? this.buyingStops : this.sellingStops).remove(order);
+		this.stopOrders.remove(order.id);
+		this.operationPerformed();
+	}
+	
+	/**
+	 * This method activates all stop orders triggered by the fills since the last check, one by one. Buying stops are
+	 * triggered by the highest price traded at, and selling stops by the lowest one. Buying stops are activated before
+	 * selling stops, and each side starts from the stop price that is reached first. Since the activated orders may
+	 * trade at new prices, the books are checked again after every activation, until no stop order is triggered.
+	 */
+	private void activateStops() {
+		if(this.activatingStops) {
+			return;
+		}
+		this.activatingStops = true;
+		while(this.lastTradePrice >= 0) {
+			StopOrder order;
+			if(this.buyingStops.isTriggered(this.highestTradePrice)) {
+				order = this.buyingStops.poll();
+			} else if(this.sellingStops.isTriggered(this.lowestTradePrice)) {
+				order = this.sellingStops.poll();
+			} else {
+				break;
+			}
+			this.stopOrders.remove(order.id);
+			this.activateStop(order);
+		}
+		this.highestTradePrice = this.lastTradePrice;
+		this.lowestTradePrice = this.lastTradePrice;
+		this.activatingStops = false;
+	}
+	
+	/**
+	 * This method places the order a triggered stop order becomes. A stop-limit order becomes a limit order with the
+	 * same ID, whose funds have been blocked since the stop order was placed. A selling stop order becomes a market
+	 * selling order of its blocked PQoins. A buying stop order becomes a market buying order, which blocks the free
+	 * dollars of its trader like any market buying order. A market order that can't be executed is dropped and
+	 * counted as an invalid query, like a rejected market order of a trader.
+	 * @param order The triggered stop order.
+	 */
+	private void activateStop(StopOrder order) {
+		if(order.isLimit()) {
+			if(order.buying) {
+				BuyingOrder buyingOrder = new BuyingOrder(order.traderID, order.amount, order.limitPrice);
+				buyingOrder.id = order.id;
+				this.giveBuyOrder(buyingOrder);
+			} else {
+				SellingOrder sellingOrder = new SellingOrder(order.traderID, order.amount, order.limitPrice);
+				sellingOrder.id = order.id;
+				this.giveSellOrder(sellingOrder);
+			}
+		} else if(order.buying) {
+			if(this.traders.get(order.traderID).marketBuy(order.amount, this) == 0) {
+				this.invalidQueries++;
+			}
+		} else {
+			if(this.buyingOrders.isEmpty()) {
+				this.invalidQueries++;
+			}
+			this.executeMarketSell(this.traders.get(order.traderID), order.amount);
+		}
+	}
+	
+	/**
+	 * This method executes a market buying order. The order is filled against the cheapest selling orders, walking
+	 * down the selling book level by level, until the requested amount is bought, the dollars of the buyer run out or
+	 * the book is empty. The sellers are paid with every fill, but the wallet of the buyer is only updated once, after
+	 * the last fill.
+	 * @param buyer The trader that has placed the order.
+	 * @param amount The amount of PQoins to be bought, in lots.
+	 * @param budget The amount of dollars blocked by the buyer for the order, in ticks.
+	 */
+	void executeMarketBuy(Trader buyer, long amount, long budget) {
+		int buyerID = buyer.getID();
+		long remaining = amount;
+		long spent = 0;
+		while(remaining > 0 && !this.sellingOrders.isEmpty()) {
+			int sellingOrder = this.sellingOrders.peek();
+			long price = this.orders.price(sellingOrder);
+			long sellingAmount = this.orders.amount(sellingOrder);
+			long fill = Math.min(remaining, sellingAmount);
+			long cost = FixedPoint.multiply(fill, price);
+			if(cost > budget - spent) {
+				fill = FixedPoint.affordable(budget - spent, price);
+				if(fill == 0) {
+					break;
+				}
+				cost = FixedPoint.multiply(fill, price);
+			}
+			int sellerID = this.orders.traderID(sellingOrder);
+			this.recordTrade(sellerID, buyerID, fill, price);
 			
-			Trader buyer = Market.traders.get(buyerID);
-			buyer.finalizeBuying(amount, orderPrice, orderPrice);
+			this.coinsInSelling -= fill;
+			if(sellingAmount > fill) {
+				this.orders.setAmount(sellingOrder, sellingAmount - fill);
+				this.sellingOrders.topReduced(fill);
+			} else {
+				this.sellingOrders.poll();
+				this.release(sellingOrder);
+			}
+			this.traders.get(sellerID).finalizeSelling(fill, price, this.marketFee);
 			
-			Market.successfulTransactions++;
-		}
-		while(!this.sellingOrders.isEmpty() && this.sellingOrders.peek().price <= price + 1e-6) {
-			SellingOrder sellingOrder = this.sellingOrders.poll();
-			int sellerID = sellingOrder.traderID;
-			double amount = sellingOrder.amount;
-			double orderPrice = sellingOrder.price;
-			Transaction transaction = new Transaction(sellerID, 0, amount, orderPrice);
-			this.transactions.add(transaction);
+			spent += cost;
+			remaining -= fill;
+			this.successfulTransactions++;
+		}
+		buyer.finalizeBuying(amount - remaining, budget, spent);
+		this.operationPerformed();
+	}
+	
+	/**
+	 * This method executes a market selling order. The order is filled against the most expensive buying orders,
+	 * walking down the buying book level by level, until the requested amount is sold or the book is empty. The
+	 * buyers are settled with every fill, but the wallet of the seller is only updated once, after the last fill.
+	 * @param seller The trader that has placed the order.
+	 * @param amount The amount of PQoins to be sold, in lots. It must have been blocked by the seller.
+	 */
+	void executeMarketSell(Trader seller, long amount) {
+		int sellerID = seller.getID();
+		long remaining = amount;
+		long received = 0;
+		while(remaining > 0 && !this.buyingOrders.isEmpty()) {
+			int buyingOrder = this.buyingOrders.peek();
+			long price = this.orders.price(buyingOrder);
+			long buyingAmount = this.orders.amount(buyingOrder);
+			long fill = Math.min(remaining, buyingAmount);
+			int buyerID = this.orders.traderID(buyingOrder);
+			this.recordTrade(sellerID, buyerID, fill, price);
 			
-			Trader seller = Market.traders.get(sellerID);
-			seller.finalizeSelling(amount, orderPrice, this.marketFee);
+			long releasedDollars = FixedPoint.multiply(buyingAmount, price)
+					- FixedPoint.multiply(buyingAmount - fill, price);
+			long paidDollars = Math.min(FixedPoint.multiply(fill, price), releasedDollars);
+			this.dollarsInBuying -= releasedDollars;
+			if(buyingAmount > fill) {
+				this.orders.setAmount(buyingOrder, buyingAmount - fill);
+				this.buyingOrders.topReduced(fill);
+			} else {
+				this.buyingOrders.poll();
+				this.release(buyingOrder);
+			}
+			this.traders.get(buyerID).finalizeBuying(fill, releasedDollars, paidDollars);
 			
-			Market.successfulTransactions++;
+			received += FixedPoint.fraction(FixedPoint.multiply(fill, price), 1000 - this.marketFee, 1000);
+			remaining -= fill;
+			this.successfulTransactions++;
+		}
+		seller.finalizeMarketSelling(amount - remaining, amount, received);
+		this.operationPerformed();
+	}
+	
+	/**
+	 * This method removes an active order from its order book. The funds blocked for the order are not touched, the
+	 * trader of the order is responsible for unblocking them.
+	 * @param order The handle of the order to be cancelled. It must be active, and it must not be used after this.
+	 */
+	void cancelOrder(int order) {
+		this.removeOrder(order);
+		this.release(order);
+		this.operationPerformed();
+	}
+	
+	/**
+	 * This method changes the price and the amount of an active order, then checks if any transactions can be made
+	 * between traders, unless an auction is running. The order keeps its ID, and takes the place in its order book
+	 * that a new order with the same values would take. The funds blocked for the order are not touched, the trader of
+	 * the order is responsible for blocking the new amount.
+	 * @param order The handle of the order to be amended. It must be active.
+	 * @param amount The new amount of PQoins in the order, in lots.
+	 * @param price The new price of each PQoin in the order, in ticks.
+	 */
+	void amendOrder(int order, long amount, long price) {
+		this.removeOrder(order);
+		this.orders.setAmount(order, amount);
+		this.orders.setPrice(order, price);
+		if(this.orders.isBuying(order)) {
+			this.buyingOrders.add(order);
+			this.dollarsInBuying += FixedPoint.multiply(amount, price);
+		} else {
+			this.sellingOrders.add(order);
+			this.coinsInSelling += amount;
+		}
+		if(!this.auction) {
+			this.checkTransactions();
+		}
+		this.operationPerformed();
+	}
+	
+	/**
+	 * This method removes an active order from its order book and updates the running totals accordingly.
+	 * @param order The handle of the order to be removed. It must be in one of the order books.
+	 */
+	private void removeOrder(int order) {
+		if(this.orders.isBuying(order)) {
+			this.buyingOrders.remove(order);
+			this.dollarsInBuying -= FixedPoint.multiply(this.orders.amount(order), this.orders.price(order));
+		} else {
+			this.sellingOrders.remove(order);
+			this.coinsInSelling -= this.orders.amount(order);
+		}
+	}
+	
+	/**
+	 * This method removes a filled or cancelled order from the index of active orders and frees its record in the
+	 * slab, to be reused by a later order.
+	 * @param order The handle of the order, which must not be in an order book anymore.
+	 */
+	private void release(int order) {
+		this.activeOrders.remove(this.orders.id(order));
+		this.orders.remove(order);
+	}
+	
+	/**
+	 * This is the method for executing order #666. The aim of this method is to try to fix the value of 1 PQoin to a
+	 * given price. To accomplish this, the market itself makes appropriate transactions with traders.
+	 * <p>
+	 * All orders on the wrong side of the price are filled, so whole price levels are removed from the books at once
+	 * instead of order by order, and their orders are visited in the order they are stored in the level. The wallet
+	 * changes are collected per trader and applied once for each trader at the end.
+	 * @param price The price the market is trying to converge to, in ticks.
+	 */
+	public void makeOpenMarketOperation(long price) {
+		while(!this.buyingOrders.isEmpty() && this.buyingOrders.bestPrice() >= price) {
+			PriceLevel level = this.buyingOrders.pollLevel();
+			long levelPrice = level.price;
+			for(int i = 0; i < level.size(); i++) {
+				int buyingOrder = level.get(i);
+				int buyerID = this.orders.traderID(buyingOrder);
+				long amount = this.orders.amount(buyingOrder);
+				this.release(buyingOrder);
+				this.recordTrade(0, buyerID, amount, levelPrice);
+				
+				long dollars = FixedPoint.multiply(amount, levelPrice);
+				this.settlement.buy(buyerID, amount, dollars);
+				this.dollarsInBuying -= dollars;
+			}
+			this.successfulTransactions += level.size();
+		}
+		while(!this.sellingOrders.isEmpty() && this.sellingOrders.bestPrice() <= price) {
+			PriceLevel level = this.sellingOrders.pollLevel();
+			long levelPrice = level.price;
+			for(int i = 0; i < level.size(); i++) {
+				int sellingOrder = level.get(i);
+				int sellerID = this.orders.traderID(sellingOrder);
+				long amount = this.orders.amount(sellingOrder);
+				this.release(sellingOrder);
+				this.recordTrade(sellerID, 0, amount, levelPrice);
+				
+				long dollars = FixedPoint.fraction(FixedPoint.multiply(amount, levelPrice), 1000 - this.marketFee, 1000);
+				this.settlement.sell(sellerID, amount, dollars);
+				this.coinsInSelling -= amount;
+			}
+			this.successfulTransactions += level.size();
 		}
+		this.settlement.apply(this.wallets);
+		this.operationPerformed();
 	}
 
 	/**
-	 * This method simulates the market. In other words, it makes transactions between the top buying and selling
-	 * orders until no transaction is possible.
-	 * @param traders The list of all traders in the market.
+	 * This method starts a call auction. Until the auction is ended, new and amended limit orders are only added to
+	 * the books, and the books may cross. Market orders and open market operations are still executed immediately.
 	 */
-	public void checkTransactions(ArrayList<Trader> traders) {
-		while(!(this.sellingOrders.isEmpty() || this.buyingOrders.isEmpty()) && 
-				(this.sellingOrders.peek().price <= this.buyingOrders.peek().price + 1e-6)) {
-			SellingOrder sellingOrder = this.sellingOrders.poll();
-			BuyingOrder buyingOrder = this.buyingOrders.poll();
-			double amount = Math.min(sellingOrder.amount, buyingOrder.amount);
-			double price = sellingOrder.price;
-			double buyersPrice = buyingOrder.price;
-			int buyerID = buyingOrder.traderID;
-			int sellerID = sellingOrder.traderID;
-			Transaction transaction = new Transaction(sellerID, buyerID, amount, price);
-			this.transactions.add(transaction);
-			
-			if(buyingOrder.amount > amount) {
-				this.buyingOrders.add(new BuyingOrder(buyerID, buyingOrder.amount - amount, buyersPrice));
+	public void startAuction() {
+		this.auction = true;
+	}
+	
+	/**
+	 * This method uncrosses the books at the equilibrium price, ends the auction and returns to continuous matching.
+	 * @return The price the books have been uncrossed at in ticks, -1 if they weren't crossed.
+	 */
+	public long endAuction() {
+		long price = this.uncross();
+		this.auction = false;
+		this.checkTransactions();
+		this.activateStops();
+		return price;
+	}
+	
+	/**
+	 * Getter method for the state of the auction.
+	 * @return true if a call auction is running, false if orders are matched continuously.
+	 */
+	public boolean isInAuction() {
+		return this.auction;
+	}
+	
+	/**
+	 * This method clears all crossing orders of the books at a single price, the equilibrium price. Every buying order
+	 * whose price is at least the equilibrium price and every selling order whose price is at most the equilibrium
+	 * price is filled in the usual priority order, as long as the other side has something left, and all fills are
+	 * made at the equilibrium price. The auction, if any, keeps running.
+	 * @return The equilibrium price in ticks, -1 if the books weren't crossed.
+	 */
+	public long uncross() {
+		if(this.sellingOrders.isEmpty() || this.buyingOrders.isEmpty()
+				|| this.sellingOrders.bestPrice() > this.buyingOrders.bestPrice()) {
+			return -1;
+		}
+		long price = this.findEquilibriumPrice();
+		while(!(this.sellingOrders.isEmpty() || this.buyingOrders.isEmpty())
+				&& this.sellingOrders.bestPrice() <= price && this.buyingOrders.bestPrice() >= price) {
+			this.fillTopOrders(price);
+		}
+		this.operationPerformed();
+		return price;
+	}
+	
+	/**
+	 * This method finds the price at which the most PQoins would be traded if the crossing orders were cleared at a
+	 * single price. Only the prices of the crossing levels are candidates, and they are visited in a single pass in
+	 * increasing order, while the cumulative amount offered by the sellers at or below the price and the cumulative
+	 * amount wanted by the buyers at or above the price are updated. Among the prices with the largest traded amount,
+	 * the one with the smallest difference between the two amounts is chosen. If there are still several, the highest
+	 * one is chosen when buyers want more than sellers offer, and the lowest one otherwise.
+	 * @return The equilibrium price, in ticks. The books must be crossed.
+	 */
+	private long findEquilibriumPrice() {
+		long highestBuying = this.buyingOrders.bestPrice();
+		long lowestSelling = this.sellingOrders.bestPrice();
+		
+		int sellingLevels = 0;
+		for(int rank = 0; rank < this.sellingOrders.levelCount(); rank++) {
+			PriceLevel level = this.sellingOrders.level(rank);
+			if(level.price > highestBuying) {
+				break;
 			}
-			if(sellingOrder.amount > amount) {
-				this.sellingOrders.add(new SellingOrder(sellerID, sellingOrder.amount - amount, price));
+			if(sellingLevels == this.sellingScratchPrices.length) {
+				this.sellingScratchPrices = Arrays.copyOf(this.sellingScratchPrices, 2 * sellingLevels);
+				this.sellingScratchVolumes = Arrays.copyOf(this.sellingScratchVolumes, 2 * sellingLevels);
+			}
+			this.sellingScratchPrices[sellingLevels] = level.price;
+			this.sellingScratchVolumes[sellingLevels++] = level.volume();
+		}
+		int buyingLevels = 0;
+		long demand = 0;
+		for(int rank = 0; rank < this.buyingOrders.levelCount(); rank++) {
+			PriceLevel level = this.buyingOrders.level(rank);
+			if(level.price < lowestSelling) {
+				break;
+			}
+			if(buyingLevels == this.buyingScratchPrices.length) {
+				this.buyingScratchPrices = Arrays.copyOf(this.buyingScratchPrices, 2 * buyingLevels);
+				this.buyingScratchVolumes = Arrays.copyOf(this.buyingScratchVolumes, 2 * buyingLevels);
+			}
+			this.buyingScratchPrices[buyingLevels] = level.price;
+			this.buyingScratchVolumes[buyingLevels++] = level.volume();
+			demand += level.volume();
+		}
+		long[] sellingPrices = this.sellingScratchPrices;
+		long[] sellingVolumes = this.sellingScratchVolumes;
+		long[] buyingPrices = this.buyingScratchPrices;
+		long[] buyingVolumes = this.buyingScratchVolumes;
+		
+		// the selling levels are visited upwards from the first one, the buying levels upwards from the last one
+		int nextSelling = 0;
+		int lowestBuying = buyingLevels - 1;
+		long supply = 0;
+		long price = lowestSelling;
+		long bestPrice = price;
+		long bestVolume = -1;
+		long bestImbalance = 0;
+		while(true) {
+			while(lowestBuying >= 0 && buyingPrices[lowestBuying] < price) {
+				demand -= buyingVolumes[lowestBuying--];
+			}
+			while(nextSelling < sellingLevels && sellingPrices[nextSelling] <= price) {
+				supply += sellingVolumes[nextSelling++];
+			}
+			long volume = Math.min(demand, supply);
+			long imbalance = Math.abs(demand - supply);
+			if(volume > bestVolume || (volume == bestVolume && (imbalance < bestImbalance
+					|| (imbalance == bestImbalance && demand > supply)))) {
+				bestPrice = price;
+				bestVolume = volume;
+				bestImbalance = imbalance;
 			}
 			
-			Trader seller = traders.get(sellerID);
-			Trader buyer = traders.get(buyerID);
-			
-			seller.finalizeSelling(amount, price, this.marketFee);
-			buyer.finalizeBuying(amount, buyingOrder.price, price);
-			
-			Market.successfulTransactions++;
+			long next = Long.MAX_VALUE;
+			if(nextSelling < sellingLevels) {
+				next = sellingPrices[nextSelling];
+			}
+			int higherBuying = lowestBuying >= 0 && buyingPrices[lowestBuying] == price ? lowestBuying - 1
+					: lowestBuying;
+			if(higherBuying >= 0) {
+				next = Math.min(next, buyingPrices[higherBuying]);
+			}
+			if(next == Long.MAX_VALUE) {
+				return bestPrice;
+			}
+			price = next;
 		}
 	}
 	
+	/**
+	 * This method simulates the market. In other words, it makes transactions between the top buying and selling
+	 * orders until no transaction is possible. The order that is only partially filled keeps resting in the market
+	 * with its amount reduced in place, so no new orders are created during matching.
+	 */
+	public void checkTransactions() {
+		while(!(this.sellingOrders.isEmpty() || this.buyingOrders.isEmpty()) && 
+				(this.sellingOrders.bestPrice() <= this.buyingOrders.bestPrice())) {
+			this.fillTopOrders(this.sellingOrders.bestPrice());
+		}
+	}
+	
+	/**
+	 * This method makes a transaction between the top buying order and the top selling order, for the smaller of
+	 * their amounts. The buyer pays the given price, and the rest of the dollars blocked for the filled part of the
+	 * buying order are returned.
+	 * @param price The price of the transaction in ticks, which must be between the prices of the two orders.
+	 */
+	private void fillTopOrders(long price) {
+		int sellingOrder = this.sellingOrders.peek();
+		int buyingOrder = this.buyingOrders.peek();
+		long sellingAmount = this.orders.amount(sellingOrder);
+		long buyingAmount = this.orders.amount(buyingOrder);
+		long amount = Math.min(sellingAmount, buyingAmount);
+		long buyersPrice = this.orders.price(buyingOrder);
+		int buyerID = this.orders.traderID(buyingOrder);
+		int sellerID = this.orders.traderID(sellingOrder);
+		this.recordTrade(sellerID, buyerID, amount, price);
+		
+		long releasedDollars = FixedPoint.multiply(buyingAmount, buyersPrice)
+				- FixedPoint.multiply(buyingAmount - amount, buyersPrice);
+		long paidDollars = Math.min(FixedPoint.multiply(amount, price), releasedDollars);
+		this.dollarsInBuying -= releasedDollars;
+		this.coinsInSelling -= amount;
+		if(buyingAmount > amount) {
+			this.orders.setAmount(buyingOrder, buyingAmount - amount);
+			this.buyingOrders.topReduced(amount);
+		} else {
+			this.buyingOrders.poll();
+			this.release(buyingOrder);
+		}
+		if(sellingAmount > amount) {
+			this.orders.setAmount(sellingOrder, sellingAmount - amount);
+			this.sellingOrders.topReduced(amount);
+		} else {
+			this.sellingOrders.poll();
+			this.release(sellingOrder);
+		}
+		
+		Trader seller = this.traders.get(sellerID);
+		Trader buyer = this.traders.get(buyerID);
+		
+		seller.finalizeSelling(amount, price, this.marketFee);
+		buyer.finalizeBuying(amount, releasedDollars, paidDollars);
+		
+		this.successfulTransactions++;
+	}
+	
+	/**
+	 * Setter method for the listener of the order books. The listener is told about every change in the price levels
+	 * of both sides: new levels, changes in the amount or the number of orders of a level, and removed levels.
+	 * @param listener The listener, null to stop reporting the changes.
+	 */
+	public void setBookListener(BookListener listener) {
+		this.buyingOrders.setListener(listener);
+		this.sellingOrders.setListener(listener);
+	}
+	
+	/**
+	 * This method reports the whole depth of the market to the given listener, as if every level had just been
+	 * added. The buying levels are reported first, then the selling levels, each side starting from its best level.
+	 * @param listener The listener the levels are reported to.
+	 */
+	public void replayDepth(BookListener listener) {
+		this.buyingOrders.replayLevels(listener);
+		this.sellingOrders.replayLevels(listener);
+	}
+	
 	/**
 	 * Getter method for the price of the cheapest selling order.
-	 * @return -1. if there are no active selling orders, price of the cheapest selling order otherwise.
+	 * @return -1 if there are no active selling orders, price of the cheapest selling order otherwise.
 	 */
-	public double getTopSellingPrice() {
+	public long getTopSellingPrice() {
 		if(this.sellingOrders.isEmpty()) {
-			return -1.;
+			return -1;
 		}
-		return this.sellingOrders.peek().price;
+		return this.sellingOrders.bestPrice();
 	}
 	
 	/**
 	 * Getter method for the price of the most expensive buying order.
-	 * @return -1. if there are no active buying orders, price of the most expensive buying order otherwise.
+	 * @return -1 if there are no active buying orders, price of the most expensive buying order otherwise.
 	 */
-	public double getTopBuyingPrice() {
+	public long getTopBuyingPrice() {
 		if(this.buyingOrders.isEmpty()) {
-			return -1.;
+			return -1;
 		}
-		return this.buyingOrders.peek().price;
+		return this.buyingOrders.bestPrice();
+	}
+	
+	/**
+	 * Getter method for the last trade price.
+	 * @return The price of the last fill in ticks, -1 if nothing has been traded yet.
+	 */
+	public long getLastTradePrice() {
+		return this.lastTradePrice;
+	}
+	
+	/**
+	 * Getter method for the number of dormant stop orders.
+	 * @return The number of stop orders of both sides that haven't been triggered or cancelled yet.
+	 */
+	public int getNumberOfStopOrders() {
+		return this.stopOrders.size();
+	}
+	
+	/**
+	 * Getter method for the number of active buying orders.
+	 * @return The number of active buying orders.
+	 */
+	public int getNumberOfBuyingOrders() {
+		return this.buyingOrders.size();
+	}
+	
+	/**
+	 * Getter method for the number of active selling orders.
+	 * @return The number of active selling orders.
+	 */
+	public int getNumberOfSellingOrders() {
+		return this.sellingOrders.size();
+	}
+	
+	/**
+	 * Getter method for the number of price levels of the buying orders.
+	 * @return The number of different prices among the active buying orders.
+	 */
+	public int getNumberOfBuyingLevels() {
+		return this.buyingOrders.levelCount();
+	}
+	
+	/**
+	 * Getter method for the number of price levels of the selling orders.
+	 * @return The number of different prices among the active selling orders.
+	 */
+	public int getNumberOfSellingLevels() {
+		return this.sellingOrders.levelCount();
 	}
 	
 	/**
-	 * This method calculates the total amount of dollars in the market.
-	 * @return The total amount of dollars in the market.
+	 * Getter method for the journal of all processed transactions.
+	 * @return The journal of all processed transactions.
 	 */
-	public double totalDollarInBuying() {
-		double out = 0;
-		for(BuyingOrder order : this.buyingOrders) {
-			out += order.price * order.amount;
+	public TradeJournal getTradeJournal() {
+		return this.transactions;
+	}
+	
+	/**
+	 * Getter method for the total amount of dollars in the market.
+	 * @return The total amount of dollars in the market, in ticks.
+	 */
+	public long totalDollarInBuying() {
+		return this.dollarsInBuying;
+	}
+	
+	/**
+	 * Getter method for the total amount of PQoins in the market.
+	 * @return The total amount of PQoins in the market, in lots.
+	 */
+	public long totalPQInSelling() {
+		return this.coinsInSelling;
+	}
+	
+	/**
+	 * This method is called after every operation that changes the order books. The stop orders triggered by the
+	 * operation are activated, and if the debug verification is enabled, the running totals are checked once every
+	 * verification interval.
+	 */
+	private void operationPerformed() {
+		this.activateStops();
+		if(this.verificationInterval > 0 && ++this.operationsSinceVerification >= this.verificationInterval) {
+			this.operationsSinceVerification = 0;
+			this.verifyTotals();
 		}
-		return out;
 	}
 	
 	/**
-	 * This method calculates the total amount of PQoins in the market.
-	 * @return The total amount of PQoins in the market.
+	 * This method compares the running totals of the market to the totals calculated by going through all active
+	 * orders.
+	 * @throws IllegalStateException If any of the running totals doesn't match the calculated one.
 	 */
-	public double totalPQInSelling() {
-		double out = 0;
-		for(SellingOrder order : this.sellingOrders) {
-			out += order.amount;
+	public void verifyTotals() {
+		long dollars = 0;
+		for(int rank = 0; rank < this.buyingOrders.levelCount(); rank++) {
+			PriceLevel level = this.buyingOrders.level(rank);
+			for(int i = 0; i < level.size(); i++) {
+				int order = level.get(i);
+				dollars += FixedPoint.multiply(this.orders.amount(order), this.orders.price(order));
+			}
+		}
+		long coins = 0;
+		for(int rank = 0; rank < this.sellingOrders.levelCount(); rank++) {
+			PriceLevel level = this.sellingOrders.level(rank);
+			for(int i = 0; i < level.size(); i++) {
+				coins += this.orders.amount(level.get(i));
+			}
+		}
+		if(dollars != this.dollarsInBuying || coins != this.coinsInSelling) {
+			throw new IllegalStateException("Running totals " + this.dollarsInBuying + " / " + this.coinsInSelling
+					+ " don't match the order books " + dollars + " / " + coins);
 		}
-		return out;
 	}
 }
@@ -2,37 +2,53 @@ package elements;
 
 /**
  * This class represents orders in the market. It is the parent class of the SellingOrder and
- * BuyingOrder classes.
+ * BuyingOrder classes. An order object is only the request of a trader: when it is placed, the market
+ * copies its values into its slab of active orders, and later changes of the order are made there.
  * @author Eren
  *
  */
 public abstract class Order{
 	
 	/**
-	 * Amount of PQoins in the order.
+	 * Amount of PQoins in the order, in lots.
 	 */
-	double amount;
+	long amount;
 	
 	/**
-	 * The price of each PQoin in the order.
+	 * The price of each PQoin in the order, in ticks.
 	 */
-	double price;
+	long price;
 	
 	/**
 	 * ID of the trader that has placed the order.
 	 */
 	int traderID;
 	
+	/**
+	 * ID of the order, assigned by the market when the order is placed. IDs of orders start from 1 and are
+	 * incremented by 1 with each new order of the market.
+	 */
+	long id;
+	
 	/**
 	 * Constructor for the Order class.
 	 * @param traderID ID of the trader that has placed the order.
-	 * @param amount Amount of PQoins in the order.
-	 * @param price The price of each PQoin in the order.
+	 * @param amount Amount of PQoins in the order, in lots.
+	 * @param price The price of each PQoin in the order, in ticks.
 	 */
-	public Order(int traderID, double amount, double price) {
+	public Order(int traderID, long amount, long price) {
 		this.amount = amount;
 		this.price = price;
 		this.traderID = traderID;
+		this.id = 0;
+	}
+	
+	/**
+	 * Getter method for the ID of the order.
+	 * @return ID of the order, 0 if the order hasn't been placed yet.
+	 */
+	public long getID() {
+		return this.id;
 	}
 }
 
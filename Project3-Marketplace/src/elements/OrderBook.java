@@ -0,0 +1,331 @@
+package elements;
+
+import java.util.Arrays;
+
+/**
+ * This class represents one side of the market, i.e. all active selling orders or all active buying orders. Orders
+ * are grouped into price levels. The levels are kept in an array sorted by price, with the best level at the end,
+ * next to a primitive array of their sort keys, so that a level is found by a binary search without boxing its price.
+ * Most orders are placed and removed close to the best price, so adding or removing a level only shifts the few
+ * levels between it and the best one. The best level is cached, so the top order and the top price can be accessed
+ * in constant time. Levels that become empty are kept for reuse, so a new level doesn't create any objects either,
+ * except for levels removed all at once by pollLevel, which are left to their caller. Inside a level, the orders are
+ * sorted by decreasing amount, then by increasing trader ID, and then by increasing order ID. The orders themselves
+ * are stored in the order slab of the market, and the book only holds their handles.
+ * @author Eren
+ *
+ */
+class OrderBook {
+
+	/**
+	 * The initial number of levels the arrays of the book can hold.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The sort keys of the levels, in increasing order. The key of a level is its price for buying orders and the
+	 * negated price for selling orders, so the best level always has the largest key.
+	 */
+	private long[] keys;
+
+	/**
+	 * The non-empty price levels, at the same positions as their keys.
+	 */
+	private PriceLevel[] levels;
+
+	/**
+	 * The number of non-empty price levels.
+	 */
+	private int levelCount;
+
+	/**
+	 * The empty levels that are kept for reuse.
+	 */
+	private PriceLevel[] spareLevels;
+
+	/**
+	 * The number of spare levels.
+	 */
+	private int spareCount;
+
+	/**
+	 * The level with the best price, null if the book is empty.
+	 */
+	private PriceLevel best;
+
+	/**
+	 * The total number of orders in the book.
+	 */
+	private int size;
+
+	/**
+	 * Whether the book holds buying orders, which is passed on to the listener.
+	 */
+	private final boolean buying;
+
+	/**
+	 * The slab the orders of the book are stored in.
+	 */
+	private final OrderSlab orders;
+
+	/**
+	 * The listener that is told about every change in the levels of the book, null if there is none.
+	 */
+	private BookListener listener;
+
+	/**
+	 * Constructor for the OrderBook class. The best price is the highest one for buying orders and the lowest one for
+	 * selling orders.
+	 * @param buying true if the book holds buying orders, false if it holds selling orders.
+	 * @param orders The slab the orders of the book are stored in.
+	 */
+	OrderBook(boolean buying, OrderSlab orders) {
+		this.keys = new long[INITIAL_CAPACITY];
+		this.levels = new PriceLevel[INITIAL_CAPACITY];
+		this.levelCount = 0;
+		this.spareLevels = new PriceLevel[INITIAL_CAPACITY];
+		this.spareCount = 0;
+		this.best = null;
+		this.size = 0;
+		this.buying = buying;
+		this.orders = orders;
+		this.listener = null;
+	}
+
+	/**
+	 * Setter method for the listener of the book.
+	 * @param listener The listener that is told about every change in the levels of the book, null for none.
+	 */
+	void setListener(BookListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * This method tells the listener that a level has changed, if there is a listener. An empty level is reported as
+	 * removed.
+	 * @param level The changed level.
+	 */
+	private void levelChanged(PriceLevel level) {
+		if(this.listener != null) {
+			if(level.isEmpty()) {
+				this.listener.levelRemoved(this.buying, level.price);
+			} else {
+				this.listener.levelChanged(this.buying, level.price, level.volume(), level.size());
+			}
+		}
+	}
+
+	/**
+	 * This method reports every level of the book to the given listener as a new level, starting from the best one.
+	 * @param listener The listener the levels are reported to.
+	 */
+	void replayLevels(BookListener listener) {
+		for(int rank = 0; rank < this.levelCount; rank++) {
+			PriceLevel level = this.level(rank);
+			listener.levelAdded(this.buying, level.price, level.volume(), level.size());
+		}
+	}
+
+	/**
+	 * This method checks whether the book contains any orders.
+	 * @return true if there are no orders in the book, false otherwise.
+	 */
+	boolean isEmpty() {
+		return this.best == null;
+	}
+
+	/**
+	 * Getter method for the number of orders in the book.
+	 * @return The number of orders in the book.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * This method returns a level of the book by its rank, which is 0 for the best level. The level must not be
+	 * changed.
+	 * @param rank The rank of the level, less than the number of levels.
+	 * @return The level with the given rank.
+	 */
+	PriceLevel level(int rank) {
+		return this.levels[this.levelCount - 1 - rank];
+	}
+
+	/**
+	 * Getter method for the number of price levels in the book.
+	 * @return The number of non-empty price levels in the book.
+	 */
+	int levelCount() {
+		return this.levelCount;
+	}
+
+	/**
+	 * This method adds the given order to the level of its price, creating the level if it doesn't exist yet.
+	 * @param order The handle of the order to be added.
+	 */
+	void add(int order) {
+		long price = this.orders.price(order);
+		long key = this.buying ? price : -price;
+		int index = this.indexOf(key);
+		if(index < 0) {
+			PriceLevel level = this.insertLevel(-index - 1, key, price);
+			level.add(order);
+			this.size++;
+			if(this.listener != null) {
+				this.listener.levelAdded(this.buying, level.price, level.volume(), level.size());
+			}
+			return;
+		}
+		PriceLevel level = this.levels[index];
+		level.add(order);
+		this.size++;
+		this.levelChanged(level);
+	}
+
+	/**
+	 * Getter method for the top order of the book.
+	 * @return The handle of the order with the highest priority in the book, -1 if the book is empty.
+	 */
+	int peek() {
+		if(this.best == null) {
+			return -1;
+		}
+		return this.best.peek();
+	}
+
+	/**
+	 * This method removes the top order of the book. If the best level becomes empty, it is removed and the next
+	 * level becomes the best one.
+	 * @return The handle of the removed order, -1 if the book is empty.
+	 */
+	int poll() {
+		if(this.best == null) {
+			return -1;
+		}
+		int top = this.best.poll();
+		this.size--;
+		this.levelChanged(this.best);
+		if(this.best.isEmpty()) {
+			this.removeLevel(this.levelCount - 1);
+		}
+		return top;
+	}
+
+	/**
+	 * This method removes the whole best level from the book at once, and the next level becomes the best one. The
+	 * orders of the removed level are no longer in the book, but they can still be read from the level, which is
+	 * therefore not reused.
+	 * @return The removed level, null if the book is empty.
+	 */
+	PriceLevel pollLevel() {
+		PriceLevel level = this.best;
+		if(level == null) {
+			return null;
+		}
+		this.levels[--this.levelCount] = null;
+		this.best = this.levelCount == 0 ? null : this.levels[this.levelCount - 1];
+		this.size -= level.size();
+		if(this.listener != null) {
+			this.listener.levelRemoved(this.buying, level.price);
+		}
+		return level;
+	}
+
+	/**
+	 * This method removes the given order from the book, wherever it is. If its level becomes empty, the level is
+	 * removed, and if it was the best level, the next level becomes the best one.
+	 * @param order The handle of the order to be removed. It must be in this book.
+	 */
+	void remove(int order) {
+		long price = this.orders.price(order);
+		int index = this.indexOf(this.buying ? price : -price);
+		PriceLevel level = this.levels[index];
+		level.remove(order);
+		this.size--;
+		this.levelChanged(level);
+		if(level.isEmpty()) {
+			this.removeLevel(index);
+		}
+	}
+
+	/**
+	 * This method restores the order of the book after the amount of its top order has been reduced in place. Since
+	 * the price of the order doesn't change, it stays in the same level.
+	 * @param reduction The amount the top order has been reduced by, in lots.
+	 */
+	void topReduced(long reduction) {
+		this.best.topReduced(reduction);
+		this.levelChanged(this.best);
+	}
+
+	/**
+	 * Getter method for the best price in the book.
+	 * @return The price of the best level. The book must not be empty.
+	 */
+	long bestPrice() {
+		return this.best.price;
+	}
+
+	/**
+	 * This method finds the position of a level by its key. The best level is checked first, since most orders are
+	 * placed and removed there.
+	 * @param key The key of the level.
+	 * @return The position of the level if it exists, otherwise -(insertion point) - 1.
+	 */
+	private int indexOf(long key) {
+		int last = this.levelCount - 1;
+		if(last >= 0 && this.keys[last] == key) {
+			return last;
+		}
+		return Arrays.binarySearch(this.keys, 0, this.levelCount, key);
+	}
+
+	/**
+	 * This method inserts a new empty level at the given position, reusing a spare level if there is one, and makes
+	 * it the best level if it is inserted at the end.
+	 * @param index The position of the new level.
+	 * @param key The key of the new level.
+	 * @param price The price of the new level, in ticks.
+	 * @return The new level.
+	 */
+	private PriceLevel insertLevel(int index, long key, long price) {
+		if(this.levelCount == this.levels.length) {
+			this.keys = Arrays.copyOf(this.keys, 2 * this.levelCount);
+			this.levels = Arrays.copyOf(this.levels, 2 * this.levelCount);
+		}
+		PriceLevel level;
+		if(this.spareCount > 0) {
+			level = this.spareLevels[--this.spareCount];
+			this.spareLevels[this.spareCount] = null;
+			level.reuse(price);
+		} else {
+			level = new PriceLevel(price, this.orders);
+		}
+		System.arraycopy(this.keys, index, this.keys, index + 1, this.levelCount - index);
+		System.arraycopy(this.levels, index, this.levels, index + 1, this.levelCount - index);
+		this.keys[index] = key;
+		this.levels[index] = level;
+		this.levelCount++;
+		this.best = this.levels[this.levelCount - 1];
+		return level;
+	}
+
+	/**
+	 * This method removes an empty level from the given position and keeps it for reuse. If it was the best level,
+	 * the next level becomes the best one.
+	 * @param index The position of the level.
+	 */
+	private void removeLevel(int index) {
+		PriceLevel level = this.levels[index];
+		this.levelCount--;
+		System.arraycopy(this.keys, index + 1, this.keys, index, this.levelCount - index);
+		System.arraycopy(this.levels, index + 1, this.levels, index, this.levelCount - index);
+		this.levels[this.levelCount] = null;
+		this.best = this.levelCount == 0 ? null : this.levels[this.levelCount - 1];
+		if(this.spareCount == this.spareLevels.length) {
+			this.spareLevels = Arrays.copyOf(this.spareLevels, 2 * this.spareCount);
+		}
+		this.spareLevels[this.spareCount++] = level;
+	}
+}
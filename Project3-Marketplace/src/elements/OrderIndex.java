@@ -0,0 +1,145 @@
+package elements;
+
+/**
+ * This class maps order IDs to the handles of the active orders of a market. It is a hash table with open addressing
+ * and linear probing over primitive keys and values, so neither lookups nor insertions create any objects. Removed
+ * entries are filled by moving later entries of the same cluster back, so the table never contains deleted markers
+ * and lookups stay short no matter how many orders are cancelled.
+ * @author Eren
+ *
+ */
+class OrderIndex {
+
+	/**
+	 * The initial number of slots in the table.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * The order IDs in the table. 0 marks an empty slot, order IDs start from 1.
+	 */
+	private long[] keys;
+
+	/**
+	 * The handles of the orders in the table, at the same positions as their IDs.
+	 */
+	private int[] values;
+
+	/**
+	 * The number of orders in the table.
+	 */
+	private int size;
+
+	/**
+	 * Constructor for the OrderIndex class.
+	 */
+	OrderIndex() {
+		this.keys = new long[INITIAL_CAPACITY];
+		this.values = new int[INITIAL_CAPACITY];
+		this.size = 0;
+	}
+
+	/**
+	 * Getter method for the number of orders in the table.
+	 * @return The number of orders in the table.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * This method finds the order with the given ID.
+	 * @param id ID of the order.
+	 * @return The handle of the order with the given ID, -1 if there is no such order in the table.
+	 */
+	int get(long id) {
+		int mask = this.keys.length - 1;
+		for(int slot = OrderIndex.hash(id) & mask; this.keys[slot] != 0; slot = (slot + 1) & mask) {
+			if(this.keys[slot] == id) {
+				return this.values[slot];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * This method adds an order to the table. The ID of the order must not be in the table already.
+	 * @param id ID of the order.
+	 * @param order The handle of the order.
+	 */
+	void put(long id, int order) {
+		if(2 * (this.size + 1) > this.keys.length) {
+			this.resize();
+		}
+		this.insert(id, order);
+		this.size++;
+	}
+
+	/**
+	 * This method removes the order with the given ID from the table.
+	 * @param id ID of the order.
+	 */
+	void remove(long id) {
+		int mask = this.keys.length - 1;
+		int slot = OrderIndex.hash(id) & mask;
+		while(this.keys[slot] != id) {
+			if(this.keys[slot] == 0) {
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		this.size--;
+		// Move back the entries that would no longer be reachable through the emptied slot
+		int next = (slot + 1) & mask;
+		while(this.keys[next] != 0) {
+			int home = OrderIndex.hash(this.keys[next]) & mask;
+			if(((next - home) & mask) >= ((next - slot) & mask)) {
+				this.keys[slot] = this.keys[next];
+				this.values[slot] = this.values[next];
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+		this.keys[slot] = 0;
+	}
+
+	/**
+	 * This method puts an order into the first free slot of its cluster.
+	 * @param id ID of the order.
+	 * @param order The handle of the order.
+	 */
+	private void insert(long id, int order) {
+		int mask = this.keys.length - 1;
+		int slot = OrderIndex.hash(id) & mask;
+		while(this.keys[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		this.keys[slot] = id;
+		this.values[slot] = order;
+	}
+
+	/**
+	 * This method doubles the number of slots in the table and inserts all orders again.
+	 */
+	private void resize() {
+		long[] oldKeys = this.keys;
+		int[] oldValues = this.values;
+		this.keys = new long[oldKeys.length * 2];
+		this.values = new int[oldKeys.length * 2];
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != 0) {
+				this.insert(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * This method spreads the bits of an order ID, since consecutive IDs would otherwise form long clusters.
+	 * @param id The order ID.
+	 * @return The hash of the ID.
+	 */
+	private static int hash(long id) {
+		long h = id * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
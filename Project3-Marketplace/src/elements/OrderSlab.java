@@ -0,0 +1,284 @@
+package elements;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * This class stores the active orders of a market as fixed-size records in one large block of longs, instead of one
+ * object per order. An order is referred to by its handle, which is the position of its record in the block. The
+ * records of filled and cancelled orders are kept in a free list and reused by the next orders, and the block only
+ * grows when all records are in use. Since there is no object per order, the garbage collector has nothing to trace
+ * no matter how deep the books are.
+ * <p>
+ * The block is either a long array on the heap, or a direct buffer outside of the heap, which keeps very deep books
+ * out of the heap entirely. A block on the heap can hold almost 2^29 orders, and a direct block almost 2^26 orders,
+ * since a direct buffer can't be larger than 2^31 bytes.
+ * <p>
+ * Each record consists of four longs: the order ID with the side in its highest bit, the amount in lots, the price
+ * in ticks, and the trader ID in the upper half and the position of the order in the heap of its price level in the
+ * lower half. In a free record, the first long is the handle of the next free record.
+ * @author Eren
+ *
+ */
+class OrderSlab {
+
+	/**
+	 * The number of longs in a record.
+	 */
+	private static final int RECORD_SIZE = 4;
+
+	/**
+	 * Offsets of the fields in a record.
+	 */
+	private static final int ID = 0;
+	private static final int AMOUNT = 1;
+	private static final int PRICE = 2;
+	private static final int META = 3;
+
+	/**
+	 * The bit of the first long of a record that is set for buying orders.
+	 */
+	private static final long BUYING = Long.MIN_VALUE;
+
+	/**
+	 * The largest number of records a block on the heap can hold, which is limited by the length of a long array.
+	 */
+	private static final int MAX_HEAP_CAPACITY = Integer.MAX_VALUE / RECORD_SIZE;
+
+	/**
+	 * The largest number of records a direct block can hold, which is limited by the size of a direct buffer in bytes.
+	 */
+	private static final int MAX_DIRECT_CAPACITY = Integer.MAX_VALUE / (RECORD_SIZE * Long.BYTES);
+
+	/**
+	 * Whether the block is outside of the heap.
+	 */
+	private final boolean direct;
+
+	/**
+	 * The largest number of records the block can hold.
+	 */
+	private final int maxCapacity;
+
+	/**
+	 * The block of records.
+	 */
+	private LongBuffer data;
+
+	/**
+	 * The number of records the block can hold.
+	 */
+	private int capacity;
+
+	/**
+	 * The number of records that have ever been used. Records after this position have never been used.
+	 */
+	private int used;
+
+	/**
+	 * The handle of the first free record, -1 if no records have been freed.
+	 */
+	private int free;
+
+	/**
+	 * The number of records in use.
+	 */
+	private int size;
+
+	/**
+	 * Constructor for the OrderSlab class.
+	 * @param capacity The number of records the block holds initially.
+	 * @param direct true to keep the block outside of the heap, false to keep it in a long array.
+	 */
+	OrderSlab(int capacity, boolean direct) {
+		this.direct = direct;
+		this.maxCapacity = direct ? MAX_DIRECT_CAPACITY : MAX_HEAP_CAPACITY;
+		this.capacity = Math.min(capacity, this.maxCapacity);
+		this.data = this.allocate(this.capacity);
+		this.used = 0;
+		this.free = -1;
+		this.size = 0;
+	}
+
+	/**
+	 * This method creates a block for the given number of records.
+	 * @param records The number of records.
+	 * @return The new block.
+	 */
+	private LongBuffer allocate(int records) {
+		if(this.direct) {
+			int bytes = Math.toIntExact((long) records * RECORD_SIZE * Long.BYTES);
+			return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()).asLongBuffer();
+		}
+		return LongBuffer.wrap(new long[records * RECORD_SIZE]);
+	}
+
+	/**
+	 * Getter method for the number of orders in the slab.
+	 * @return The number of records in use.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * This method stores a new order, in a freed record if there is one.
+	 * @param id ID of the order.
+	 * @param traderID ID of the trader that has placed the order.
+	 * @param buying true for a buying order, false for a selling order.
+	 * @param amount Amount of PQoins in the order, in lots.
+	 * @param price The price of each PQoin in the order, in ticks.
+	 * @return The handle of the order.
+	 */
+	int add(long id, int traderID, boolean buying, long amount, long price) {
+		int order = this.free;
+		if(order >= 0) {
+			this.free = (int) this.data.get(order * RECORD_SIZE + ID);
+		} else {
+			if(this.used == this.capacity) {
+				this.grow();
+			}
+			order = this.used++;
+		}
+		int base = order * RECORD_SIZE;
+		this.data.put(base + ID, buying ? id | BUYING : id);
+		this.data.put(base + AMOUNT, amount);
+		this.data.put(base + PRICE, price);
+		this.data.put(base + META, (long) traderID << 32);
+		this.size++;
+		return order;
+	}
+
+	/**
+	 * This method frees the record of an order, which will be reused by a later order. The handle must not be used
+	 * after this.
+	 * @param order The handle of the order.
+	 */
+	void remove(int order) {
+		this.data.put(order * RECORD_SIZE + ID, this.free);
+		this.free = order;
+		this.size--;
+	}
+
+	/**
+	 * This method doubles the capacity of the block and copies all records into the new block.
+	 * @throws IllegalStateException If the block is already at its largest capacity.
+	 */
+	private void grow() {
+		if(this.capacity == this.maxCapacity) {
+			throw new IllegalStateException("The order slab is full.");
+		}
+		int newCapacity = (int) Math.min((long) this.capacity * 2, this.maxCapacity);
+		LongBuffer newData = this.allocate(newCapacity);
+		this.data.clear();
+		newData.put(this.data);
+		this.data = newData;
+		this.capacity = newCapacity;
+	}
+
+	/**
+	 * Getter method for the ID of an order.
+	 * @param order The handle of the order.
+	 * @return ID of the order.
+	 */
+	long id(int order) {
+		return this.data.get(order * RECORD_SIZE + ID) & ~BUYING;
+	}
+
+	/**
+	 * Getter method for the side of an order.
+	 * @param order The handle of the order.
+	 * @return true if the order is a buying order, false if it is a selling order.
+	 */
+	boolean isBuying(int order) {
+		return this.data.get(order * RECORD_SIZE + ID) < 0;
+	}
+
+	/**
+	 * Getter method for the amount of an order.
+	 * @param order The handle of the order.
+	 * @return Amount of PQoins in the order, in lots.
+	 */
+	long amount(int order) {
+		return this.data.get(order * RECORD_SIZE + AMOUNT);
+	}
+
+	/**
+	 * Setter method for the amount of an order.
+	 * @param order The handle of the order.
+	 * @param amount The new amount of PQoins in the order, in lots.
+	 */
+	void setAmount(int order, long amount) {
+		this.data.put(order * RECORD_SIZE + AMOUNT, amount);
+	}
+
+	/**
+	 * Getter method for the price of an order.
+	 * @param order The handle of the order.
+	 * @return The price of each PQoin in the order, in ticks.
+	 */
+	long price(int order) {
+		return this.data.get(order * RECORD_SIZE + PRICE);
+	}
+
+	/**
+	 * Setter method for the price of an order.
+	 * @param order The handle of the order.
+	 * @param price The new price of each PQoin in the order, in ticks.
+	 */
+	void setPrice(int order, long price) {
+		this.data.put(order * RECORD_SIZE + PRICE, price);
+	}
+
+	/**
+	 * Getter method for the trader of an order.
+	 * @param order The handle of the order.
+	 * @return ID of the trader that has placed the order.
+	 */
+	int traderID(int order) {
+		return (int) (this.data.get(order * RECORD_SIZE + META) >> 32);
+	}
+
+	/**
+	 * Getter method for the position of an order in the heap of its price level.
+	 * @param order The handle of the order.
+	 * @return The position of the order.
+	 */
+	int heapIndex(int order) {
+		return (int) this.data.get(order * RECORD_SIZE + META);
+	}
+
+	/**
+	 * Setter method for the position of an order in the heap of its price level.
+	 * @param order The handle of the order.
+	 * @param index The new position of the order.
+	 */
+	void setHeapIndex(int order, int index) {
+		int position = order * RECORD_SIZE + META;
+		this.data.put(position, (this.data.get(position) & 0xFFFFFFFF00000000L) | (index & 0xFFFFFFFFL));
+	}
+
+	/**
+	 * This method compares the priorities of two orders of the same price level. Orders with larger amounts come
+	 * first, then orders of traders with smaller IDs, and then orders with smaller IDs.
+	 * @param first The handle of the first order.
+	 * @param second The handle of the second order.
+	 * @return A negative number if the first order comes first, a positive number if the second order comes first.
+	 */
+	int compare(int first, int second) {
+		int firstBase = first * RECORD_SIZE;
+		int secondBase = second * RECORD_SIZE;
+		long firstAmount = this.data.get(firstBase + AMOUNT);
+		long secondAmount = this.data.get(secondBase + AMOUNT);
+		if(firstAmount != secondAmount) {
+			return firstAmount > secondAmount ? -1 : 1;
+		}
+		int firstTrader = (int) (this.data.get(firstBase + META) >> 32);
+		int secondTrader = (int) (this.data.get(secondBase + META) >> 32);
+		if(firstTrader != secondTrader) {
+			return firstTrader - secondTrader;
+		}
+		return Long.compare(this.data.get(firstBase + ID) & ~BUYING, this.data.get(secondBase + ID) & ~BUYING);
+	}
+}
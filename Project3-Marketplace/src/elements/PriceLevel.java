@@ -0,0 +1,210 @@
+package elements;
+
+/**
+ * This class represents a single price level of an order book, i.e. all active orders of one side of the market that
+ * have exactly the same price. The orders in a level are kept in a binary heap of order handles, so that the order
+ * with the largest amount (and the smallest trader ID and order ID among equal amounts) is always at the top. Every
+ * order knows its position in the heap, so any order can be removed from the level in logarithmic time.
+ * @author Eren
+ *
+ */
+class PriceLevel {
+
+	/**
+	 * The common price of all orders in the level.
+	 */
+	long price;
+
+	/**
+	 * The slab the orders of the level are stored in.
+	 */
+	private final OrderSlab orders;
+
+	/**
+	 * The array that holds the binary heap of order handles.
+	 */
+	private int[] heap;
+
+	/**
+	 * The number of orders in the level.
+	 */
+	private int size;
+
+	/**
+	 * The total amount of PQoins in all orders of the level, in lots.
+	 */
+	private long volume;
+
+	/**
+	 * Constructor for the PriceLevel class.
+	 * @param price The common price of all orders in the level.
+	 * @param orders The slab the orders of the level are stored in.
+	 */
+	PriceLevel(long price, OrderSlab orders) {
+		this.price = price;
+		this.orders = orders;
+		this.heap = new int[4];
+		this.size = 0;
+		this.volume = 0;
+	}
+
+	/**
+	 * This method gives an empty level a new price, so that it can be used again after it has been removed from its
+	 * book. The heap array keeps its size.
+	 * @param price The common price of all orders in the level.
+	 */
+	void reuse(long price) {
+		this.price = price;
+	}
+
+	/**
+	 * This method checks whether the level contains any orders.
+	 * @return true if there are no orders in the level, false otherwise.
+	 */
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Getter method for the number of orders in the level.
+	 * @return The number of orders in the level.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter method for the total amount of PQoins in the level.
+	 * @return The total amount of PQoins in all orders of the level, in lots.
+	 */
+	long volume() {
+		return this.volume;
+	}
+
+	/**
+	 * Getter method for the order at the given position of the heap. Positions are in no particular order, this
+	 * method only exists for iterating over the level.
+	 * @param index Position of the order in the heap.
+	 * @return The handle of the order at the given position.
+	 */
+	int get(int index) {
+		return this.heap[index];
+	}
+
+	/**
+	 * This method adds the given order to the level.
+	 * @param order The handle of the order to be added. Its price must be equal to the price of the level.
+	 */
+	void add(int order) {
+		if(this.size == this.heap.length) {
+			int[] newHeap = new int[this.size * 2];
+			System.arraycopy(this.heap, 0, newHeap, 0, this.size);
+			this.heap = newHeap;
+		}
+		this.siftUp(this.size, order);
+		this.size++;
+		this.volume += this.orders.amount(order);
+	}
+
+	/**
+	 * Getter method for the top order of the level.
+	 * @return The handle of the order with the highest priority in the level, -1 if the level is empty.
+	 */
+	int peek() {
+		return this.size == 0 ? -1 : this.heap[0];
+	}
+
+	/**
+	 * This method removes the top order of the level.
+	 * @return The handle of the removed order, -1 if the level is empty.
+	 */
+	int poll() {
+		if(this.size == 0) {
+			return -1;
+		}
+		int top = this.heap[0];
+		this.size--;
+		this.volume -= this.orders.amount(top);
+		int last = this.heap[this.size];
+		if(this.size > 0) {
+			this.siftDown(0, last);
+		}
+		return top;
+	}
+
+	/**
+	 * This method removes the given order from the level. The position of the order in the heap is stored in the
+	 * order itself, so the order doesn't have to be searched for.
+	 * @param order The handle of the order to be removed. It must be in this level.
+	 */
+	void remove(int order) {
+		int index = this.orders.heapIndex(order);
+		this.size--;
+		this.volume -= this.orders.amount(order);
+		int last = this.heap[this.size];
+		if(index != this.size) {
+			this.siftDown(index, last);
+			if(this.heap[index] == last) {
+				this.siftUp(index, last);
+			}
+		}
+	}
+
+	/**
+	 * This method restores the order of the level after the amount of its top order has been reduced in place. The
+	 * top order is only moved if another order of the level now has a higher priority than it.
+	 * @param reduction The amount the top order has been reduced by, in lots.
+	 */
+	void topReduced(long reduction) {
+		this.volume -= reduction;
+		this.siftDown(0, this.heap[0]);
+	}
+
+	/**
+	 * This method moves the given order up the heap, starting from the given position, until the heap property is
+	 * restored.
+	 * @param index The position the order is placed at initially.
+	 * @param order The handle of the order to be placed.
+	 */
+	private void siftUp(int index, int order) {
+		while(index > 0) {
+			int parent = (index - 1) / 2;
+			int parentOrder = this.heap[parent];
+			if(this.orders.compare(order, parentOrder) >= 0) {
+				break;
+			}
+			this.heap[index] = parentOrder;
+			this.orders.setHeapIndex(parentOrder, index);
+			index = parent;
+		}
+		this.heap[index] = order;
+		this.orders.setHeapIndex(order, index);
+	}
+
+	/**
+	 * This method moves the given order down the heap, starting from the given position, until the heap property is
+	 * restored.
+	 * @param index The position the order is placed at initially.
+	 * @param order The handle of the order to be placed.
+	 */
+	private void siftDown(int index, int order) {
+		int half = this.size / 2;
+		while(index < half) {
+			int child = 2 * index + 1;
+			int childOrder = this.heap[child];
+			int right = child + 1;
+			if(right < this.size && this.orders.compare(childOrder, this.heap[right]) > 0) {
+				child = right;
+				childOrder = this.heap[child];
+			}
+			if(this.orders.compare(order, childOrder) <= 0) {
+				break;
+			}
+			this.heap[index] = childOrder;
+			this.orders.setHeapIndex(childOrder, index);
+			index = child;
+		}
+		this.heap[index] = order;
+		this.orders.setHeapIndex(order, index);
+	}
+}
@@ -0,0 +1,135 @@
+package elements;
+
+import java.util.Arrays;
+
+/**
+ * This class collects the wallet changes of many fills, grouped by trader, so that every trader's wallet is updated
+ * only once at the end of a bulk operation. The arrays are kept between operations and only the entries of the
+ * traders that were touched are reset, so a settlement costs nothing for traders that took no part in it.
+ * @author Eren
+ *
+ */
+class Settlement {
+
+	/**
+	 * The amount of PQoins bought by each trader, in lots.
+	 */
+	private long[] boughtCoins;
+
+	/**
+	 * The amount of blocked dollars paid by each trader, in ticks.
+	 */
+	private long[] paidDollars;
+
+	/**
+	 * The amount of blocked PQoins sold by each trader, in lots.
+	 */
+	private long[] soldCoins;
+
+	/**
+	 * The amount of dollars received by each trader after the market fee, in ticks.
+	 */
+	private long[] receivedDollars;
+
+	/**
+	 * The number of the settlement in which each trader was last touched.
+	 */
+	private int[] stamps;
+
+	/**
+	 * The IDs of the traders touched in the current settlement, in the order they were first touched.
+	 */
+	private int[] touched;
+
+	/**
+	 * The number of traders touched in the current settlement.
+	 */
+	private int touchedCount;
+
+	/**
+	 * The number of the current settlement. It starts from 1, so that no trader is marked as touched initially.
+	 */
+	private int number;
+
+	/**
+	 * Constructor for the Settlement class.
+	 */
+	Settlement() {
+		this.boughtCoins = new long[16];
+		this.paidDollars = new long[16];
+		this.soldCoins = new long[16];
+		this.receivedDollars = new long[16];
+		this.stamps = new int[16];
+		this.touched = new int[16];
+		this.touchedCount = 0;
+		this.number = 1;
+	}
+
+	/**
+	 * This method adds a fill in which the given trader has bought PQoins with blocked dollars.
+	 * @param traderID ID of the trader.
+	 * @param coins The amount of PQoins bought, in lots.
+	 * @param dollars The amount of blocked dollars paid, in ticks.
+	 */
+	void buy(int traderID, long coins, long dollars) {
+		this.touch(traderID);
+		this.boughtCoins[traderID] += coins;
+		this.paidDollars[traderID] += dollars;
+	}
+
+	/**
+	 * This method adds a fill in which the given trader has sold blocked PQoins.
+	 * @param traderID ID of the trader.
+	 * @param coins The amount of PQoins sold, in lots.
+	 * @param dollars The amount of dollars received after the market fee, in ticks.
+	 */
+	void sell(int traderID, long coins, long dollars) {
+		this.touch(traderID);
+		this.soldCoins[traderID] += coins;
+		this.receivedDollars[traderID] += dollars;
+	}
+
+	/**
+	 * This method applies the collected changes to the wallets of the touched traders, and starts a new settlement.
+	 * @param wallets The wallets of all traders.
+	 */
+	void apply(WalletStore wallets) {
+		for(int i = 0; i < this.touchedCount; i++) {
+			int id = this.touched[i];
+			wallets.addCoins(id, this.boughtCoins[id]);
+			wallets.removeDollars(id, this.paidDollars[id]);
+			wallets.addDollars(id, this.receivedDollars[id]);
+			wallets.removeCoins(id, this.soldCoins[id]);
+		}
+		this.touchedCount = 0;
+		this.number++;
+	}
+
+	/**
+	 * This method marks a trader as touched in the current settlement, resetting its entries if it is touched for the
+	 * first time.
+	 * @param traderID ID of the trader.
+	 */
+	private void touch(int traderID) {
+		if(traderID >= this.stamps.length) {
+			int length = Math.max(traderID + 1, this.stamps.length * 2);
+			this.boughtCoins = Arrays.copyOf(this.boughtCoins, length);
+			this.paidDollars = Arrays.copyOf(this.paidDollars, length);
+			this.soldCoins = Arrays.copyOf(this.soldCoins, length);
+			this.receivedDollars = Arrays.copyOf(this.receivedDollars, length);
+			this.stamps = Arrays.copyOf(this.stamps, length);
+		}
+		if(this.stamps[traderID] == this.number) {
+			return;
+		}
+		this.stamps[traderID] = this.number;
+		this.boughtCoins[traderID] = 0;
+		this.paidDollars[traderID] = 0;
+		this.soldCoins[traderID] = 0;
+		this.receivedDollars[traderID] = 0;
+		if(this.touchedCount == this.touched.length) {
+			this.touched = Arrays.copyOf(this.touched, this.touchedCount * 2);
+		}
+		this.touched[this.touchedCount++] = traderID;
+	}
+}
@@ -0,0 +1,138 @@
+package elements;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class holds the dormant stop orders of one side of the market. The orders are grouped by stop price into
+ * levels, which are kept in a sorted map, so that the stop price that is triggered first is always at the front. For
+ * buying stops this is the lowest stop price, and for selling stops the highest one. Checking whether any order is
+ * triggered by a trade therefore takes constant time, and triggering k orders takes O(log n + k) time instead of a
+ * scan over all dormant orders. Orders with the same stop price are triggered in the order they were placed, and
+ * since they are linked to each other, cancelling one of them doesn't search its level.
+ * @author Eren
+ *
+ */
+class StopBook {
+
+	/**
+	 * The map of all non-empty levels, sorted so that the stop price that is triggered first comes first.
+	 */
+	private TreeMap<Long, StopLevel> levels;
+
+	/**
+	 * The level with the stop price that is triggered first, null if the book is empty.
+	 */
+	private StopLevel best;
+
+	/**
+	 * The total number of orders in the book.
+	 */
+	private int size;
+
+	/**
+	 * Whether the book holds buying stops, which are triggered by rising prices.
+	 */
+	private final boolean buying;
+
+	/**
+	 * Constructor for the StopBook class.
+	 * @param buying true if the book holds buying stops, false if it holds selling stops.
+	 */
+	StopBook(boolean buying) {
+		this.buying = buying;
+		this.levels = new TreeMap<Long, StopLevel>(
+				buying ? Comparator.<Long>naturalOrder() : Comparator.<Long>reverseOrder());
+		this.best = null;
+		this.size = 0;
+	}
+
+	/**
+	 * Getter method for the number of orders in the book.
+	 * @return The number of dormant orders in the book.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter method for the levels of the book, in the order they are triggered. The levels must not be changed.
+	 * @return The levels of the book.
+	 */
+	Iterable<StopLevel> levels() {
+		return this.levels.values();
+	}
+
+	/**
+	 * This method adds an order to the end of the level of its stop price, creating the level if it doesn't exist.
+	 * @param order The order to be added.
+	 */
+	void add(StopOrder order) {
+		StopLevel level = this.levels.get(order.stopPrice);
+		if(level == null) {
+			level = new StopLevel(order.stopPrice);
+			this.levels.put(order.stopPrice, level);
+			if(this.best == null || this.levels.comparator().compare(order.stopPrice, this.best.price) < 0) {
+				this.best = level;
+			}
+		}
+		level.addLast(order);
+		this.size++;
+	}
+
+	/**
+	 * This method removes an order from the book. The order is unlinked from its level in constant time, and only
+	 * removing a level that becomes empty takes O(log n) time.
+	 * @param order The order to be removed. It must be in this book.
+	 */
+	void remove(StopOrder order) {
+		StopLevel level = order.level;
+		level.remove(order);
+		this.size--;
+		if(level.isEmpty()) {
+			this.levels.remove(order.stopPrice);
+			if(level == this.best) {
+				this.updateBest();
+			}
+		}
+	}
+
+	/**
+	 * This method checks whether the front order of the book is triggered by the given last trade price.
+	 * @param lastPrice The last trade price, in ticks.
+	 * @return true if at least one order is triggered, false otherwise.
+	 */
+	boolean isTriggered(long lastPrice) {
+		if(this.best == null) {
+			return false;
+		}
+		return this.buying ? lastPrice >= this.best.price : lastPrice <= this.best.price;
+	}
+
+	/**
+	 * This method removes the front order of the book, which is the oldest order with the stop price that is
+	 * triggered first.
+	 * @return The removed order, null if the book is empty.
+	 */
+	StopOrder poll() {
+		if(this.best == null) {
+			return null;
+		}
+		StopOrder order = this.best.pollFirst();
+		this.size--;
+		if(this.best.isEmpty()) {
+			this.levels.remove(this.best.price);
+			this.updateBest();
+		}
+		return order;
+	}
+
+	/**
+	 * This method makes the first level of the map the best level, after the previous best level has been removed.
+	 */
+	private void updateBest() {
+		Map.Entry<Long, StopLevel> first = this.levels.firstEntry();
+		this.best = first == null ? null : first.getValue();
+	}
+}
@@ -0,0 +1,101 @@
+package elements;
+
+/**
+ * This class holds the dormant stop orders of one stop price of a stop book, in the order they were placed. The
+ * orders form a doubly linked list through their own fields and know their level, so that any order can be unlinked
+ * in constant time without searching the book or the level, and neither adding nor removing an order creates any
+ * objects.
+ * @author Eren
+ *
+ */
+class StopLevel {
+
+	/**
+	 * The common stop price of all orders in the level, in ticks.
+	 */
+	final long price;
+
+	/**
+	 * The oldest order of the level, null if the level is empty.
+	 */
+	private StopOrder first;
+
+	/**
+	 * The newest order of the level, null if the level is empty.
+	 */
+	private StopOrder last;
+
+	/**
+	 * Constructor for the StopLevel class.
+	 * @param price The common stop price of all orders in the level, in ticks.
+	 */
+	StopLevel(long price) {
+		this.price = price;
+		this.first = null;
+		this.last = null;
+	}
+
+	/**
+	 * Getter method for the oldest order of the level. The following orders are reached through their next fields.
+	 * @return The oldest order of the level, null if the level is empty.
+	 */
+	StopOrder first() {
+		return this.first;
+	}
+
+	/**
+	 * This method checks whether the level has no orders.
+	 * @return true if the level is empty, false otherwise.
+	 */
+	boolean isEmpty() {
+		return this.first == null;
+	}
+
+	/**
+	 * This method adds an order to the end of the level.
+	 * @param order The order to be added. It must not be in any level.
+	 */
+	void addLast(StopOrder order) {
+		order.level = this;
+		order.previous = this.last;
+		order.next = null;
+		if(this.last == null) {
+			this.first = order;
+		} else {
+			this.last.next = order;
+		}
+		this.last = order;
+	}
+
+	/**
+	 * This method unlinks an order from the level.
+	 * @param order The order to be removed. It must be in this level.
+	 */
+	void remove(StopOrder order) {
+		if(order.previous == null) {
+			this.first = order.next;
+		} else {
+			order.previous.next = order.next;
+		}
+		if(order.next == null) {
+			this.last = order.previous;
+		} else {
+			order.next.previous = order.previous;
+		}
+		order.level = null;
+		order.previous = null;
+		order.next = null;
+	}
+
+	/**
+	 * This method removes the oldest order of the level.
+	 * @return The removed order, null if the level is empty.
+	 */
+	StopOrder pollFirst() {
+		StopOrder order = this.first;
+		if(order != null) {
+			this.remove(order);
+		}
+		return order;
+	}
+}
@@ -0,0 +1,86 @@
+package elements;
+
+/**
+ * This class represents a stop order or a stop-limit order, which stays dormant until the last trade price of the
+ * market reaches its stop price. A buying stop is triggered when the last trade price rises to its stop price or
+ * above, and a selling stop when the last trade price falls to its stop price or below. A triggered stop-limit order
+ * becomes a limit order with its limit price, and a triggered stop order becomes a market order.
+ * @author Eren
+ *
+ */
+class StopOrder {
+
+	/**
+	 * ID of the order, assigned by the market when the order is placed. The limit order a stop-limit order becomes
+	 * keeps the same ID.
+	 */
+	long id;
+
+	/**
+	 * ID of the trader that has placed the order.
+	 */
+	final int traderID;
+
+	/**
+	 * true for a buying order, false for a selling order.
+	 */
+	final boolean buying;
+
+	/**
+	 * Amount of PQoins in the order, in lots.
+	 */
+	final long amount;
+
+	/**
+	 * The last trade price that triggers the order, in ticks.
+	 */
+	final long stopPrice;
+
+	/**
+	 * The price of the limit order the order becomes in ticks, -1 for a stop order that becomes a market order.
+	 */
+	final long limitPrice;
+
+	/**
+	 * The stop level the order is in, null if the order isn't in a level.
+	 */
+	StopLevel level;
+
+	/**
+	 * The previous order of the stop level the order is in, null if the order is the oldest one or isn't in a level.
+	 */
+	StopOrder previous;
+
+	/**
+	 * The next order of the stop level the order is in, null if the order is the newest one or isn't in a level.
+	 */
+	StopOrder next;
+
+	/**
+	 * Constructor for the StopOrder class.
+	 * @param traderID ID of the trader that has placed the order.
+	 * @param buying true for a buying order, false for a selling order.
+	 * @param amount Amount of PQoins in the order, in lots.
+	 * @param stopPrice The last trade price that triggers the order, in ticks.
+	 * @param limitPrice The price of the limit order the order becomes in ticks, -1 to become a market order.
+	 */
+	StopOrder(int traderID, boolean buying, long amount, long stopPrice, long limitPrice) {
+		this.id = 0;
+		this.traderID = traderID;
+		this.buying = buying;
+		this.amount = amount;
+		this.stopPrice = stopPrice;
+		this.limitPrice = limitPrice;
+		this.level = null;
+		this.previous = null;
+		this.next = null;
+	}
+
+	/**
+	 * This method checks whether the order becomes a limit order when it is triggered.
+	 * @return true for a stop-limit order, false for a stop order.
+	 */
+	boolean isLimit() {
+		return this.limitPrice >= 0;
+	}
+}
@@ -0,0 +1,335 @@
+package elements;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is an append-only journal of all processed transactions of the market. Every trade is written as a
+ * fixed-size binary record into a memory-mapped file, so the journal doesn't keep anything on the heap no matter how
+ * many trades are recorded. The file is mapped region by region, and a new region is mapped whenever the current one
+ * is full. The recorded trades can be read back with a Reader.
+ * @author Eren
+ *
+ */
+public class TradeJournal implements Closeable {
+
+	/**
+	 * The size of a record in bytes. Each record consists of the sequence number (8 bytes), the seller ID (4 bytes),
+	 * the buyer ID (4 bytes), the amount in lots (8 bytes) and the price in ticks (8 bytes).
+	 */
+	public static final int RECORD_SIZE = 32;
+
+	/**
+	 * The size of a mapped region of the file in bytes. It is a multiple of the record size, so records never span
+	 * two regions.
+	 */
+	private static final long REGION_SIZE = RECORD_SIZE * (1L << 20);
+
+	/**
+	 * The path of the journal file.
+	 */
+	private final Path path;
+
+	/**
+	 * The channel of the journal file.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * The currently mapped region of the file.
+	 */
+	private MappedByteBuffer region;
+
+	/**
+	 * The position of the current region in the file.
+	 */
+	private long regionStart;
+
+	/**
+	 * The number of recorded trades.
+	 */
+	private long size;
+
+	/**
+	 * Constructor for the TradeJournal class. If the file already exists, it is overwritten.
+	 * @param path The path of the journal file.
+	 * @throws IOException If the file can't be created or mapped.
+	 */
+	public TradeJournal(Path path) throws IOException {
+		this(path, false);
+	}
+
+	/**
+	 * Constructor for the TradeJournal class.
+	 * @param path The path of the journal file.
+	 * @param keep true if the contents of an existing file should be kept, so that the journal can be continued with
+	 * rewind, false if the file should be overwritten. The journal is empty until it is rewound in both cases.
+	 * @throws IOException If the file can't be created or mapped.
+	 */
+	public TradeJournal(Path path, boolean keep) throws IOException {
+		this.path = path;
+		if(keep) {
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+		} else {
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		this.regionStart = 0;
+		this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+		this.size = 0;
+	}
+
+	/**
+	 * This method creates a journal in a temporary file, which is deleted when the program ends.
+	 * @return The created journal.
+	 */
+	public static TradeJournal createTemporary() {
+		try {
+			Path path = Files.createTempFile("trades", ".journal");
+			path.toFile().deleteOnExit();
+			return new TradeJournal(path);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Trade journal couldn't be created", e);
+		}
+	}
+
+	/**
+	 * This method appends a trade to the end of the journal.
+	 * @param sellerID ID of the seller.
+	 * @param buyerID ID of the buyer.
+	 * @param amount Amount of PQoins traded, in lots.
+	 * @param price The price of each PQoin in the trade, in ticks.
+	 */
+	void record(int sellerID, int buyerID, long amount, long price) {
+		if(!this.region.hasRemaining()) {
+			this.nextRegion();
+		}
+		this.size++;
+		this.region.putLong(this.size);
+		this.region.putInt(sellerID);
+		this.region.putInt(buyerID);
+		this.region.putLong(amount);
+		this.region.putLong(price);
+	}
+
+	/**
+	 * This method maps the region of the file that comes after the current one.
+	 */
+	private void nextRegion() {
+		try {
+			this.regionStart += REGION_SIZE;
+			this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, this.regionStart, REGION_SIZE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Trade journal couldn't be extended", e);
+		}
+	}
+
+	/**
+	 * This method moves the end of the journal to the given number of trades. The trades before the new end are kept
+	 * as they are in the file, and the trades after it are overwritten by the next recorded trades. It is used to
+	 * continue a journal from the state of a snapshot.
+	 * @param size The new number of recorded trades.
+	 */
+	public void rewind(long size) {
+		try {
+			long end = size * RECORD_SIZE;
+			this.regionStart = end - end % REGION_SIZE;
+			this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, this.regionStart, REGION_SIZE);
+			this.region.position((int) (end - this.regionStart));
+			this.size = size;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Trade journal couldn't be rewound", e);
+		}
+	}
+
+	/**
+	 * Getter method for the number of recorded trades.
+	 * @return The number of recorded trades.
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter method for the path of the journal file.
+	 * @return The path of the journal file.
+	 */
+	public Path getPath() {
+		return this.path;
+	}
+
+	/**
+	 * This method writes all recorded trades to the disk and cuts the unused end of the last region from the file.
+	 * The journal can't be written to after it is closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(this.channel == null) {
+			return;
+		}
+		this.region.force();
+		this.region = null;
+		this.channel.truncate(this.size * RECORD_SIZE);
+		this.channel.close();
+		this.channel = null;
+	}
+
+	/**
+	 * This class reads the trades of a closed journal file one by one. The reader works like a cursor: after each
+	 * call to next, the getters return the fields of the current trade, so reading doesn't create any objects.
+	 * @author Eren
+	 *
+	 */
+	public static class Reader implements Closeable {
+
+		/**
+		 * The channel of the journal file.
+		 */
+		private FileChannel channel;
+
+		/**
+		 * The currently mapped region of the file.
+		 */
+		private MappedByteBuffer region;
+
+		/**
+		 * The position of the current region in the file.
+		 */
+		private long regionStart;
+
+		/**
+		 * The size of the file in bytes.
+		 */
+		private final long fileSize;
+
+		/**
+		 * Sequence number of the current trade.
+		 */
+		private long sequence;
+
+		/**
+		 * ID of the seller of the current trade.
+		 */
+		private int sellerID;
+
+		/**
+		 * ID of the buyer of the current trade.
+		 */
+		private int buyerID;
+
+		/**
+		 * Amount of PQoins in the current trade, in lots.
+		 */
+		private long amount;
+
+		/**
+		 * The price of each PQoin in the current trade, in ticks.
+		 */
+		private long price;
+
+		/**
+		 * Constructor for the Reader class.
+		 * @param path The path of the journal file.
+		 * @throws IOException If the file can't be opened or mapped.
+		 */
+		public Reader(Path path) throws IOException {
+			this.channel = FileChannel.open(path, StandardOpenOption.READ);
+			this.fileSize = this.channel.size() - this.channel.size() % RECORD_SIZE;
+			this.regionStart = 0;
+			this.region = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(REGION_SIZE, this.fileSize));
+		}
+
+		/**
+		 * Getter method for the number of trades in the journal.
+		 * @return The number of trades in the journal.
+		 */
+		public long size() {
+			return this.fileSize / RECORD_SIZE;
+		}
+
+		/**
+		 * This method moves the reader to the next trade. The records of a journal that hasn't been closed properly
+		 * are followed by empty space, which is recognized by its sequence number of 0.
+		 * @return true if there is a next trade, false if the end of the journal has been reached.
+		 * @throws IOException If the next region of the file can't be mapped.
+		 */
+		public boolean next() throws IOException {
+			if(!this.region.hasRemaining()) {
+				long nextStart = this.regionStart + this.region.capacity();
+				if(nextStart >= this.fileSize) {
+					return false;
+				}
+				this.regionStart = nextStart;
+				this.region = this.channel.map(FileChannel.MapMode.READ_ONLY, nextStart,
+						Math.min(REGION_SIZE, this.fileSize - nextStart));
+			}
+			long sequence = this.region.getLong();
+			if(sequence == 0) {
+				this.region.position(this.region.limit());
+				return false;
+			}
+			this.sequence = sequence;
+			this.sellerID = this.region.getInt();
+			this.buyerID = this.region.getInt();
+			this.amount = this.region.getLong();
+			this.price = this.region.getLong();
+			return true;
+		}
+
+		/**
+		 * Getter method for the sequence number of the current trade. Sequence numbers start from 1.
+		 * @return The sequence number of the current trade.
+		 */
+		public long getSequence() {
+			return this.sequence;
+		}
+
+		/**
+		 * Getter method for the seller of the current trade.
+		 * @return ID of the seller, 0 if the market itself has sold.
+		 */
+		public int getSellerID() {
+			return this.sellerID;
+		}
+
+		/**
+		 * Getter method for the buyer of the current trade.
+		 * @return ID of the buyer, 0 if the market itself has bought.
+		 */
+		public int getBuyerID() {
+			return this.buyerID;
+		}
+
+		/**
+		 * Getter method for the amount of the current trade.
+		 * @return Amount of PQoins traded, in lots.
+		 */
+		public long getAmount() {
+			return this.amount;
+		}
+
+		/**
+		 * Getter method for the price of the current trade.
+		 * @return The price of each PQoin in the trade, in ticks.
+		 */
+		public long getPrice() {
+			return this.price;
+		}
+
+		/**
+		 * This method closes the journal file.
+		 */
+		@Override
+		public void close() throws IOException {
+			this.region = null;
+			this.channel.close();
+		}
+	}
+}
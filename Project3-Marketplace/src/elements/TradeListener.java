@@ -0,0 +1,20 @@
+package elements;
+
+/**
+ * This interface is told about every fill made by a market, including the fills of the open market operations, in the
+ * order they are recorded in the trade journal. The method is called by the thread that changes the market, so
+ * implementations should return quickly.
+ * @author Eren
+ *
+ */
+public interface TradeListener {
+
+	/**
+	 * This method is called after a fill is recorded.
+	 * @param sellerID ID of the seller, 0 if the market itself has sold.
+	 * @param buyerID ID of the buyer, 0 if the market itself has bought.
+	 * @param amount The amount of PQoins traded, in lots.
+	 * @param price The price of each PQoin, in ticks.
+	 */
+	void tradeExecuted(int sellerID, int buyerID, long amount, long price);
+}
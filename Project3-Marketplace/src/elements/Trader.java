@@ -1,8 +1,13 @@
 package elements;
 
+import java.io.DataInput;
+import java.io.IOException;
+
 /**
  * This class represents traders, who have the ability to place buying and selling orders in the market. Every trader
- * has a wallet which contains dollars and PQoins.
+ * has a wallet which contains dollars and PQoins. The wallets of all traders of a market are kept together in the
+ * WalletStore of the market, and a trader only knows the position of its wallet in the store, which is its ID. All
+ * amounts and prices are fixed-point values, as described in the FixedPoint class.
  * @author Eren
  *
  */
@@ -15,26 +20,42 @@ public class Trader {
 	private int id;
 
 	/**
-	 * Wallet of the trader that keeps track of the amount of dollars and PQoins the trader has.
+	 * The store that holds the wallet of the trader, i.e. the amount of dollars and PQoins the trader has.
 	 */
-	private Wallet wallet;
+	private WalletStore wallets;
 	
 	/**
-	 * The current number of traders in the market. This variable is used in order to determine the ID of the next
-	 * trader.
+	 * Constructor for the Trader class. The trader is added to the given market, and gets the next free ID of that
+	 * market.
+	 * @param market The market the trader trades in.
+	 * @param dollars The initial amount of dollars the trader has.
+	 * @param coins The initial amount of PQoins the trader has.
 	 */
-	public static int numberOfUsers = 0;
+	public Trader(Market market, long dollars, long coins) {
+		this.wallets = market.getWallets();
+		this.id = this.wallets.add(dollars, coins);
+		market.addTrader(this);
+	}
 	
 	/**
-	 * Constructor for the Trader class.
-	 * @param dollars The initial amount of dollars the trader has.
-	 * @param coins The initial amount of PQoins the trader has.
+	 * Constructor for the Trader class, which is used when a market is restored from a snapshot. The trader is added
+	 * to the given market, and gets the next free ID of that market.
+	 * @param market The market the trader trades in.
+	 * @param in The input the wallet of the trader is read from.
+	 * @throws IOException If the input can't be read.
 	 */
-	public Trader(double dollars, double coins) {
-		this.id = Trader.numberOfUsers;
-		Trader.numberOfUsers++;		
-		this.wallet = new Wallet(dollars, coins);
-		Market.traders.add(this);
+	Trader(Market market, DataInput in) throws IOException {
+		this.wallets = market.getWallets();
+		this.id = this.wallets.read(in);
+		market.addTrader(this);
+	}
+	
+	/**
+	 * Getter method for the ID of the trader.
+	 * @return ID of the trader.
+	 */
+	public int getID() {
+		return this.id;
 	}
 	
 	/**
@@ -44,8 +65,8 @@ public class Trader {
 	 * @param market The market.
 	 * @return 1 if the selling order is placed successfully, 0 otherwise.
 	 */
-	public int sell(double amount, double price, Market market) {
-		if(price >= 0 && this.wallet.blockCoins(amount)) {
+	public int sell(long amount, long price, Market market) {
+		if(price >= 0 && this.wallets.blockCoins(this.id, amount)) {
 			market.giveSellOrder(new SellingOrder(this.id, amount, price));
 			return 1;
 		} else {
@@ -60,8 +81,8 @@ public class Trader {
 	 * @param market The market.
 	 * @return 1 if the buying order is placed successfully, 0 otherwise.
 	 */
-	public int buy(double amount, double price, Market market) {
-		if(price >= 0 && this.wallet.blockDollars(amount * price)) {
+	public int buy(long amount, long price, Market market) {
+		if(price >= 0 && this.wallets.blockDollars(this.id, FixedPoint.multiply(amount, price))) {
 			market.giveBuyOrder(new BuyingOrder(this.id, amount, price));
 			return 1;
 		} else {
@@ -69,6 +90,205 @@ public class Trader {
 		}
 	}
 	
+	/**
+	 * This method is called when the trader is attempting to buy PQoins at the best prices in the market. All free
+	 * dollars of the trader are blocked once, the order is filled against the selling orders level by level until the
+	 * requested amount is bought or the dollars run out, and the unspent dollars are released once at the end. The
+	 * part of the order that can't be filled is dropped.
+	 * @param amount The amount of PQoins the trader wants to buy.
+	 * @param market The market.
+	 * @return 1 if the order is executed successfully, 0 if there are no selling orders or the trader can't afford the
+	 * requested amount at the best selling price.
+	 */
+	public int marketBuy(long amount, Market market) {
+		long price = market.getTopSellingPrice();
+		long budget = this.wallets.getFreeDollars(this.id);
+		if(price < 0 || budget < FixedPoint.multiply(amount, price)) {
+			return 0;
+		}
+		this.wallets.blockDollars(this.id, budget);
+		market.executeMarketBuy(this, amount, budget);
+		return 1;
+	}
+	
+	/**
+	 * This method is called when the trader is attempting to sell PQoins at the best prices in the market. The PQoins
+	 * are blocked once, the order is filled against the buying orders level by level until the requested amount is
+	 * sold or the buying orders run out, and the unsold PQoins are released once at the end. The part of the order
+	 * that can't be filled is dropped.
+	 * @param amount The amount of PQoins the trader wants to sell.
+	 * @param market The market.
+	 * @return 1 if the order is executed successfully, 0 if there are no buying orders or the trader doesn't have
+	 * the requested amount of PQoins.
+	 */
+	public int marketSell(long amount, Market market) {
+		if(market.getTopBuyingPrice() < 0 || !this.wallets.blockCoins(this.id, amount)) {
+			return 0;
+		}
+		market.executeMarketSell(this, amount);
+		return 1;
+	}
+	
+	/**
+	 * This method is called when the trader is attempting to place a buying stop order in the market. The order stays
+	 * dormant until the last trade price rises to the stop price, and then becomes a market buying order. No dollars
+	 * are blocked until then, and the order is dropped if the trader can't afford it when it is triggered.
+	 * @param amount The amount of PQoins the trader wants to buy.
+	 * @param stopPrice The last trade price that triggers the order.
+	 * @param market The market.
+	 * @return 1 if the stop order is placed successfully, 0 otherwise.
+	 */
+	public int stopBuy(long amount, long stopPrice, Market market) {
+		if(stopPrice < 0) {
+			return 0;
+		}
+		market.giveStopOrder(new StopOrder(this.id, true, amount, stopPrice, -1));
+		return 1;
+	}
+	
+	/**
+	 * This method is called when the trader is attempting to place a selling stop order in the market. The PQoins are
+	 * blocked immediately, and the order stays dormant until the last trade price falls to the stop price, and then
+	 * becomes a market selling order.
+	 * @param amount The amount of PQoins the trader wants to sell.
+	 * @param stopPrice The last trade price that triggers the order.
+	 * @param market The market.
+	 * @return 1 if the stop order is placed successfully, 0 otherwise.
+	 */
+	public int stopSell(long amount, long stopPrice, Market market) {
+		if(stopPrice >= 0 && this.wallets.blockCoins(this.id, amount)) {
+			market.giveStopOrder(new StopOrder(this.id, false, amount, stopPrice, -1));
+			return 1;
+		} else {
+			return 0;
+		}
+	}
+	
+	/**
+	 * This method is called when the trader is attempting to place a buying stop-limit order in the market. The
+	 * dollars for the limit price are blocked immediately, and the order stays dormant until the last trade price rises
+	 * to the stop price, and then becomes a buying order with the same ID.
+	 * @param amount The amount of PQoins the trader wants to buy.
+	 * @param stopPrice The last trade price that triggers the order.
+	 * @param limitPrice The price the trader wants to buy PQoins at once the order is triggered.
+	 * @param market The market.
+	 * @return 1 if the stop-limit order is placed successfully, 0 otherwise.
+	 */
+	public int stopLimitBuy(long amount, long stopPrice, long limitPrice, Market market) {
+		if(stopPrice >= 0 && limitPrice >= 0
+				&& this.wallets.blockDollars(this.id, FixedPoint.multiply(amount, limitPrice))) {
+			market.giveStopOrder(new StopOrder(this.id, true, amount, stopPrice, limitPrice));
+			return 1;
+		} else {
+			return 0;
+		}
+	}
+	
+	/**
+	 * This method is called when the trader is attempting to place a selling stop-limit order in the market. The
+	 * PQoins are blocked immediately, and the order stays dormant until the last trade price falls to the stop price,
+	 * and then becomes a selling order with the same ID.
+	 * @param amount The amount of PQoins the trader wants to sell.
+	 * @param stopPrice The last trade price that triggers the order.
+	 * @param limitPrice The price the trader wants to sell their PQoins at once the order is triggered.
+	 * @param market The market.
+	 * @return 1 if the stop-limit order is placed successfully, 0 otherwise.
+	 */
+	public int stopLimitSell(long amount, long stopPrice, long limitPrice, Market market) {
+		if(stopPrice >= 0 && limitPrice >= 0 && this.wallets.blockCoins(this.id, amount)) {
+			market.giveStopOrder(new StopOrder(this.id, false, amount, stopPrice, limitPrice));
+			return 1;
+		} else {
+			return 0;
+		}
+	}
+	
+	/**
+	 * This method is called when the trader is attempting to cancel one of their active orders or dormant stop
+	 * orders. The funds blocked for the unfilled part of the order are unblocked.
+	 * @param orderID ID of the order.
+	 * @param market The market.
+	 * @return 1 if the order is cancelled successfully, 0 if there is no active order or dormant stop order of the
+	 * trader with the given ID.
+	 */
+	public int cancel(long orderID, Market market) {
+		int order = market.findOrder(orderID);
+		if(order < 0) {
+			return this.cancelStop(orderID, market);
+		}
+		OrderSlab orders = market.getOrders();
+		if(orders.traderID(order) != this.id) {
+			return 0;
+		}
+		boolean buying = orders.isBuying(order);
+		long orderAmount = orders.amount(order);
+		long orderPrice = orders.price(order);
+		market.cancelOrder(order);
+		if(buying) {
+			this.wallets.unblockDollars(this.id, FixedPoint.multiply(orderAmount, orderPrice));
+		} else {
+			this.wallets.unblockCoins(this.id, orderAmount);
+		}
+		return 1;
+	}
+	
+	/**
+	 * This method cancels one of the dormant stop orders of the trader, and unblocks the funds blocked for it.
+	 * @param orderID ID of the stop order.
+	 * @param market The market.
+	 * @return 1 if the stop order is cancelled successfully, 0 if there is no dormant stop order of the trader with the
+	 * given ID.
+	 */
+	private int cancelStop(long orderID, Market market) {
+		StopOrder order = market.findStop(orderID);
+		if(order == null || order.traderID != this.id) {
+			return 0;
+		}
+		market.cancelStop(order);
+		if(!order.buying) {
+			this.wallets.unblockCoins(this.id, order.amount);
+		} else if(order.isLimit()) {
+			this.wallets.unblockDollars(this.id, FixedPoint.multiply(order.amount, order.limitPrice));
+		}
+		return 1;
+	}
+	
+	/**
+	 * This method is called when the trader is attempting to change the price and the amount of one of their active
+	 * orders. The funds blocked for the unfilled part of the order are unblocked, and the funds needed for the new
+	 * values are blocked instead. If the trader can't afford the new values, the order isn't changed. Dormant stop
+	 * orders can't be amended.
+	 * @param orderID ID of the order.
+	 * @param amount The new amount of PQoins in the order.
+	 * @param price The new price of each PQoin in the order.
+	 * @param market The market.
+	 * @return 1 if the order is amended successfully, 0 otherwise.
+	 */
+	public int amend(long orderID, long amount, long price, Market market) {
+		int order = market.findOrder(orderID);
+		OrderSlab orders = market.getOrders();
+		if(order < 0 || orders.traderID(order) != this.id || price < 0) {
+			return 0;
+		}
+		if(orders.isBuying(order)) {
+			long blocked = FixedPoint.multiply(orders.amount(order), orders.price(order));
+			this.wallets.unblockDollars(this.id, blocked);
+			if(!this.wallets.blockDollars(this.id, FixedPoint.multiply(amount, price))) {
+				this.wallets.blockDollars(this.id, blocked);
+				return 0;
+			}
+		} else {
+			long blocked = orders.amount(order);
+			this.wallets.unblockCoins(this.id, blocked);
+			if(!this.wallets.blockCoins(this.id, amount)) {
+				this.wallets.blockCoins(this.id, blocked);
+				return 0;
+			}
+		}
+		market.amendOrder(order, amount, price);
+		return 1;
+	}
+	
 	/**
 	 * This method is called after the trader has successfully sold a given amount of PQoins at a given price. The
 	 * purpose of this method is to make the appropriate modifications in the wallet of the trader.
@@ -76,30 +296,45 @@ public class Trader {
 	 * @param price The price the trader sold their PQoins at.
 	 * @param marketFee The market fee per 1000 dollars.
 	 */
-	void finalizeSelling(double amount, double price, int marketFee) {
-		this.wallet.addDollars(amount * price * (1 - (double) marketFee / 1000));
-		this.wallet.removeCoins(amount);
+	void finalizeSelling(long amount, long price, int marketFee) {
+		long dollars = FixedPoint.fraction(FixedPoint.multiply(amount, price), 1000 - marketFee, 1000);
+		this.wallets.addDollars(this.id, dollars);
+		this.wallets.removeCoins(this.id, amount);
 	}
 	
 	/**
-	 * This method is called after the trader has successfully bought a given amount of PQoins at a given price. The
-	 * purpose of this method is to make the appropriate modifications in the wallet of the trader.
+	 * This method is called after the trader has successfully bought a given amount of PQoins. The purpose of this
+	 * method is to make the appropriate modifications in the wallet of the trader. The dollars blocked for the bought
+	 * PQoins are released, the price actually paid is removed, and the rest is returned to the trader.
 	 * @param amount The amount of PQoins the trader has bought.
-	 * @param price The price the trader bought the PQoins at.
-	 * @param marketFee The market fee per 1000 dollars.
+	 * @param releasedDollars The amount of blocked dollars that were reserved for the bought PQoins.
+	 * @param paidDollars The amount of dollars the trader actually paid, which is at most the released amount.
+	 */
+	void finalizeBuying(long amount, long releasedDollars, long paidDollars) {
+		this.wallets.addCoins(this.id, amount);
+		this.wallets.removeDollars(this.id, paidDollars);
+		this.wallets.unblockDollars(this.id, releasedDollars - paidDollars);
+	}
+	
+	/**
+	 * This method is called after a market selling order of the trader has been executed. The purpose of this method
+	 * is to make the appropriate modifications in the wallet of the trader for all fills of the order at once.
+	 * @param soldCoins The amount of PQoins the trader has sold.
+	 * @param blockedCoins The amount of PQoins that were blocked for the order.
+	 * @param receivedDollars The amount of dollars the trader has received for all fills, after the market fee.
 	 */
-	void finalizeBuying(double amount, double intendedPrice, double actualPrice) {
-		this.wallet.addCoins(amount);
-		this.wallet.removeDollars(amount * actualPrice);
-		this.wallet.unblockDollars(amount * (intendedPrice - actualPrice));
+	void finalizeMarketSelling(long soldCoins, long blockedCoins, long receivedDollars) {
+		this.wallets.addDollars(this.id, receivedDollars);
+		this.wallets.removeCoins(this.id, soldCoins);
+		this.wallets.unblockCoins(this.id, blockedCoins - soldCoins);
 	}
 	
 	/**
 	 * This method is for depositing dollars in the trader's wallet.
 	 * @param amount The amount of dollars to be deposited.
 	 */
-	public void deposit(double amount) {
-		this.wallet.addDollars(amount);
+	public void deposit(long amount) {
+		this.wallets.addDollars(this.id, amount);
 	}
 	
 	/**
@@ -107,31 +342,31 @@ public class Trader {
 	 * @param amount The amount of dollars to be withdrawn.
 	 * @return true if the given amount of dollars can be withdrawn, false otherwise.
 	 */
-	public boolean withdraw(double amount) {
-		return this.wallet.withdrawDollars(amount);
+	public boolean withdraw(long amount) {
+		return this.wallets.withdrawDollars(this.id, amount);
 	}
 	/**
 	 * This method returns the total number of dollars in the trader's wallet, including blocked dollars.
 	 * @return Total number of dollars in the trader's wallet.
 	 */
-	public double getTotalDollars() {
-		return this.wallet.getTotalDollars();
+	public long getTotalDollars() {
+		return this.wallets.getTotalDollars(this.id);
 	}
 	
 	/**
 	 * This method returns the total number of PQoins in the trader's wallet, including blocked PQoins.
 	 * @return Total number of PQoins in the trader's wallet.
 	 */
-	public double getTotalCoins() {
-		return this.wallet.getTotalCoins();
+	public long getTotalCoins() {
+		return this.wallets.getTotalCoins(this.id);
 	}
 	
 	/**
 	 * This method is for adding a given number of PQoins to the trader's wallet.
 	 * @param amount The number of PQoins to be added to the trader's wallet.
 	 */
-	public void addCoins(double amount) {
-		this.wallet.addCoins(amount);
+	public void addCoins(long amount) {
+		this.wallets.addCoins(this.id, amount);
 	}
 	
 }
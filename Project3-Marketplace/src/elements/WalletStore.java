@@ -0,0 +1,250 @@
+package elements;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class holds the wallets of all traders of a market. Each wallet contains dollars and PQoins, some of which may
+ * be blocked by active orders. Instead of one object per wallet, the store keeps one array per field, indexed by the
+ * ID of the trader, so operations that go through every wallet are simple linear scans over a few arrays. Dollars
+ * are kept in ticks and PQoins are kept in lots, as described in the FixedPoint class.
+ * @author Eren
+ *
+ */
+public class WalletStore {
+
+	/**
+	 * The amounts of unblocked dollars in the wallets.
+	 */
+	private long[] dollars;
+
+	/**
+	 * The amounts of unblocked PQoins in the wallets.
+	 */
+	private long[] coins;
+
+	/**
+	 * The amounts of blocked dollars in the wallets.
+	 */
+	private long[] blockedDollars;
+
+	/**
+	 * The amounts of blocked PQoins in the wallets.
+	 */
+	private long[] blockedCoins;
+
+	/**
+	 * The number of wallets in the store.
+	 */
+	private int size;
+
+	/**
+	 * Constructor for the WalletStore class.
+	 */
+	WalletStore() {
+		this.dollars = new long[16];
+		this.coins = new long[16];
+		this.blockedDollars = new long[16];
+		this.blockedCoins = new long[16];
+		this.size = 0;
+	}
+
+	/**
+	 * Getter method for the number of wallets in the store.
+	 * @return The number of wallets, which is also the number of traders.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * This method adds a new wallet with no blocked dollars or PQoins to the store.
+	 * @param dollars The initial amount of dollars in the wallet.
+	 * @param coins The initial amount of PQoins in the wallet.
+	 * @return ID of the new wallet, which is equal to the ID of its trader.
+	 */
+	int add(long dollars, long coins) {
+		if(this.size == this.dollars.length) {
+			int length = this.size * 2;
+			this.dollars = Arrays.copyOf(this.dollars, length);
+			this.coins = Arrays.copyOf(this.coins, length);
+			this.blockedDollars = Arrays.copyOf(this.blockedDollars, length);
+			this.blockedCoins = Arrays.copyOf(this.blockedCoins, length);
+		}
+		this.dollars[this.size] = dollars;
+		this.coins[this.size] = coins;
+		this.blockedDollars[this.size] = 0;
+		this.blockedCoins[this.size] = 0;
+		return this.size++;
+	}
+
+	/**
+	 * This method adds a wallet written by the write method to the store.
+	 * @param in The input the wallet is read from.
+	 * @return ID of the new wallet.
+	 * @throws IOException If the input can't be read.
+	 */
+	int read(DataInput in) throws IOException {
+		int id = this.add(in.readLong(), in.readLong());
+		this.blockedDollars[id] = in.readLong();
+		this.blockedCoins[id] = in.readLong();
+		return id;
+	}
+
+	/**
+	 * This method writes the free and blocked amounts of dollars and PQoins in a wallet.
+	 * @param id ID of the wallet.
+	 * @param out The output the wallet is written to.
+	 * @throws IOException If the output can't be written.
+	 */
+	void write(int id, DataOutput out) throws IOException {
+		out.writeLong(this.dollars[id]);
+		out.writeLong(this.coins[id]);
+		out.writeLong(this.blockedDollars[id]);
+		out.writeLong(this.blockedCoins[id]);
+	}
+
+	/**
+	 * This method is for blocking a given amount of dollars in a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of dollars to be blocked.
+	 * @return true if the operation has been carried out successfully, false otherwise.
+	 */
+	boolean blockDollars(int id, long amount) {
+		if(this.dollars[id] >= amount) {
+			this.dollars[id] -= amount;
+			this.blockedDollars[id] += amount;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * This method is for blocking a given amount of PQoins in a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of PQoins to be blocked.
+	 * @return true if the operation has been carried out successfully, false otherwise.
+	 */
+	boolean blockCoins(int id, long amount) {
+		if(this.coins[id] >= amount) {
+			this.coins[id] -= amount;
+			this.blockedCoins[id] += amount;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * This method is for unblocking a given amount of dollars in a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of dollars to be unblocked.
+	 */
+	void unblockDollars(int id, long amount) {
+		this.blockedDollars[id] -= amount;
+		this.dollars[id] += amount;
+	}
+
+	/**
+	 * This method is for unblocking a given amount of PQoins in a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of PQoins to be unblocked.
+	 */
+	void unblockCoins(int id, long amount) {
+		this.blockedCoins[id] -= amount;
+		this.coins[id] += amount;
+	}
+
+	/**
+	 * This method is for permanently removing a given amount of unblocked dollars from a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of dollars to be removed.
+	 * @return true if the operation has been carried out successfully, false otherwise.
+	 */
+	boolean withdrawDollars(int id, long amount) {
+		if(this.dollars[id] >= amount) {
+			this.dollars[id] -= amount;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * This method is for permanently removing a given amount of blocked dollars from a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of dollars to be removed.
+	 * @return true if the operation has been carried out successfully, false otherwise.
+	 */
+	boolean removeDollars(int id, long amount) {
+		if(this.blockedDollars[id] >= amount) {
+			this.blockedDollars[id] -= amount;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * This method is for permanently removing a given amount of blocked PQoins from a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of PQoins to be removed.
+	 * @return true if the operation has been carried out successfully, false otherwise.
+	 */
+	boolean removeCoins(int id, long amount) {
+		if(this.blockedCoins[id] >= amount) {
+			this.blockedCoins[id] -= amount;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * This method is for adding a given amount of dollars to a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of dollars to be added.
+	 */
+	void addDollars(int id, long amount) {
+		this.dollars[id] += amount;
+	}
+
+	/**
+	 * This method is for adding a given amount of PQoins to a wallet.
+	 * @param id ID of the wallet.
+	 * @param amount The amount of PQoins to be added.
+	 */
+	public void addCoins(int id, long amount) {
+		this.coins[id] += amount;
+	}
+
+	/**
+	 * This method returns the number of unblocked dollars in a wallet.
+	 * @param id ID of the wallet.
+	 * @return The number of dollars the trader can still spend.
+	 */
+	long getFreeDollars(int id) {
+		return this.dollars[id];
+	}
+
+	/**
+	 * This method returns the total number of dollars in a wallet, including blocked dollars.
+	 * @param id ID of the wallet.
+	 * @return Total number of dollars in the wallet.
+	 */
+	public long getTotalDollars(int id) {
+		return this.dollars[id] + this.blockedDollars[id];
+	}
+
+	/**
+	 * This method returns the total number of PQoins in a wallet, including blocked PQoins.
+	 * @param id ID of the wallet.
+	 * @return Total number of PQoins in the wallet.
+	 */
+	public long getTotalCoins(int id) {
+		return this.coins[id] + this.blockedCoins[id];
+	}
+}
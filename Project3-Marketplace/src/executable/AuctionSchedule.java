@@ -0,0 +1,111 @@
+package executable;
+
+import elements.Market;
+
+/**
+ * This class runs a market as a series of call auctions. The market is put into an auction when the schedule starts,
+ * and after every window of queries or every window of time, the books are uncrossed at the equilibrium price and a
+ * new window starts. A window that is measured in time only ends after a query, so it may last a little longer.
+ * <p>
+ * Time is never read from the clock by the schedule itself. The time of every query is given to the schedule before
+ * the query is executed, and it is logged together with the query, so that replaying the log after a crash ends the
+ * windows after exactly the same queries as the original run.
+ * @author Eren
+ *
+ */
+public class AuctionSchedule {
+
+	/**
+	 * The number of queries in a window, 0 if the windows are measured in time.
+	 */
+	private final int queries;
+
+	/**
+	 * The length of a window in milliseconds, 0 if the windows are measured in queries.
+	 */
+	private final long millis;
+
+	/**
+	 * The number of queries executed in the current window.
+	 */
+	private int queriesInWindow;
+
+	/**
+	 * The time the current window started, in milliseconds since the epoch.
+	 */
+	private long windowStart;
+
+	/**
+	 * The time of the current query, in milliseconds since the epoch.
+	 */
+	private long time;
+
+	/**
+	 * Constructor for the AuctionSchedule class. Exactly one of the parameters must be positive.
+	 * @param queries The number of queries in a window, 0 to measure the windows in time.
+	 * @param millis The length of a window in milliseconds, 0 to measure the windows in queries.
+	 */
+	public AuctionSchedule(int queries, long millis) {
+		if((queries > 0) == (millis > 0)) {
+			throw new IllegalArgumentException("An auction window must be either a number of queries or a time.");
+		}
+		this.queries = queries;
+		this.millis = millis;
+		this.queriesInWindow = 0;
+		this.windowStart = 0;
+		this.time = 0;
+	}
+
+	/**
+	 * This method puts the market into an auction and starts the current window.
+	 * @param market The market.
+	 * @param executed The number of queries executed before, so that windows measured in queries stay in the same
+	 * place when a run continues from a snapshot.
+	 * @param windowStart The time the current window started in milliseconds since the epoch, as saved in the snapshot
+	 * a run continues from, or -1 to start the first window at the time of the first query.
+	 */
+	public void start(Market market, long executed, long windowStart) {
+		market.startAuction();
+		this.queriesInWindow = this.queries > 0 ? (int) (executed % this.queries) : 0;
+		this.windowStart = windowStart;
+	}
+
+	/**
+	 * Getter method for the start of the current window, which is saved in snapshots.
+	 * @return The time the current window started, in milliseconds since the epoch.
+	 */
+	public long getWindowStart() {
+		return this.windowStart;
+	}
+
+	/**
+	 * Setter method for the time of the next query.
+	 * @param time The time the query was received, in milliseconds since the epoch.
+	 */
+	public void setTime(long time) {
+		this.time = time;
+		if(this.windowStart < 0) {
+			this.windowStart = time;
+		}
+	}
+
+	/**
+	 * This method is called after every query. If the current window is over, the books are uncrossed and a new
+	 * window starts.
+	 * @param market The market.
+	 */
+	public void queryExecuted(Market market) {
+		if(this.queries > 0) {
+			if(++this.queriesInWindow < this.queries) {
+				return;
+			}
+			this.queriesInWindow = 0;
+		} else {
+			if(this.time - this.windowStart < this.millis) {
+				return;
+			}
+			this.windowStart = this.time;
+		}
+		market.uncross();
+	}
+}
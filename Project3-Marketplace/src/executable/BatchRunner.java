@@ -0,0 +1,84 @@
+package executable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This program runs the marketplace over many query files in parallel. Each file is processed by its own Simulation
+ * with its own market, on a fixed pool of threads. The output of each input file is written to a file with the same
+ * name in the output directory.
+ * Usage: BatchRunner [number of threads] [output directory] [input files...]
+ * @author Eren
+ *
+ */
+public class BatchRunner {
+
+	public static void main(String[] args) {
+		if(args.length < 3) {
+			System.out.println("Usage: BatchRunner [number of threads] [output directory] [input files...]");
+			return;
+		}
+		int threads = Integer.parseInt(args[0]);
+		Path outputDirectory = Paths.get(args[1]);
+		try {
+			Files.createDirectories(outputDirectory);
+		} catch (IOException e) {
+			System.out.println("Output directory couldn't be created.");
+			e.printStackTrace();
+			return;
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Path> inputs = new ArrayList<Path>();
+		List<Future<Void>> results = new ArrayList<Future<Void>>();
+		for(int i = 2; i < args.length; i++) {
+			Path input = Paths.get(args[i]);
+			Path output = outputDirectory.resolve(input.getFileName());
+			inputs.add(input);
+			results.add(pool.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					runSimulation(input, output);
+					return null;
+				}
+			}));
+		}
+		pool.shutdown();
+
+		int failed = 0;
+		for(int i = 0; i < results.size(); i++) {
+			try {
+				results.get(i).get();
+			} catch (ExecutionException e) {
+				failed++;
+				System.out.println("Simulation of " + inputs.get(i) + " failed:");
+				e.getCause().printStackTrace();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		System.out.println((results.size() - failed) + " of " + results.size() + " simulations finished.");
+	}
+
+	/**
+	 * This method processes a single query file.
+	 * @param input The path of the query file.
+	 * @param output The path of the output file.
+	 * @throws IOException If any of the files can't be read or written.
+	 */
+	private static void runSimulation(Path input, Path output) throws IOException {
+		try(QuerySource in = QuerySource.open(input); ReportWriter out = new ReportWriter(output)) {
+			new Simulation(in, out, null).run();
+		}
+	}
+}
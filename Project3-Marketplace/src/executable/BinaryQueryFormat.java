@@ -0,0 +1,177 @@
+package executable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class describes the binary format of query files, which holds the same information as the text format but can
+ * be read without tokenizing or parsing decimal numbers.
+ * <p>
+ * A binary file starts with the 4 bytes of MAGIC, followed by the header: the seed (8 bytes), the fee, the number of
+ * traders and the number of queries (4 bytes each), and the dollars and PQoins of every trader (8 bytes each, in
+ * ticks and lots). All numbers of the header are big-endian.
+ * <p>
+ * Each query is a record of one tag byte followed by the fields the opcode uses, in the same order as in the text
+ * format. The tag is the index of the opcode in OPCODES, or OTHER_OPCODE followed by the opcode itself for opcodes
+ * that aren't listed. Every field is a zigzag-encoded varint: its value is mapped to a non-negative number, so that
+ * small negative values stay small, and written 7 bits per byte, lowest bits first, with the highest bit of every
+ * byte but the last one set. Prices and amounts are fixed-point values in ticks and lots, so a typical order takes 10
+ * to 15 bytes.
+ * @author Eren
+ *
+ */
+public final class BinaryQueryFormat {
+
+	/**
+	 * The first 4 bytes of every binary query file, "PQB1" in ASCII. Text files always start with a digit or a sign.
+	 */
+	public static final int MAGIC = 0x50514231;
+
+	/**
+	 * The largest size of a query record in bytes.
+	 */
+	public static final int MAX_RECORD_SIZE = 64;
+
+	/**
+	 * The opcodes that have their own tag, in the order of their tags.
+	 */
+	private static final int[] OPCODES = {10, 20, 11, 21, 12, 22, 13, 23, 30, 31, 3, 4, 5, 777, 666, 500, 501, 502, 505,
+		555, 40, 41, 600};
+
+	/**
+	 * The fields used by the opcode of each tag, as returned by Query.fields.
+	 */
+	private static final int[] FIELDS = new int[OPCODES.length];
+
+	/**
+	 * The tag of the opcodes that aren't in OPCODES.
+	 */
+	private static final int OTHER_OPCODE = 255;
+
+	static {
+		for(int i = 0; i < OPCODES.length; i++) {
+			FIELDS[i] = Query.fields(OPCODES[i]);
+		}
+	}
+
+	/**
+	 * Constructor for the BinaryQueryFormat class. It is private, since the class only holds constants and static
+	 * methods.
+	 */
+	private BinaryQueryFormat() {
+	}
+
+	/**
+	 * This method checks whether a file is a binary query file, by looking at its first bytes.
+	 * @param path The path of the file.
+	 * @return true if the file starts with MAGIC, false otherwise.
+	 * @throws IOException If the file can't be read.
+	 */
+	public static boolean isBinary(Path path) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while(magic.hasRemaining() && channel.read(magic) > 0) {
+				// Keep reading until the magic is complete or the end of the file is reached
+			}
+			return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * This method writes a query as a record.
+	 * @param out The buffer, which must have at least MAX_RECORD_SIZE bytes remaining.
+	 * @param query The query.
+	 */
+	static void write(ByteBuffer out, Query query) {
+		int tag = 0;
+		while(tag < OPCODES.length && OPCODES[tag] != query.opcode) {
+			tag++;
+		}
+		if(tag < OPCODES.length) {
+			out.put((byte) tag);
+		} else {
+			out.put((byte) OTHER_OPCODE);
+			BinaryQueryFormat.writeVarLong(out, query.opcode);
+		}
+		int fields = Query.fields(query.opcode);
+		if((fields & Query.TRADER_FIELD) != 0) {
+			BinaryQueryFormat.writeVarLong(out, query.traderID);
+		}
+		if((fields & Query.ORDER_FIELD) != 0) {
+			BinaryQueryFormat.writeVarLong(out, query.orderID);
+		}
+		if((fields & Query.COUNT_FIELD) != 0) {
+			BinaryQueryFormat.writeVarLong(out, query.count);
+		}
+		if((fields & Query.STOP_PRICE_FIELD) != 0) {
+			BinaryQueryFormat.writeVarLong(out, query.stopPrice);
+		}
+		if((fields & Query.PRICE_FIELD) != 0) {
+			BinaryQueryFormat.writeVarLong(out, query.price);
+		}
+		if((fields & Query.AMOUNT_FIELD) != 0) {
+			BinaryQueryFormat.writeVarLong(out, query.amount);
+		}
+	}
+
+	/**
+	 * This method reads a record into a query. The fields the opcode doesn't use are set to 0.
+	 * @param in The buffer, which must hold the whole record.
+	 * @param query The query the record is read into.
+	 */
+	static void read(ByteBuffer in, Query query) {
+		int tag = in.get() & 0xFF;
+		int opcode;
+		int fields;
+		if(tag < OPCODES.length) {
+			opcode = OPCODES[tag];
+			fields = FIELDS[tag];
+		} else if(tag == OTHER_OPCODE) {
+			opcode = Math.toIntExact(BinaryQueryFormat.readVarLong(in));
+			fields = Query.fields(opcode);
+		} else {
+			throw new IllegalStateException("Unknown tag in the query file: " + tag);
+		}
+		int traderID = (fields & Query.TRADER_FIELD) != 0 ? Math.toIntExact(BinaryQueryFormat.readVarLong(in)) : 0;
+		long orderID = (fields & Query.ORDER_FIELD) != 0 ? BinaryQueryFormat.readVarLong(in) : 0;
+		long count = (fields & Query.COUNT_FIELD) != 0 ? BinaryQueryFormat.readVarLong(in) : 0;
+		long stopPrice = (fields & Query.STOP_PRICE_FIELD) != 0 ? BinaryQueryFormat.readVarLong(in) : 0;
+		long price = (fields & Query.PRICE_FIELD) != 0 ? BinaryQueryFormat.readVarLong(in) : 0;
+		long amount = (fields & Query.AMOUNT_FIELD) != 0 ? BinaryQueryFormat.readVarLong(in) : 0;
+		query.set(opcode, traderID, orderID, price, stopPrice, amount, count);
+	}
+
+	/**
+	 * This method writes a number as a zigzag-encoded varint.
+	 * @param out The buffer.
+	 * @param value The number.
+	 */
+	private static void writeVarLong(ByteBuffer out, long value) {
+		long bits = (value << 1) ^ (value >> 63);
+		while((bits & ~0x7FL) != 0) {
+			out.put((byte) (bits | 0x80));
+			bits >>>= 7;
+		}
+		out.put((byte) bits);
+	}
+
+	/**
+	 * This method reads a zigzag-encoded varint.
+	 * @param in The buffer.
+	 * @return The number.
+	 */
+	private static long readVarLong(ByteBuffer in) {
+		long bits = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			byte b = in.get();
+			bits |= (long) (b & 0x7F) << shift;
+			if(b >= 0) {
+				return (bits >>> 1) ^ -(bits & 1);
+			}
+		}
+		throw new IllegalStateException("Malformed number in the query file");
+	}
+}
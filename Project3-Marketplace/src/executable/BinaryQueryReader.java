@@ -0,0 +1,171 @@
+package executable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads a binary query file, in the format described in the BinaryQueryFormat class. The file is mapped
+ * into memory instead of being copied into a buffer, so the records are decoded straight from the page cache. Files
+ * larger than a single mapping are mapped one window at a time, and the next window starts at the first record that
+ * doesn't fit completely into the current one.
+ * @author Eren
+ *
+ */
+public class BinaryQueryReader implements QuerySource {
+
+	/**
+	 * The size of a mapped window of the file in bytes.
+	 */
+	private static final int WINDOW_SIZE = 1 << 30;
+
+	/**
+	 * The channel of the query file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The size of the query file in bytes.
+	 */
+	private final long size;
+
+	/**
+	 * The mapped window of the file.
+	 */
+	private MappedByteBuffer buffer;
+
+	/**
+	 * The position in the file of the first byte of the window.
+	 */
+	private long bufferStart;
+
+	/**
+	 * Constructor for the BinaryQueryReader class. The reader is placed right after the magic number, at the start of
+	 * the header.
+	 * @param path The path of the query file.
+	 * @throws IOException If the file can't be opened or mapped, or it isn't a binary query file.
+	 */
+	public BinaryQueryReader(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = this.channel.size();
+		this.map(0);
+		if(this.size < 4 || this.buffer.getInt() != BinaryQueryFormat.MAGIC) {
+			this.channel.close();
+			throw new IOException("Not a binary query file: " + path);
+		}
+	}
+
+	/**
+	 * This method maps the window of the file that starts at the given position.
+	 * @param offset The position of the first byte of the window.
+	 */
+	private void map(long offset) {
+		try {
+			this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, offset,
+					Math.min(WINDOW_SIZE, this.size - offset));
+			this.bufferStart = offset;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Query file couldn't be mapped", e);
+		}
+	}
+
+	/**
+	 * This method makes sure that the given number of bytes can be read from the window, by mapping the next window
+	 * if needed. Fewer bytes are only left at the end of the file.
+	 * @param bytes The number of bytes.
+	 */
+	private void ensure(int bytes) {
+		if(this.buffer.remaining() < bytes && this.bufferStart + this.buffer.limit() < this.size) {
+			this.map(this.offset());
+		}
+	}
+
+	/**
+	 * This method reads the next number of the header, which takes 8 bytes.
+	 */
+	@Override
+	public long nextLong() {
+		this.ensure(Long.BYTES);
+		try {
+			return this.buffer.getLong();
+		} catch (BufferUnderflowException e) {
+			throw new IllegalStateException("Unexpected end of the query file");
+		}
+	}
+
+	/**
+	 * This method reads the next number of the header, which takes 4 bytes.
+	 */
+	@Override
+	public int nextInt() {
+		this.ensure(Integer.BYTES);
+		try {
+			return this.buffer.getInt();
+		} catch (BufferUnderflowException e) {
+			throw new IllegalStateException("Unexpected end of the query file");
+		}
+	}
+
+	/**
+	 * This method reads the next number of the header, which takes 8 bytes and is already a fixed-point value.
+	 */
+	@Override
+	public long nextFixed() {
+		return this.nextLong();
+	}
+
+	/**
+	 * This method does nothing, since binary files have no lines.
+	 */
+	@Override
+	public void skipLine() {
+	}
+
+	/**
+	 * This method reads the next record of the file.
+	 */
+	@Override
+	public void nextQuery(Query query) {
+		this.ensure(BinaryQueryFormat.MAX_RECORD_SIZE);
+		try {
+			BinaryQueryFormat.read(this.buffer, query);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalStateException("Unexpected end of the query file");
+		}
+	}
+
+	/**
+	 * Getter method for the position of the reader in the file.
+	 * @return The position of the next unread byte in the file.
+	 */
+	@Override
+	public long offset() {
+		return this.bufferStart + this.buffer.position();
+	}
+
+	/**
+	 * This method moves the reader to the given position in the file. If the position is outside the current window,
+	 * the window that starts at the position is mapped.
+	 * @param offset The position of the next byte to be read, as returned by offset.
+	 */
+	@Override
+	public void seek(long offset) {
+		if(offset >= this.bufferStart && offset <= this.bufferStart + this.buffer.limit()) {
+			this.buffer.position((int) (offset - this.bufferStart));
+		} else {
+			this.map(offset);
+		}
+	}
+
+	/**
+	 * This method closes the query file. The mapped window stays valid until it is garbage collected.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
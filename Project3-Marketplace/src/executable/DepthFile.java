@@ -0,0 +1,65 @@
+package executable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * This class writes the level 2 market data feed into a text file, one message per line. Each line starts with the
+ * sequence number and the type of the message, which is one of SNAPSHOT, LEVEL, END, NEW, CHANGE and DELETE. The
+ * level messages continue with the side (BUY or SELL) and the price, and all of them except DELETE end with the
+ * volume and the number of orders of the level. Prices and volumes are printed with 5 decimals, like the other
+ * outputs of the program.
+ * @author Eren
+ *
+ */
+public class DepthFile implements MarketDataSink {
+
+	/**
+	 * Names of the message types, indexed by type.
+	 */
+	private static final String[] TYPE_NAMES = {"SNAPSHOT", "LEVEL", "END", "NEW", "CHANGE", "DELETE"};
+
+	/**
+	 * The writer of the file.
+	 */
+	private final ReportWriter out;
+
+	/**
+	 * Constructor for the DepthFile class. If the file already exists, it is overwritten.
+	 * @param path The path of the file.
+	 * @throws IOException If the file can't be created.
+	 */
+	public DepthFile(Path path) throws IOException {
+		this.out = new ReportWriter(path);
+	}
+
+	/**
+	 * This method writes a message as a line of the file.
+	 * @param update The message.
+	 */
+	@Override
+	public void publish(DepthUpdate update) {
+		this.out.print(update.sequence);
+		this.out.print(' ');
+		this.out.print(TYPE_NAMES[update.type]);
+		if(update.type != DepthUpdate.SNAPSHOT_START && update.type != DepthUpdate.SNAPSHOT_END) {
+			this.out.print(update.buying ? " BUY " : " SELL ");
+			this.out.printFixed(update.price);
+			if(update.type != DepthUpdate.REMOVED_LEVEL) {
+				this.out.print(' ');
+				this.out.printFixed(update.volume);
+				this.out.print(' ');
+				this.out.print(update.orders);
+			}
+		}
+		this.out.println();
+	}
+
+	/**
+	 * This method flushes the buffered messages and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.out.close();
+	}
+}
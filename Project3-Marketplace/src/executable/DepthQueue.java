@@ -0,0 +1,70 @@
+package executable;
+
+/**
+ * This class passes the level 2 market data feed to a consumer thread in the same process, through a ring buffer of
+ * preallocated messages. The publishing thread fills the ring through the publish method, and the consumer takes the
+ * messages one by one, reads them and releases them. The consumer sees every message, in order; if it falls behind,
+ * the publishing thread waits for it.
+ * @author Eren
+ *
+ */
+public class DepthQueue implements MarketDataSink {
+
+	/**
+	 * The type of the message that marks the end of the feed.
+	 */
+	private static final int END = -1;
+
+	/**
+	 * The ring the messages are passed through.
+	 */
+	private final SpscRing<DepthUpdate> ring;
+
+	/**
+	 * Constructor for the DepthQueue class.
+	 * @param capacity The number of messages the ring can hold.
+	 */
+	public DepthQueue(int capacity) {
+		this.ring = new SpscRing<DepthUpdate>(capacity, DepthUpdate::new);
+	}
+
+	/**
+	 * This method puts a copy of a message into the ring. It is called by the publishing thread.
+	 * @param update The message.
+	 */
+	@Override
+	public void publish(DepthUpdate update) {
+		this.ring.claim().copy(update);
+		this.ring.publish();
+	}
+
+	/**
+	 * This method is called by the consumer to get the next message, waiting until one is published. The message
+	 * must be released before the next one is taken.
+	 * @return The next message, null if the feed has ended.
+	 */
+	public DepthUpdate take() {
+		DepthUpdate update = this.ring.take();
+		if(update.type == END) {
+			this.ring.release();
+			return null;
+		}
+		return update;
+	}
+
+	/**
+	 * This method is called by the consumer to give the last taken message back to the ring.
+	 */
+	public void release() {
+		this.ring.release();
+	}
+
+	/**
+	 * This method marks the end of the feed. It is called by the publishing thread after its last message.
+	 */
+	@Override
+	public void close() {
+		this.ring.claim().set(0, END, false, 0, 0, 0);
+		this.ring.publish();
+	}
+}
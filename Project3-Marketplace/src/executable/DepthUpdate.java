@@ -0,0 +1,133 @@
+package executable;
+
+/**
+ * This class represents a single message of the level 2 market data feed. Every message has a sequence number, which
+ * starts from 1 and grows by exactly 1 with every message, so a consumer can tell if it has missed any messages. The
+ * fields that are used depend on the type of the message:
+ * <ul>
+ * <li>SNAPSHOT_START, SNAPSHOT_END: none. They enclose a full snapshot of the depth.</li>
+ * <li>SNAPSHOT_LEVEL, NEW_LEVEL, CHANGED_LEVEL: side, price, volume and number of orders</li>
+ * <li>REMOVED_LEVEL: side and price</li>
+ * </ul>
+ * A consumer that starts from a snapshot applies the incremental messages that follow it, and the levels it holds are
+ * then always the levels of the market. DepthUpdate objects are mutable, so the same object can be reused for every
+ * message.
+ * @author Eren
+ *
+ */
+public class DepthUpdate {
+
+	/**
+	 * Types of the messages.
+	 */
+	public static final int SNAPSHOT_START = 0;
+	public static final int SNAPSHOT_LEVEL = 1;
+	public static final int SNAPSHOT_END = 2;
+	public static final int NEW_LEVEL = 3;
+	public static final int CHANGED_LEVEL = 4;
+	public static final int REMOVED_LEVEL = 5;
+
+	/**
+	 * The sequence number of the message.
+	 */
+	long sequence;
+
+	/**
+	 * The type of the message.
+	 */
+	int type;
+
+	/**
+	 * Whether the level holds buying orders.
+	 */
+	boolean buying;
+
+	/**
+	 * The price of the level, in ticks.
+	 */
+	long price;
+
+	/**
+	 * The total amount of PQoins in the level, in lots.
+	 */
+	long volume;
+
+	/**
+	 * The number of orders in the level.
+	 */
+	int orders;
+
+	/**
+	 * This method sets all fields of the message. Unused fields should be 0 or false.
+	 * @param sequence The sequence number of the message.
+	 * @param type The type of the message.
+	 * @param buying Whether the level holds buying orders.
+	 * @param price The price of the level, in ticks.
+	 * @param volume The total amount of PQoins in the level, in lots.
+	 * @param orders The number of orders in the level.
+	 */
+	public void set(long sequence, int type, boolean buying, long price, long volume, int orders) {
+		this.sequence = sequence;
+		this.type = type;
+		this.buying = buying;
+		this.price = price;
+		this.volume = volume;
+		this.orders = orders;
+	}
+
+	/**
+	 * This method copies all fields of another message into this object.
+	 * @param other The message to be copied.
+	 */
+	public void copy(DepthUpdate other) {
+		this.set(other.sequence, other.type, other.buying, other.price, other.volume, other.orders);
+	}
+
+	/**
+	 * Getter method for the sequence number of the message.
+	 * @return The sequence number of the message.
+	 */
+	public long getSequence() {
+		return this.sequence;
+	}
+
+	/**
+	 * Getter method for the type of the message.
+	 * @return The type of the message.
+	 */
+	public int getType() {
+		return this.type;
+	}
+
+	/**
+	 * Getter method for the side of the level.
+	 * @return true if the level holds buying orders, false if it holds selling orders.
+	 */
+	public boolean isBuying() {
+		return this.buying;
+	}
+
+	/**
+	 * Getter method for the price of the level.
+	 * @return The price of the level, in ticks.
+	 */
+	public long getPrice() {
+		return this.price;
+	}
+
+	/**
+	 * Getter method for the volume of the level.
+	 * @return The total amount of PQoins in the level, in lots.
+	 */
+	public long getVolume() {
+		return this.volume;
+	}
+
+	/**
+	 * Getter method for the number of orders in the level.
+	 * @return The number of orders in the level.
+	 */
+	public int getOrders() {
+		return this.orders;
+	}
+}
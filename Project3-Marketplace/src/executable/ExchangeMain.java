@@ -0,0 +1,153 @@
+package executable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import elements.Exchange;
+
+/**
+ * This program runs a multi-instrument exchange over a single query file. The instruments are processed in parallel
+ * by the shards of an Exchange, and the output of each instrument is written to its own file named
+ * "instrument_[ID].txt" in the output directory.
+ * <p>
+ * The query file has the same structure as the one read by Main, with the following differences:
+ * <ul>
+ * <li>The second line is "[fee] [number of traders] [number of queries] [number of instruments] [number of
+ * shards]".</li>
+ * <li>Each trader line contains a dollar amount and a PQoin amount for every instrument, one pair after the
+ * other.</li>
+ * <li>Each query line starts with the ID of the instrument it belongs to, followed by an ordinary query.</li>
+ * </ul>
+ * Usage: ExchangeMain [input file] [output directory]
+ * @author Eren
+ *
+ */
+public class ExchangeMain {
+
+	/**
+	 * The number of queries of an instrument that are collected before they are handed to its shard.
+	 */
+	private static final int BATCH_SIZE = 1024;
+
+	public static void main(String[] args) {
+		QueryReader in;
+		try {
+			in = new QueryReader(Paths.get(args[0]));
+		} catch (IOException e) {
+			System.out.println("Input file not found.");
+			e.printStackTrace();
+			return;
+		}
+
+		Path outputDirectory = Paths.get(args[1]);
+		try {
+			Files.createDirectories(outputDirectory);
+		} catch (IOException e) {
+			System.out.println("Output directory couldn't be created.");
+			e.printStackTrace();
+			return;
+		}
+
+		long seed = in.nextLong();
+		in.skipLine();
+		int marketFee = in.nextInt();
+		int numOfUsers = in.nextInt();
+		int numOfQueries = in.nextInt();
+		int numOfInstruments = in.nextInt();
+		int numOfShards = in.nextInt();
+		in.skipLine();
+
+		Exchange exchange = new Exchange(marketFee, numOfInstruments, numOfShards);
+		long[] dollars = new long[numOfInstruments];
+		long[] coins = new long[numOfInstruments];
+		for(int i = 0; i < numOfUsers; i++) {
+			for(int j = 0; j < numOfInstruments; j++) {
+				dollars[j] = in.nextFixed();
+				coins[j] = in.nextFixed();
+			}
+			in.skipLine();
+			exchange.addTrader(dollars, coins);
+		}
+
+		ReportWriter[] outs = new ReportWriter[numOfInstruments];
+		QueryExecutor[] executors = new QueryExecutor[numOfInstruments];
+		try {
+			for(int i = 0; i < numOfInstruments; i++) {
+				outs[i] = new ReportWriter(outputDirectory.resolve("instrument_" + i + ".txt"));
+				executors[i] = new QueryExecutor(exchange.getMarket(i), new Random(seed + i),
+						new TextReporter(outs[i]));
+			}
+		} catch (IOException e) {
+			System.out.println("Output file couldn't be created.");
+			e.printStackTrace();
+			return;
+		}
+
+		Query[][] batches = new Query[numOfInstruments][];
+		int[] batchSizes = new int[numOfInstruments];
+		for(int i = 0; i < numOfQueries; i++) {
+			int instrument = in.nextInt();
+			if(batches[instrument] == null) {
+				batches[instrument] = newBatch();
+			}
+			batches[instrument][batchSizes[instrument]++].read(in);
+			if(batchSizes[instrument] == BATCH_SIZE) {
+				submitBatch(exchange, instrument, executors[instrument], batches[instrument], BATCH_SIZE);
+				batches[instrument] = null;
+				batchSizes[instrument] = 0;
+			}
+		}
+		for(int i = 0; i < numOfInstruments; i++) {
+			if(batchSizes[i] > 0) {
+				submitBatch(exchange, i, executors[i], batches[i], batchSizes[i]);
+			}
+		}
+
+		try {
+			exchange.shutdown();
+			in.close();
+			for(ReportWriter out : outs) {
+				out.close();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * This method creates an empty batch of queries.
+	 * @return The new batch.
+	 */
+	private static Query[] newBatch() {
+		Query[] batch = new Query[BATCH_SIZE];
+		for(int i = 0; i < BATCH_SIZE; i++) {
+			batch[i] = new Query();
+		}
+		return batch;
+	}
+
+	/**
+	 * This method hands a batch of queries of an instrument to the shard of the instrument.
+	 * @param exchange The exchange.
+	 * @param instrument ID of the instrument.
+	 * @param executor The query executor of the instrument.
+	 * @param batch The queries.
+	 * @param size The number of queries in the batch.
+	 */
+	private static void submitBatch(Exchange exchange, int instrument, QueryExecutor executor, Query[] batch,
+			int size) {
+		exchange.submit(instrument, new Runnable() {
+			@Override
+			public void run() {
+				for(int i = 0; i < size; i++) {
+					executor.execute(batch[i]);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,807 @@
+package executable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import elements.Market;
+import elements.TradeListener;
+
+/**
+ * This class is a TCP order-entry gateway in front of a market. Clients send requests in the binary protocol
+ * described in the GatewayProtocol class, and get back the fills, reports and acknowledgement or rejection of every
+ * request.
+ * <p>
+ * The gateway runs on two threads. The I/O thread owns all connections: it accepts them, reads and decodes their
+ * requests and writes their responses, using a single non-blocking selector. The sequencer thread owns the market:
+ * it executes the requests one by one in the order they were read, so the market is never touched by more than one
+ * thread, and the order of the requests is the only thing that decides the results. The two threads only communicate
+ * through two single-producer single-consumer rings, one for the requests and one for the responses. After each
+ * request, the sequencer wakes up the selector only if the I/O thread is about to sleep in it. A request whose
+ * responses don't fit into the response ring, such as #555 with many traders, also wakes it up whenever the ring is
+ * full.
+ * <p>
+ * When the request ring is full, the I/O thread stops reading from the connections whose requests don't fit, so the
+ * clients are slowed down by TCP flow control instead of the gateway buffering without limit. A client that doesn't
+ * read its responses is disconnected once its output buffer reaches its largest size.
+ * @author Eren
+ *
+ */
+public class Gateway implements Closeable {
+
+	/**
+	 * The number of slots in each of the two rings.
+	 */
+	private static final int RING_SIZE = 16384;
+
+	/**
+	 * The size of the input buffer of a connection in bytes.
+	 */
+	private static final int INPUT_BUFFER_SIZE = GatewayProtocol.REQUEST_SIZE * 1024;
+
+	/**
+	 * The initial size of the output buffer of a connection in bytes.
+	 */
+	private static final int OUTPUT_BUFFER_SIZE = GatewayProtocol.RESPONSE_SIZE * 1024;
+
+	/**
+	 * The largest size of the output buffer of a connection in bytes.
+	 */
+	private static final int MAX_OUTPUT_BUFFER_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * This class represents a single client connection. It is only used by the I/O thread, apart from the sequencer
+	 * passing it around as the destination of the responses.
+	 * @author Eren
+	 *
+	 */
+	private static class Connection {
+
+		/**
+		 * The channel of the connection.
+		 */
+		final SocketChannel channel;
+
+		/**
+		 * The key of the channel in the selector.
+		 */
+		final SelectionKey key;
+
+		/**
+		 * The buffer the bytes of the requests are read into.
+		 */
+		final ByteBuffer input;
+
+		/**
+		 * The buffer the responses are written into before they are sent.
+		 */
+		ByteBuffer output;
+
+		/**
+		 * Whether the connection has complete requests in its input buffer that didn't fit into the request ring.
+		 */
+		boolean stalled;
+
+		/**
+		 * Whether responses have been written into the output buffer since it was last sent.
+		 */
+		boolean dirty;
+
+		/**
+		 * Whether the connection has been closed.
+		 */
+		boolean closed;
+
+		/**
+		 * Constructor for the Connection class.
+		 * @param channel The channel of the connection.
+		 * @param key The key of the channel in the selector.
+		 */
+		Connection(SocketChannel channel, SelectionKey key) {
+			this.channel = channel;
+			this.key = key;
+			this.input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+			this.output = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+			this.stalled = false;
+			this.dirty = false;
+			this.closed = false;
+		}
+	}
+
+	/**
+	 * This class represents a slot of the request ring. A slot without a connection tells the sequencer to stop.
+	 * @author Eren
+	 *
+	 */
+	private static class Request {
+
+		/**
+		 * The connection the request has been read from.
+		 */
+		Connection connection;
+
+		/**
+		 * The request ID chosen by the client.
+		 */
+		long requestID;
+
+		/**
+		 * The query of the request.
+		 */
+		final Query query = new Query();
+	}
+
+	/**
+	 * This class represents a slot of the response ring. A slot without a connection tells the I/O thread that the
+	 * sequencer has stopped.
+	 * @author Eren
+	 *
+	 */
+	private static class Response {
+
+		/**
+		 * The connection the response is sent to.
+		 */
+		Connection connection;
+
+		/**
+		 * Type of the response.
+		 */
+		int type;
+
+		/**
+		 * The code of the response.
+		 */
+		int code;
+
+		/**
+		 * The request ID of the request the response belongs to.
+		 */
+		long requestID;
+
+		/**
+		 * The values of the response.
+		 */
+		final long[] values = new long[GatewayProtocol.VALUES];
+	}
+
+	/**
+	 * This class turns the reports and the fills of the market into responses to the current request.
+	 * @author Eren
+	 *
+	 */
+	private class Responder implements Reporter, TradeListener {
+
+		/**
+		 * This method sends the report to the client of the current request.
+		 */
+		@Override
+		public void reportTrader(int traderID, long dollars, long coins) {
+			Response response = Gateway.this.claimResponse(GatewayProtocol.TRADER, traderID);
+			response.values[0] = dollars;
+			response.values[1] = coins;
+			Gateway.this.responses.publish();
+		}
+
+		/**
+		 * This method sends the report to the client of the current request.
+		 */
+		@Override
+		public void reportMarketSize(long dollars, long coins) {
+			Response response = Gateway.this.claimResponse(GatewayProtocol.MARKET_SIZE, 0);
+			response.values[0] = dollars;
+			response.values[1] = coins;
+			Gateway.this.responses.publish();
+		}
+
+		/**
+		 * This method sends the report to the client of the current request.
+		 */
+		@Override
+		public void reportSuccessfulTransactions(int count) {
+			Gateway.this.claimResponse(GatewayProtocol.SUCCESSFUL_TRANSACTIONS, count);
+			Gateway.this.responses.publish();
+		}
+
+		/**
+		 * This method sends the report to the client of the current request.
+		 */
+		@Override
+		public void reportInvalidQueries(int count) {
+			Gateway.this.claimResponse(GatewayProtocol.INVALID_QUERIES, count);
+			Gateway.this.responses.publish();
+		}
+
+		/**
+		 * This method sends the report to the client of the current request.
+		 */
+		@Override
+		public void reportPrices(long buyingPrice, long sellingPrice, long average) {
+			Response response = Gateway.this.claimResponse(GatewayProtocol.PRICES, 0);
+			response.values[0] = buyingPrice;
+			response.values[1] = sellingPrice;
+			response.values[2] = average;
+			Gateway.this.responses.publish();
+		}
+
+		/**
+		 * This method sends the report to the client of the current request.
+		 */
+		@Override
+		public void reportCandle(long index, long open, long high, long low, long close, long volume, long vwap) {
+			Response response = Gateway.this.claimResponse(GatewayProtocol.CANDLE, 0);
+			response.values[0] = index;
+			response.values[1] = open;
+			response.values[2] = high;
+			response.values[3] = low;
+			response.values[4] = close;
+			response.values[5] = volume;
+			response.values[6] = vwap;
+			Gateway.this.responses.publish();
+		}
+
+		/**
+		 * This method sends the fill to the client of the current request, which has caused it.
+		 */
+		@Override
+		public void tradeExecuted(int sellerID, int buyerID, long amount, long price) {
+			Response response = Gateway.this.claimResponse(GatewayProtocol.FILL, Gateway.this.current.query.opcode);
+			response.values[0] = sellerID;
+			response.values[1] = buyerID;
+			response.values[2] = amount;
+			response.values[3] = price;
+			Gateway.this.responses.publish();
+		}
+	}
+
+	/**
+	 * The market the requests are executed on. It is only used by the sequencer thread.
+	 */
+	private final Market market;
+
+	/**
+	 * The executor of the requests. It is only used by the sequencer thread.
+	 */
+	private final QueryExecutor executor;
+
+	/**
+	 * The selector of the I/O thread.
+	 */
+	private final Selector selector;
+
+	/**
+	 * The channel the connections are accepted from.
+	 */
+	private final ServerSocketChannel server;
+
+	/**
+	 * The ring the requests are passed from the I/O thread to the sequencer through.
+	 */
+	private final SpscRing<Request> requests;
+
+	/**
+	 * The ring the responses are passed from the sequencer to the I/O thread through.
+	 */
+	private final SpscRing<Response> responses;
+
+	/**
+	 * Whether the I/O thread is about to sleep in the selector, and has to be woken up for new responses.
+	 */
+	private final AtomicBoolean selecting;
+
+	/**
+	 * The connections whose requests didn't fit into the request ring. They are only used by the I/O thread.
+	 */
+	private final ArrayList<Connection> stalledConnections;
+
+	/**
+	 * The connections with responses that haven't been sent yet. They are only used by the I/O thread.
+	 */
+	private final ArrayList<Connection> dirtyConnections;
+
+	/**
+	 * Whether the gateway is running. It is set to false to stop the threads.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * The first failure of either thread, null if there is none.
+	 */
+	private volatile Throwable failure;
+
+	/**
+	 * The request being executed by the sequencer.
+	 */
+	private Request current;
+
+	/**
+	 * The I/O thread, null if the gateway hasn't been started.
+	 */
+	private Thread ioThread;
+
+	/**
+	 * The sequencer thread, null if the gateway hasn't been started.
+	 */
+	private Thread sequencer;
+
+	/**
+	 * Constructor for the Gateway class. The gateway starts listening immediately, but the connections are only
+	 * served after the start method is called. From then on, the market must not be used by any other thread.
+	 * @param market The market the requests are executed on. Its trade listener is replaced by the gateway.
+	 * @param random The random number generator used during order #777.
+	 * @param address The address the gateway listens on. Port 0 picks a free port.
+	 * @throws IOException If the address can't be bound.
+	 */
+	public Gateway(Market market, Random random, InetSocketAddress address) throws IOException {
+		Responder responder = new Responder();
+		this.market = market;
+		this.market.setTradeListener(responder);
+		this.executor = new QueryExecutor(market, random, responder);
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		this.server.bind(address);
+		this.server.configureBlocking(false);
+		this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+		this.requests = new SpscRing<Request>(RING_SIZE, Request::new);
+		this.responses = new SpscRing<Response>(RING_SIZE, Response::new);
+		this.selecting = new AtomicBoolean();
+		this.stalledConnections = new ArrayList<Connection>();
+		this.dirtyConnections = new ArrayList<Connection>();
+		this.running = false;
+		this.failure = null;
+		this.current = null;
+		this.ioThread = null;
+		this.sequencer = null;
+	}
+
+	/**
+	 * Getter method for the port the gateway listens on.
+	 * @return The local port of the gateway.
+	 */
+	public int getPort() {
+		return this.server.socket().getLocalPort();
+	}
+
+	/**
+	 * This method starts the I/O thread and the sequencer thread.
+	 */
+	public void start() {
+		this.running = true;
+		this.sequencer = new Thread(this::runSequencer, "gateway-sequencer");
+		this.ioThread = new Thread(this::runIO, "gateway-io");
+		this.sequencer.start();
+		this.ioThread.start();
+	}
+
+	/**
+	 * This method stops the gateway and closes all connections. The requests that have been read but not executed
+	 * yet are dropped.
+	 * @throws IOException If either thread has failed, or the channels can't be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.running = false;
+		if(this.ioThread == null) {
+			this.server.close();
+			this.selector.close();
+			return;
+		}
+		this.selector.wakeup();
+		try {
+			this.ioThread.join();
+			this.sequencer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if(this.failure != null) {
+			throw new IOException("The gateway has failed.", this.failure);
+		}
+	}
+
+	/**
+	 * This method is the body of the I/O thread. It alternates between sending the responses produced by the
+	 * sequencer, resuming the stalled connections and serving the ready channels, until the gateway is stopped. At
+	 * the end, it stops the sequencer and closes all channels.
+	 */
+	private void runIO() {
+		try {
+			while(this.running) {
+				this.drainResponses();
+				this.resumeStalled();
+				this.selecting.set(true);
+				if(this.responses.poll() != null) {
+					this.selector.selectNow();
+				} else if(!this.stalledConnections.isEmpty()) {
+					this.selector.select(1);
+				} else {
+					this.selector.select();
+				}
+				this.selecting.set(false);
+
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while(keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if(!key.isValid()) {
+						continue;
+					}
+					if(key.isAcceptable()) {
+						this.accept();
+					} else {
+						Connection connection = (Connection) key.attachment();
+						if(key.isWritable()) {
+							this.flush(connection);
+						}
+						if(key.isValid() && key.isReadable()) {
+							this.read(connection);
+						}
+					}
+				}
+			}
+		} catch (Throwable e) {
+			this.failure = e;
+			this.running = false;
+		} finally {
+			this.stopSequencer();
+			for(SelectionKey key : this.selector.keys()) {
+				try {
+					key.channel().close();
+				} catch (IOException e) {
+					// The gateway is shutting down anyway
+				}
+			}
+			try {
+				this.selector.close();
+			} catch (IOException e) {
+				// The gateway is shutting down anyway
+			}
+		}
+	}
+
+	/**
+	 * This method tells the sequencer to stop, and waits until it has. The responses produced in the meantime are
+	 * dropped, so that the sequencer never waits for a full response ring.
+	 */
+	private void stopSequencer() {
+		Request stop;
+		while((stop = this.requests.tryClaim()) == null) {
+			while(this.responses.poll() != null) {
+				this.responses.release();
+			}
+			Thread.onSpinWait();
+		}
+		stop.connection = null;
+		this.requests.publish();
+		while(true) {
+			Response response = this.responses.take();
+			boolean last = response.connection == null;
+			this.responses.release();
+			if(last) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * This method accepts all pending connections.
+	 * @throws IOException If a connection can't be set up.
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while((channel = this.server.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+			key.attach(new Connection(channel, key));
+		}
+	}
+
+	/**
+	 * This method reads the available bytes of a connection and passes its complete requests to the sequencer. The
+	 * connection is closed if the client has closed it.
+	 * @param connection The connection.
+	 */
+	private void read(Connection connection) {
+		int read;
+		try {
+			read = connection.channel.read(connection.input);
+		} catch (IOException e) {
+			this.close(connection);
+			return;
+		}
+		if(read < 0) {
+			this.close(connection);
+			return;
+		}
+		this.passRequests(connection);
+	}
+
+	/**
+	 * This method decodes the complete requests in the input buffer of a connection and puts them into the request
+	 * ring. If the ring becomes full, the connection is stalled: no more bytes are read from it until its remaining
+	 * requests have been passed on.
+	 * @param connection The connection.
+	 */
+	private void passRequests(Connection connection) {
+		ByteBuffer input = connection.input;
+		input.flip();
+		while(input.remaining() >= GatewayProtocol.REQUEST_SIZE) {
+			Request request = this.requests.tryClaim();
+			if(request == null) {
+				break;
+			}
+			request.connection = connection;
+			request.requestID = GatewayProtocol.readRequest(input, request.query);
+			this.requests.publish();
+		}
+		boolean stalled = input.remaining() >= GatewayProtocol.REQUEST_SIZE;
+		input.compact();
+		if(stalled != connection.stalled) {
+			connection.stalled = stalled;
+			SelectionKey key = connection.key;
+			if(stalled) {
+				this.stalledConnections.add(connection);
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+			} else {
+				key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+			}
+		}
+	}
+
+	/**
+	 * This method tries to pass on the remaining requests of the stalled connections, in the order they were stalled.
+	 */
+	private void resumeStalled() {
+		Iterator<Connection> connections = this.stalledConnections.iterator();
+		while(connections.hasNext()) {
+			Connection connection = connections.next();
+			if(!connection.closed) {
+				this.passRequests(connection);
+			}
+			if(connection.closed || !connection.stalled) {
+				connections.remove();
+			}
+		}
+	}
+
+	/**
+	 * This method takes all responses out of the response ring, writes them into the output buffers of their
+	 * connections, and then sends the output buffers. The responses of closed connections are dropped.
+	 */
+	private void drainResponses() {
+		Response response;
+		while((response = this.responses.poll()) != null) {
+			Connection connection = response.connection;
+			if(!connection.closed) {
+				this.append(connection, response);
+			}
+			this.responses.release();
+		}
+		for(int i = 0; i < this.dirtyConnections.size(); i++) {
+			Connection connection = this.dirtyConnections.get(i);
+			connection.dirty = false;
+			if(!connection.closed) {
+				this.flush(connection);
+			}
+		}
+		this.dirtyConnections.clear();
+	}
+
+	/**
+	 * This method writes a response into the output buffer of a connection. If the buffer is full, it is sent first,
+	 * and if that doesn't make enough room, the buffer is enlarged. A connection whose buffer is already at its
+	 * largest size is closed.
+	 * @param connection The connection.
+	 * @param response The response.
+	 */
+	private void append(Connection connection, Response response) {
+		ByteBuffer output = connection.output;
+		if(output.remaining() < GatewayProtocol.RESPONSE_SIZE) {
+			this.flush(connection);
+			if(connection.closed) {
+				return;
+			}
+			if(output.remaining() < GatewayProtocol.RESPONSE_SIZE) {
+				if(output.capacity() >= MAX_OUTPUT_BUFFER_SIZE) {
+					this.close(connection);
+					return;
+				}
+				ByteBuffer larger = ByteBuffer.allocate(output.capacity() * 2);
+				output.flip();
+				larger.put(output);
+				connection.output = larger;
+				output = larger;
+			}
+		}
+		GatewayProtocol.writeResponse(output, response.type, response.code, response.requestID, response.values);
+		if(!connection.dirty) {
+			connection.dirty = true;
+			this.dirtyConnections.add(connection);
+		}
+	}
+
+	/**
+	 * This method sends as much of the output buffer of a connection as the channel accepts. If anything is left, the
+	 * connection waits until the channel is writable again.
+	 * @param connection The connection.
+	 */
+	private void flush(Connection connection) {
+		ByteBuffer output = connection.output;
+		output.flip();
+		try {
+			connection.channel.write(output);
+		} catch (IOException e) {
+			output.compact();
+			this.close(connection);
+			return;
+		}
+		output.compact();
+		SelectionKey key = connection.key;
+		int ops = key.interestOps();
+		int wanted = output.position() > 0 ? ops | SelectionKey.OP_WRITE : ops & ~SelectionKey.OP_WRITE;
+		if(wanted != ops) {
+			key.interestOps(wanted);
+		}
+	}
+
+	/**
+	 * This method closes a connection. Its requests that have already been passed on are still executed, but their
+	 * responses are dropped.
+	 * @param connection The connection.
+	 */
+	private void close(Connection connection) {
+		connection.closed = true;
+		connection.key.cancel();
+		try {
+			connection.channel.close();
+		} catch (IOException e) {
+			// The connection is gone either way
+		}
+	}
+
+	/**
+	 * This method is the body of the sequencer thread. It executes the requests in the order they come out of the
+	 * request ring, until it is told to stop. If executing a request fails, the gateway is stopped, and the remaining
+	 * requests are only taken out of the ring.
+	 */
+	private void runSequencer() {
+		boolean failed = false;
+		while(true) {
+			Request request = this.requests.take();
+			boolean stop = request.connection == null;
+			if(!stop && !failed) {
+				try {
+					this.execute(request);
+				} catch (Throwable e) {
+					this.failure = e;
+					this.running = false;
+					failed = true;
+				}
+			}
+			this.requests.release();
+			if(stop) {
+				break;
+			}
+			if(this.selecting.getAndSet(false)) {
+				this.selector.wakeup();
+			}
+		}
+		Response last = this.responses.claim();
+		last.connection = null;
+		this.responses.publish();
+	}
+
+	/**
+	 * This method executes a single request on the market, and answers it with an acknowledgement or a rejection
+	 * after its fills and reports. A request is rejected if its opcode is unknown, its trader doesn't exist, or the
+	 * market counts it as an invalid query.
+	 * @param request The request.
+	 */
+	private void execute(Request request) {
+		Query query = request.query;
+		this.current = request;
+		int reason = this.validate(query);
+		if(reason == 0) {
+			long lastOrderID = this.market.getLastOrderID();
+			int invalidQueries = this.market.getInvalidQueries();
+			this.executor.execute(query);
+			if(this.market.getInvalidQueries() > invalidQueries) {
+				reason = this.rejectionReason(query);
+			} else {
+				Response response = this.claimResponse(GatewayProtocol.ACK, query.opcode);
+				response.values[0] = this.market.getLastOrderID() > lastOrderID ? lastOrderID + 1 : 0;
+				this.responses.publish();
+			}
+		}
+		if(reason != 0) {
+			this.claimResponse(GatewayProtocol.REJECT, reason);
+			this.responses.publish();
+		}
+	}
+
+	/**
+	 * This method checks a request before it is executed.
+	 * @param query The query of the request.
+	 * @return The reason the request is rejected for, 0 if it can be executed.
+	 */
+	private int validate(Query query) {
+		switch(query.opcode) {
+			case 3: case 4: case 5: case 10: case 11: case 12: case 13: case 20: case 21: case 22: case 23: case 30:
+			case 31:
+				if(query.traderID < 0 || query.traderID >= this.market.getNumberOfTraders()) {
+					return GatewayProtocol.UNKNOWN_TRADER;
+				}
+				return 0;
+			case 40: case 41: case 500: case 501: case 502: case 505: case 555: case 600: case 666: case 777:
+				return 0;
+			default:
+				return GatewayProtocol.UNSUPPORTED_QUERY;
+		}
+	}
+
+	/**
+	 * This method finds out why the market has counted a request as an invalid query. Invalid queries don't change
+	 * the market, so the reason can be found after the request has been executed.
+	 * @param query The query of the request.
+	 * @return The reason of the rejection.
+	 */
+	private int rejectionReason(Query query) {
+		switch(query.opcode) {
+			case 10: case 12: case 13: case 20: case 22: case 23:
+				return query.price < 0 || query.stopPrice < 0 ? GatewayProtocol.INVALID_PRICE
+						: GatewayProtocol.INSUFFICIENT_FUNDS;
+			case 11:
+				return this.market.getTopSellingPrice() < 0 ? GatewayProtocol.NO_LIQUIDITY
+						: GatewayProtocol.INSUFFICIENT_FUNDS;
+			case 21:
+				return this.market.getTopBuyingPrice() < 0 ? GatewayProtocol.NO_LIQUIDITY
+						: GatewayProtocol.INSUFFICIENT_FUNDS;
+			case 30:
+				return GatewayProtocol.UNKNOWN_ORDER;
+			case 31:
+				if(this.market.getOrderTrader(query.orderID) != query.traderID) {
+					return GatewayProtocol.UNKNOWN_ORDER;
+				}
+				return query.price < 0 ? GatewayProtocol.INVALID_PRICE : GatewayProtocol.INSUFFICIENT_FUNDS;
+			case 600:
+				return GatewayProtocol.UNSUPPORTED_QUERY;
+			default:
+				return GatewayProtocol.INSUFFICIENT_FUNDS;
+		}
+	}
+
+	/**
+	 * This method claims a slot of the response ring for a response to the current request. If the ring is full, the
+	 * selector is woken up first, since the I/O thread may be sleeping in it while the current request is still
+	 * producing responses, and then the method waits until the I/O thread releases a slot. The caller fills in the
+	 * values and publishes the slot.
+	 * @param type Type of the response.
+	 * @param code The code of the response.
+	 * @return The slot, with all values set to 0.
+	 */
+	private Response claimResponse(int type, int code) {
+		Response response = this.responses.tryClaim();
+		if(response == null) {
+			this.selector.wakeup();
+			response = this.responses.claim();
+		}
+		response.connection = this.current.connection;
+		response.type = type;
+		response.code = code;
+		response.requestID = this.current.requestID;
+		for(int i = 0; i < GatewayProtocol.VALUES; i++) {
+			response.values[i] = 0;
+		}
+		return response;
+	}
+}
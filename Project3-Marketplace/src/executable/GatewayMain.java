@@ -0,0 +1,84 @@
+package executable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import elements.Market;
+import elements.TradeJournal;
+import elements.Trader;
+
+/**
+ * This program runs the market behind an order-entry gateway, so that the queries are sent over TCP by any number of
+ * clients instead of being read from a file. The seed, the fee and the traders are read from the first lines of a
+ * query file like the one read by Main, and the queries in the file are ignored. The gateway only listens on the
+ * loopback address, and runs until the program is stopped.
+ * <p>
+ * The protocol of the gateway is described in the GatewayProtocol class.
+ * <p>
+ * Usage: GatewayMain [input file] [port] [trade journal (optional)]
+ * @author Eren
+ *
+ */
+public class GatewayMain {
+
+	public static void main(String[] args) {
+		QuerySource in;
+		try {
+			in = QuerySource.open(Paths.get(args[0]));
+		} catch (IOException e) {
+			System.out.println("Input file not found.");
+			e.printStackTrace();
+			return;
+		}
+
+		TradeJournal journal;
+		try {
+			journal = args.length > 2 ? new TradeJournal(Paths.get(args[2]), false) : TradeJournal.createTemporary();
+		} catch (IOException e) {
+			System.out.println("Trade journal couldn't be created.");
+			e.printStackTrace();
+			return;
+		}
+
+		long seed = in.nextLong();
+		in.skipLine();
+		int marketFee = in.nextInt();
+		int numOfUsers = in.nextInt();
+		in.skipLine();
+
+		Market market = new Market(marketFee, journal, Boolean.getBoolean("market.offHeapOrders"));
+		for(int i = 0; i < numOfUsers; i++) {
+			long dollars = in.nextFixed();
+			long coins = in.nextFixed();
+			in.skipLine();
+			new Trader(market, dollars, coins);
+		}
+
+		Gateway gateway;
+		try {
+			in.close();
+			gateway = new Gateway(market, new Random(seed),
+					new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1])));
+		} catch (IOException e) {
+			System.out.println("Gateway couldn't be started.");
+			e.printStackTrace();
+			return;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				try {
+					gateway.close();
+					journal.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		gateway.start();
+		System.out.println("Listening on port " + gateway.getPort() + ".");
+	}
+}
@@ -0,0 +1,136 @@
+package executable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class describes the binary protocol of the order-entry gateway. All messages have a fixed size and all numbers
+ * are big-endian, so a message can be read without looking at its content first.
+ * <p>
+ * A request consists of the opcode (4 bytes), the trader ID (4 bytes), a request ID chosen by the client (8 bytes),
+ * the order ID (8 bytes), the price (8 bytes), the stop price (8 bytes) and the amount (8 bytes). The fields have the
+ * same meaning as in the Query class, and prices and amounts are in ticks and lots. Unused fields should be 0. The
+ * gateway builds no candles, so query #600 is always rejected as an unsupported query.
+ * <p>
+ * A response consists of its type (4 bytes), a code (4 bytes), the request ID of the request it belongs to (8 bytes)
+ * and seven values (8 bytes each). Every request is answered by zero or more fills and reports, followed by exactly one
+ * acknowledgement or rejection, which ends the answer. The responses of a connection come in the order of its
+ * requests. The code and the values of each type are:
+ * <ul>
+ * <li>ACK: the opcode of the request, and the ID given to the order placed by the request, or 0</li>
+ * <li>REJECT: the reason of the rejection</li>
+ * <li>FILL: the opcode of the request, and the seller ID, the buyer ID, the amount and the price of a fill caused by
+ * the request</li>
+ * <li>TRADER: the trader ID, and the total dollars and PQoins of the trader</li>
+ * <li>MARKET_SIZE: 0, and the total dollars in the buying orders and the total PQoins in the selling orders</li>
+ * <li>SUCCESSFUL_TRANSACTIONS, INVALID_QUERIES: the count</li>
+ * <li>PRICES: 0, and the buying price, the selling price and their average in tenths of ticks</li>
+ * <li>CANDLE: 0, and the index, the open, high, low and close prices, the volume and the volume weighted average
+ * price of a candle</li>
+ * </ul>
+ * @author Eren
+ *
+ */
+public final class GatewayProtocol {
+
+	/**
+	 * The size of a request in bytes.
+	 */
+	public static final int REQUEST_SIZE = 48;
+
+	/**
+	 * The size of a response in bytes.
+	 */
+	public static final int RESPONSE_SIZE = 72;
+
+	/**
+	 * The number of values in a response.
+	 */
+	public static final int VALUES = 7;
+
+	/**
+	 * Types of the responses.
+	 */
+	public static final int ACK = 0;
+	public static final int REJECT = 1;
+	public static final int FILL = 2;
+	public static final int TRADER = 3;
+	public static final int MARKET_SIZE = 4;
+	public static final int SUCCESSFUL_TRANSACTIONS = 5;
+	public static final int INVALID_QUERIES = 6;
+	public static final int PRICES = 7;
+	public static final int CANDLE = 8;
+
+	/**
+	 * Reasons of the rejections.
+	 */
+	public static final int UNSUPPORTED_QUERY = 1;
+	public static final int UNKNOWN_TRADER = 2;
+	public static final int INVALID_PRICE = 3;
+	public static final int INSUFFICIENT_FUNDS = 4;
+	public static final int NO_LIQUIDITY = 5;
+	public static final int UNKNOWN_ORDER = 6;
+
+	/**
+	 * Constructor for the GatewayProtocol class. It is private, since the class only holds constants and static
+	 * methods.
+	 */
+	private GatewayProtocol() {
+	}
+
+	/**
+	 * This method writes a request into a buffer.
+	 * @param out The buffer, which must have at least REQUEST_SIZE bytes remaining.
+	 * @param opcode The opcode of the query.
+	 * @param traderID ID of the trader the query belongs to.
+	 * @param requestID The request ID chosen by the client.
+	 * @param orderID ID of the order the query refers to.
+	 * @param price The price in the query, in ticks.
+	 * @param stopPrice The stop price in the query, in ticks.
+	 * @param amount The amount of dollars or PQoins in the query, in ticks or lots.
+	 */
+	public static void writeRequest(ByteBuffer out, int opcode, int traderID, long requestID, long orderID, long price,
+			long stopPrice, long amount) {
+		out.putInt(opcode);
+		out.putInt(traderID);
+		out.putLong(requestID);
+		out.putLong(orderID);
+		out.putLong(price);
+		out.putLong(stopPrice);
+		out.putLong(amount);
+	}
+
+	/**
+	 * This method reads a request from a buffer.
+	 * @param in The buffer, which must have at least REQUEST_SIZE bytes remaining.
+	 * @param query The query the fields of the request are read into.
+	 * @return The request ID of the request.
+	 */
+	static long readRequest(ByteBuffer in, Query query) {
+		int opcode = in.getInt();
+		int traderID = in.getInt();
+		long requestID = in.getLong();
+		long orderID = in.getLong();
+		long price = in.getLong();
+		long stopPrice = in.getLong();
+		long amount = in.getLong();
+		query.set(opcode, traderID, orderID, price, stopPrice, amount);
+		return requestID;
+	}
+
+	/**
+	 * This method writes a response into a buffer.
+	 * @param out The buffer, which must have at least RESPONSE_SIZE bytes remaining.
+	 * @param type Type of the response.
+	 * @param code The code of the response.
+	 * @param requestID The request ID of the request the response belongs to.
+	 * @param values The values of the response. Exactly VALUES of them are written.
+	 */
+	static void writeResponse(ByteBuffer out, int type, int code, long requestID, long[] values) {
+		out.putInt(type);
+		out.putInt(code);
+		out.putLong(requestID);
+		for(int i = 0; i < VALUES; i++) {
+			out.putLong(values[i]);
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package executable;
+
+/**
+ * This class counts non-negative values in buckets whose width grows with the value, like an HDR histogram. Values
+ * below 64 have their own buckets, and every power of two above that is split into 32 buckets of equal width, so the
+ * value of any bucket is within about 3% of the values counted in it. All buckets are allocated when the histogram is
+ * created, so recording a value never allocates anything.
+ * @author Eren
+ *
+ */
+public class Histogram {
+
+	/**
+	 * The number of bits of a value that are kept in the bucket index.
+	 */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/**
+	 * The number of buckets each power of two is split into.
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * The number of buckets needed to hold every long value.
+	 */
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	/**
+	 * The number of values in each bucket.
+	 */
+	private final long[] counts;
+
+	/**
+	 * The number of recorded values.
+	 */
+	private long count;
+
+	/**
+	 * The sum of the recorded values.
+	 */
+	private long sum;
+
+	/**
+	 * The smallest recorded value.
+	 */
+	private long min;
+
+	/**
+	 * The largest recorded value.
+	 */
+	private long max;
+
+	/**
+	 * Constructor for the Histogram class.
+	 */
+	public Histogram() {
+		this.counts = new long[BUCKETS];
+		this.count = 0;
+		this.sum = 0;
+		this.min = Long.MAX_VALUE;
+		this.max = 0;
+	}
+
+	/**
+	 * This method records a single value. Negative values are recorded as 0.
+	 * @param value The value.
+	 */
+	public void record(long value) {
+		if(value < 0) {
+			value = 0;
+		}
+		this.counts[Histogram.indexOf(value)]++;
+		this.count++;
+		this.sum += value;
+		if(value < this.min) {
+			this.min = value;
+		}
+		if(value > this.max) {
+			this.max = value;
+		}
+	}
+
+	/**
+	 * This method adds all values recorded by another histogram to this one.
+	 * @param other The other histogram.
+	 */
+	public void add(Histogram other) {
+		for(int i = 0; i < BUCKETS; i++) {
+			this.counts[i] += other.counts[i];
+		}
+		this.count += other.count;
+		this.sum += other.sum;
+		this.min = Math.min(this.min, other.min);
+		this.max = Math.max(this.max, other.max);
+	}
+
+	/**
+	 * This method finds the bucket of a value.
+	 * @param value The value, which must not be negative.
+	 * @return Index of the bucket.
+	 */
+	private static int indexOf(long value) {
+		if(value < 2 * SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return shift * SUB_BUCKETS + (int) (value >>> shift);
+	}
+
+	/**
+	 * This method finds the largest value that belongs to a bucket.
+	 * @param index Index of the bucket.
+	 * @return The largest value of the bucket.
+	 */
+	private static long highestValueOf(int index) {
+		if(index < 2 * SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * Getter method for the number of recorded values.
+	 * @return The number of recorded values.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Getter method for the sum of the recorded values.
+	 * @return The sum of the recorded values.
+	 */
+	public long getSum() {
+		return this.sum;
+	}
+
+	/**
+	 * Getter method for the smallest recorded value.
+	 * @return The smallest recorded value, 0 if nothing has been recorded.
+	 */
+	public long getMin() {
+		return this.count == 0 ? 0 : this.min;
+	}
+
+	/**
+	 * Getter method for the largest recorded value.
+	 * @return The largest recorded value, 0 if nothing has been recorded.
+	 */
+	public long getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Getter method for the mean of the recorded values.
+	 * @return The mean of the recorded values, 0 if nothing has been recorded.
+	 */
+	public double getMean() {
+		return this.count == 0 ? 0 : (double) this.sum / this.count;
+	}
+
+	/**
+	 * This method finds the value below which the given percentage of the recorded values fall. The result is the
+	 * largest value of the bucket the percentile falls in, but never more than the largest recorded value.
+	 * @param percentile The percentage, between 0 and 100.
+	 * @return The value at the percentile, 0 if nothing has been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if(this.count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += this.counts[i];
+			if(seen >= target) {
+				return Math.min(Histogram.highestValueOf(i), this.max);
+			}
+		}
+		return this.max;
+	}
+}
@@ -1,14 +1,9 @@
 package executable;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.Random;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Paths;
 
-import elements.Market;
-import elements.Trader;
+import elements.TradeJournal;
 
 /**
  * This program is a simple currency marketplace implementation, written as the third project of the CMPE160 course.
@@ -16,169 +11,129 @@ import elements.Trader;
  * currency named PQoin. The market takes a small fee from each transaction processed. The market also has other
  * abilities such as rewarding all traders with random amounts of PQoin, or keeping track of the number of successful
  * transactions and invalid queries.
+ * <p>
+ * Market orders (#11 and #21) are filled immediately against the best orders of the other side, walking through as
+ * many price levels as needed, and the part that can't be filled is dropped. A market buying order takes all free
+ * dollars of its trader as its budget, and stops early when the next PQoins don't fit into what is left of it. Market
+ * orders never rest in the market and get no IDs. Every limit order (#10 and #20) accepted by the market gets an
+ * ID, starting from 1 in the order the orders are placed. While an order is active, its trader can cancel it with
+ * query #30 or change its price and amount with query #31.
+ * <p>
+ * Stop orders (#12 and #22) and stop-limit orders (#13 and #23) stay dormant until the last trade price reaches their
+ * stop price: rising to it for buying stops, falling to it for selling stops. A triggered stop order becomes a market
+ * order, and a triggered stop-limit order becomes a limit order with the same ID. Dormant stop orders get IDs like
+ * limit orders and can be cancelled with query #30.
+ * <p>
+ * Query #40 starts a call auction, in which limit orders are only collected, and query #41 ends it by clearing all
+ * crossing orders at the single price that trades the most PQoins. If the system property "market.auctionQueries" or
+ * "market.auctionMillis" is set, the whole run is a series of call auctions that are cleared after every window of that
+ * many queries or milliseconds.
+ * <p>
+ * If the system property "market.snapshotDir" is set, the program saves a snapshot of its state to that directory
+ * after every "market.snapshotInterval" queries (100000 by default), and logs every query before executing it. After a
+ * crash, running the program again with the same arguments and "market.recover" set to true continues from the latest
+ * snapshot, and only the queries logged after it are executed again.
+ * <p>
+ * If the system property "market.depthFile" is set, the level 2 market data feed is written to that file: a snapshot
+ * of all price levels at the start, followed by a message for every new, changed or removed level. With
+ * "market.depthConflation" set to N, the changes are conflated over batches of N queries. With
+ * "market.depthSnapshotInterval" set to N, a new snapshot is written after every N queries.
+ * <p>
+ * If the system property "market.metricsFile" is set, the program measures every query and writes a summary to that
+ * file at the end: latency percentiles and allocated bytes per opcode, the number of fills per order, and the depth of
+ * the order books after every "market.depthSampleInterval" queries (10000 by default).
+ * <p>
+ * If the system property "market.candleQueries" or "market.candleTrades" is set to N, the program builds OHLCV candles
+ * that cover N queries or N fills each, and keeps the latest "market.candleHistory" of them (1024 by default). Query
+ * #600 followed by a number K prints the latest K candles, oldest first, the last of which may still be open. If no
+ * candles are built, query #600 prints nothing and is counted as an invalid query.
+ * <p>
+ * The active orders are stored as records in one block of memory that is reused as orders come and go. If the system
+ * property "market.offHeapOrders" is true, the block is kept outside of the Java heap.
+ * <p>
+ * The input file can also be a binary query file written by QueryConverter, which is recognized by its first bytes.
+ * Binary files are mapped into memory and their queries are decoded without any text parsing, so replaying a large
+ * file is limited by reading it rather than by parsing it.
  * @author Eren
  *
  */
 public class Main {
-	public static Random myRandom;
 	
 	public static void main(String[] args) {
-		Scanner in;
+		QuerySource in;
 		try {
-			in = new Scanner(new File(args[0]));
-		} catch (FileNotFoundException e) {
+			in = QuerySource.open(Paths.get(args[0]));
+		} catch (IOException e) {
 			System.out.println("Input file not found.");
 			e.printStackTrace();
 			return;
 		}
 		
-		PrintStream out;
+		String snapshotDir = System.getProperty("market.snapshotDir");
+		boolean recover = snapshotDir != null && Boolean.getBoolean("market.recover");
+		
+		ReportWriter out;
 		try {
-			out = new PrintStream(new File(args[1]));
-		} catch (FileNotFoundException e) {
+			out = new ReportWriter(Paths.get(args[1]), recover);
+		} catch (IOException e) {
 			System.out.println("Output file not found");
 			e.printStackTrace();
 			return;
 		}
 		
-		long seed = Long.parseLong(in.nextLine());
-		myRandom = new Random(seed);
-		
-		String[] tokens = in.nextLine().split(" ");
-		int marketFee = Integer.parseInt(tokens[0]);
-		int numOfUsers = Integer.parseInt(tokens[1]);
-		int numOfQueries = Integer.parseInt(tokens[2]);
-		
-		Market market = new Market(marketFee);
-		
-		for(int i = 0; i < numOfUsers; i++) {
-			tokens = in.nextLine().split(" ");
-			double dollars = Double.parseDouble(tokens[0]);
-			double coins = Double.parseDouble(tokens[1]);
-			new Trader(dollars, coins);
+		TradeJournal journal = null;
+		if(args.length > 2) {
+			try {
+				journal = new TradeJournal(Paths.get(args[2]), recover);
+			} catch (IOException e) {
+				System.out.println("Trade journal couldn't be created.");
+				e.printStackTrace();
+				return;
+			}
 		}
 		
-		for(int i = 0; i < numOfQueries; i++) {
-			tokens = in.nextLine().split(" ");
-			int tokenID = Integer.parseInt(tokens[0]);
-			
-			if(tokenID == 10) {
-				int traderID = Integer.parseInt(tokens[1]);
-				double price = Double.parseDouble(tokens[2]);
-				double amount = Double.parseDouble(tokens[3]);
-				
-				if(Market.traders.get(traderID).buy(amount, price, market) == 0) {
-					Market.invalidQueries++;
-				}
-				
-			} else if(tokenID == 11) {
-				int traderID = Integer.parseInt(tokens[1]);
-				double amount = Double.parseDouble(tokens[2]);
-				double price = market.getTopSellingPrice();
-				if(price < 0) {
-					Market.invalidQueries++;
-				} else if(Market.traders.get(traderID).buy(amount, price, market) == 0) {
-					Market.invalidQueries++;
-				}
-				
-			} else if(tokenID == 20) {
-				int traderID = Integer.parseInt(tokens[1]);
-				double price = Double.parseDouble(tokens[2]);
-				double amount = Double.parseDouble(tokens[3]);
-				
-				if(Market.traders.get(traderID).sell(amount, price, market) == 0) {
-					Market.invalidQueries++;
-				}
-				
-			} else if(tokenID == 21) {
-				int traderID = Integer.parseInt(tokens[1]);
-				double amount = Double.parseDouble(tokens[2]);
-				double price = market.getTopBuyingPrice();
-				if(price < 0) {
-					Market.invalidQueries++;
-				} else if(Market.traders.get(traderID).sell(amount, price, market) == 0) {
-					Market.invalidQueries++;
-				}
-				
-			} else if(tokenID == 3) {
-				int traderID = Integer.parseInt(tokens[1]);
-				double amount = Double.parseDouble(tokens[2]);
-				
-				Market.traders.get(traderID).deposit(amount);
-				
-			} else if(tokenID == 4) {
-				int traderID = Integer.parseInt(tokens[1]);
-				double amount = Double.parseDouble(tokens[2]);
-				
-				if(!Market.traders.get(traderID).withdraw(amount)) {
-					Market.invalidQueries++;
-				}
-				
-			} else if(tokenID == 5) {
-				int traderID = Integer.parseInt(tokens[1]);
-				double totalDollars = Market.traders.get(traderID).getTotalDollars();
-				double totalCoins = Market.traders.get(traderID).getTotalCoins();
-				
-				out.printf("Trader %d: %.5f$ %.5fPQ\n", traderID, totalDollars, totalCoins);
-				
-			} else if(tokenID == 777) {
-				for(Trader trader : Market.traders) {
-					trader.addCoins(myRandom.nextDouble() * 10);
-				}
-				
-			} else if(tokenID == 666) {
-				double price = Double.parseDouble(tokens[1]);
-				
-				market.makeOpenMarketOperation(price);
-				
-			} else if(tokenID == 500) {
-				double dollarSize = market.totalDollarInBuying();
-				double PQSize = market.totalPQInSelling();
-				
-				out.printf("Current market size: %.5f %.5f\n", dollarSize, PQSize);
-				
-			} else if(tokenID == 501) {
-				out.printf("Number of successful transactions: %d\n", Market.successfulTransactions);
-				
-			} else if(tokenID == 502) {
-				out.printf("Number of invalid queries: %d\n", Market.invalidQueries);
-				
-			} else if(tokenID == 505) {
-				double smallPrice = market.getTopBuyingPrice();
-				double bigPrice = market.getTopSellingPrice();
-				double avg;
-				
-				if(smallPrice < 0 && bigPrice < 0) {
-					smallPrice = .0;
-					bigPrice = .0;
-					avg = .0;
-				} else if(bigPrice < 0) {
-					bigPrice = .0;
-					avg = smallPrice;
-				} else if(smallPrice < 0) {
-					smallPrice = 0;
-					avg = bigPrice;
-				} else {
-					avg = (smallPrice + bigPrice) / 2;
-				}
-				
-				out.printf("Current prices: %.5f %.5f %.5f\n", smallPrice, bigPrice, avg);
-				
-			} else if(tokenID == 555) {
-				for(int j = 0; j < Market.traders.size(); j++) {
-					Trader trader = Market.traders.get(j);
-					double totalDollars = trader.getTotalDollars();
-					double totalCoins = trader.getTotalCoins();
-					out.printf("Trader %d: %.5f$ %.5fPQ\n", j, totalDollars, totalCoins);
-				}
+		try {
+			Simulation simulation = new Simulation(in, out, journal);
+			SnapshotStore snapshots = null;
+			if(snapshotDir != null) {
+				snapshots = new SnapshotStore(Paths.get(snapshotDir));
+				simulation.enableSnapshots(snapshots, Integer.getInteger("market.snapshotInterval", 100000), recover);
+			}
+			String depthFile = System.getProperty("market.depthFile");
+			if(depthFile != null) {
+				simulation.publishMarketData(new DepthFile(Paths.get(depthFile)),
+						Integer.getInteger("market.depthConflation", 0),
+						Integer.getInteger("market.depthSnapshotInterval", 0));
+			}
+			Integer candleQueries = Integer.getInteger("market.candleQueries");
+			Integer candleTrades = Integer.getInteger("market.candleTrades");
+			if(candleQueries != null || candleTrades != null) {
+				simulation.buildCandles(candleTrades != null ? candleTrades : candleQueries, candleTrades != null,
+						Integer.getInteger("market.candleHistory", 1024));
 			}
+			Integer auctionQueries = Integer.getInteger("market.auctionQueries");
+			Long auctionMillis = Long.getLong("market.auctionMillis");
+			if(auctionQueries != null || auctionMillis != null) {
+				simulation.runAuctions(new AuctionSchedule(auctionQueries != null ? auctionQueries : 0,
+						auctionMillis != null ? auctionMillis : 0));
+			}
+			String metricsFile = System.getProperty("market.metricsFile");
+			QueryMetrics metrics = null;
+			if(metricsFile != null) {
+				metrics = new QueryMetrics(Integer.getInteger("market.depthSampleInterval", 10000));
+				simulation.collectMetrics(metrics);
+			}
+			simulation.run();
+			if(metrics != null) {
+				metrics.writeSummary(Paths.get(metricsFile));
+			}
+			if(snapshots != null) {
+				snapshots.close();
+			}
+			in.close();
+			out.close();
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
-		
-		// Resetting static fields for easy testing
-		Market.traders = new ArrayList<Trader>();
-		Market.successfulTransactions = 0;
-		Market.invalidQueries = 0;
-		Trader.numberOfUsers = 0;
 	}
 }
-
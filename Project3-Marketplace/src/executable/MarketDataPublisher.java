@@ -0,0 +1,249 @@
+package executable;
+
+import java.io.IOException;
+
+import elements.BookListener;
+import elements.Market;
+
+/**
+ * This class publishes the level 2 market data feed of a market: full snapshots of the depth of both sides, and
+ * incremental messages for every new, changed or removed price level in between. The publisher listens to the order
+ * books of the market, so the depth never has to be scanned apart from the snapshots.
+ * <p>
+ * With conflation, the changes are collected over a batch of queries, and only the final state of each changed level
+ * is published at the end of the batch. A level that is created and removed in the same batch isn't published at
+ * all, and a level that is removed and created again is published as a changed level. The changes are collected in
+ * primitive tables that are reused by every batch, so conflation doesn't allocate anything.
+ * @author Eren
+ *
+ */
+public class MarketDataPublisher implements BookListener {
+
+	/**
+	 * The market whose depth is published.
+	 */
+	private final Market market;
+
+	/**
+	 * The sink the messages are published to.
+	 */
+	private final MarketDataSink sink;
+
+	/**
+	 * The number of queries in a batch, 1 or less to publish every change immediately.
+	 */
+	private final int batchSize;
+
+	/**
+	 * The number of queries between two snapshots, 0 to only publish the first snapshot.
+	 */
+	private final int snapshotInterval;
+
+	/**
+	 * The sequence number of the last published message.
+	 */
+	private long sequence;
+
+	/**
+	 * The number of queries executed in the current batch.
+	 */
+	private int queriesInBatch;
+
+	/**
+	 * The number of queries executed since the last snapshot.
+	 */
+	private int queriesSinceSnapshot;
+
+	/**
+	 * Whether the levels reported to the publisher belong to a snapshot.
+	 */
+	private boolean inSnapshot;
+
+	/**
+	 * The changes of the buying levels in the current batch, in the order the levels first changed.
+	 */
+	private final PendingLevels pendingBuying;
+
+	/**
+	 * The changes of the selling levels in the current batch, in the order the levels first changed.
+	 */
+	private final PendingLevels pendingSelling;
+
+	/**
+	 * The message object that is filled for every published message.
+	 */
+	private final DepthUpdate update;
+
+	/**
+	 * Constructor for the MarketDataPublisher class. Nothing is published until the publisher is started.
+	 * @param market The market whose depth is published.
+	 * @param sink The sink the messages are published to.
+	 * @param batchSize The number of queries whose changes are conflated, 1 or less to disable conflation.
+	 * @param snapshotInterval The number of queries between two snapshots, 0 to only publish the first snapshot.
+	 */
+	public MarketDataPublisher(Market market, MarketDataSink sink, int batchSize, int snapshotInterval) {
+		this.market = market;
+		this.sink = sink;
+		this.batchSize = batchSize;
+		this.snapshotInterval = snapshotInterval;
+		this.sequence = 0;
+		this.queriesInBatch = 0;
+		this.queriesSinceSnapshot = 0;
+		this.inSnapshot = false;
+		this.pendingBuying = new PendingLevels();
+		this.pendingSelling = new PendingLevels();
+		this.update = new DepthUpdate();
+	}
+
+	/**
+	 * This method starts listening to the order books of the market and publishes the first snapshot.
+	 */
+	public void start() {
+		this.market.setBookListener(this);
+		this.publishSnapshot();
+	}
+
+	/**
+	 * This method is called after every query. It ends the current batch and publishes a snapshot when their number
+	 * of queries is reached.
+	 */
+	public void queryExecuted() {
+		if(this.batchSize > 1 && ++this.queriesInBatch >= this.batchSize) {
+			this.flush();
+		}
+		if(this.snapshotInterval > 0 && ++this.queriesSinceSnapshot >= this.snapshotInterval) {
+			this.publishSnapshot();
+		}
+	}
+
+	/**
+	 * This method publishes a full snapshot of the depth of the market. The changes collected in the current batch
+	 * are published before it.
+	 */
+	public void publishSnapshot() {
+		this.flush();
+		this.queriesSinceSnapshot = 0;
+		this.send(DepthUpdate.SNAPSHOT_START, false, 0, 0, 0);
+		this.inSnapshot = true;
+		this.market.replayDepth(this);
+		this.inSnapshot = false;
+		this.send(DepthUpdate.SNAPSHOT_END, false, 0, 0, 0);
+	}
+
+	/**
+	 * This method publishes the changes collected in the current batch and starts a new batch.
+	 */
+	public void flush() {
+		this.queriesInBatch = 0;
+		this.flush(this.pendingBuying, true);
+		this.flush(this.pendingSelling, false);
+	}
+
+	/**
+	 * This method publishes the collected changes of one side and forgets them.
+	 * @param pending The collected changes of the side.
+	 * @param buying true if the changes belong to the buying side.
+	 */
+	private void flush(PendingLevels pending, boolean buying) {
+		if(pending.size() == 0) {
+			return;
+		}
+		for(int slot = 0; slot < pending.size(); slot++) {
+			if(!pending.isDropped(slot)) {
+				this.send(pending.getType(slot), buying, pending.getPrice(slot), pending.getVolume(slot),
+						pending.getOrders(slot));
+			}
+		}
+		pending.clear();
+	}
+
+	/**
+	 * This method stops listening to the market, publishes the changes collected in the current batch and closes the
+	 * sink.
+	 * @throws IOException If the sink can't be closed.
+	 */
+	public void close() throws IOException {
+		this.market.setBookListener(null);
+		this.flush();
+		this.sink.close();
+	}
+
+	/**
+	 * This method publishes a level of a snapshot, or handles a new level outside of snapshots.
+	 */
+	@Override
+	public void levelAdded(boolean buying, long price, long volume, int orders) {
+		if(this.inSnapshot) {
+			this.send(DepthUpdate.SNAPSHOT_LEVEL, buying, price, volume, orders);
+		} else {
+			this.record(DepthUpdate.NEW_LEVEL, buying, price, volume, orders);
+		}
+	}
+
+	/**
+	 * This method handles a changed level.
+	 */
+	@Override
+	public void levelChanged(boolean buying, long price, long volume, int orders) {
+		this.record(DepthUpdate.CHANGED_LEVEL, buying, price, volume, orders);
+	}
+
+	/**
+	 * This method handles a removed level.
+	 */
+	@Override
+	public void levelRemoved(boolean buying, long price) {
+		this.record(DepthUpdate.REMOVED_LEVEL, buying, price, 0, 0);
+	}
+
+	/**
+	 * This method handles a change of a level. Without conflation, the change is published immediately. Otherwise it
+	 * is merged with the earlier changes of the same level in the current batch.
+	 * @param type The type of the change.
+	 * @param buying true if the level holds buying orders.
+	 * @param price The price of the level, in ticks.
+	 * @param volume The new total amount of PQoins in the level, in lots.
+	 * @param orders The new number of orders in the level.
+	 */
+	private void record(int type, boolean buying, long price, long volume, int orders) {
+		if(this.batchSize <= 1) {
+			this.send(type, buying, price, volume, orders);
+			return;
+		}
+		PendingLevels pending = buying ? this.pendingBuying : this.pendingSelling;
+		int slot = pending.indexOf(price);
+		if(slot < 0) {
+			slot = pending.add(price, type);
+		} else if(type == DepthUpdate.REMOVED_LEVEL) {
+			if(pending.getType(slot) == DepthUpdate.NEW_LEVEL) {
+				pending.drop(slot);
+				return;
+			}
+			pending.setType(slot, DepthUpdate.REMOVED_LEVEL);
+		} else if(type == DepthUpdate.NEW_LEVEL) {
+			pending.setType(slot, DepthUpdate.CHANGED_LEVEL);
+		}
+		pending.setLevel(slot, volume, orders);
+	}
+
+	/**
+	 * This method publishes a single message with the next sequence number.
+	 * @param type The type of the message.
+	 * @param buying true if the level holds buying orders.
+	 * @param price The price of the level, in ticks.
+	 * @param volume The total amount of PQoins in the level, in lots.
+	 * @param orders The number of orders in the level.
+	 */
+	private void send(int type, boolean buying, long price, long volume, int orders) {
+		this.update.set(++this.sequence, type, buying, price, volume, orders);
+		this.sink.publish(this.update);
+	}
+
+	/**
+	 * Getter method for the sequence number of the last published message.
+	 * @return The sequence number of the last published message, 0 if nothing has been published yet.
+	 */
+	public long getSequence() {
+		return this.sequence;
+	}
+}
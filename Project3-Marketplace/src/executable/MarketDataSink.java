@@ -0,0 +1,19 @@
+package executable;
+
+import java.io.Closeable;
+
+/**
+ * This interface receives the messages of the level 2 market data feed from a MarketDataPublisher. Implementations
+ * decide where the messages go.
+ * @author Eren
+ *
+ */
+public interface MarketDataSink extends Closeable {
+
+	/**
+	 * This method receives the next message of the feed. The message object is reused by the publisher, so it must
+	 * not be kept after the method returns.
+	 * @param update The message.
+	 */
+	void publish(DepthUpdate update);
+}
@@ -0,0 +1,242 @@
+package executable;
+
+import java.util.Arrays;
+
+/**
+ * This class collects the changes of the price levels of one side of the market during a batch of the market data
+ * feed. Every changed level gets a slot, and the slots are kept in the order the levels first changed, in parallel
+ * primitive arrays. The slots are found by price through a hash table with open addressing and linear probing, so
+ * neither lookups nor insertions create any objects. The arrays are kept between batches and only grow when a batch
+ * changes more levels than any batch before.
+ * @author Eren
+ *
+ */
+class PendingLevels {
+
+	/**
+	 * The initial number of slots.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The message type of a slot whose level was created and removed again in the same batch, which isn't published.
+	 */
+	private static final int DROPPED = -1;
+
+	/**
+	 * The prices of the levels, in ticks, indexed by slot.
+	 */
+	private long[] prices;
+
+	/**
+	 * The types of the messages that will be published for the levels, indexed by slot.
+	 */
+	private int[] types;
+
+	/**
+	 * The latest total amounts of PQoins in the levels, in lots, indexed by slot.
+	 */
+	private long[] volumes;
+
+	/**
+	 * The latest numbers of orders in the levels, indexed by slot.
+	 */
+	private int[] orders;
+
+	/**
+	 * The positions of the slots in the hash table, indexed by slot.
+	 */
+	private int[] positions;
+
+	/**
+	 * The hash table from prices to slots. Each element holds the latest slot of a price plus one, 0 marks an empty
+	 * position.
+	 */
+	private int[] table;
+
+	/**
+	 * The number of used slots.
+	 */
+	private int size;
+
+	/**
+	 * Constructor for the PendingLevels class.
+	 */
+	PendingLevels() {
+		this.prices = new long[INITIAL_CAPACITY];
+		this.types = new int[INITIAL_CAPACITY];
+		this.volumes = new long[INITIAL_CAPACITY];
+		this.orders = new int[INITIAL_CAPACITY];
+		this.positions = new int[INITIAL_CAPACITY];
+		this.table = new int[2 * INITIAL_CAPACITY];
+		this.size = 0;
+	}
+
+	/**
+	 * Getter method for the number of used slots.
+	 * @return The number of used slots, including the ones of dropped levels.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * This method finds the slot of a level.
+	 * @param price The price of the level, in ticks.
+	 * @return The slot of the level, -1 if the level hasn't changed in this batch or has been dropped.
+	 */
+	int indexOf(long price) {
+		int mask = this.table.length - 1;
+		for(int position = PendingLevels.hash(price) & mask; this.table[position] != 0;
+				position = (position + 1) & mask) {
+			int slot = this.table[position] - 1;
+			if(this.prices[slot] == price) {
+				return this.types[slot] == DROPPED ? -1 : slot;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * This method gives a new slot to a level, after the slots of all levels that changed before it. The level must
+	 * not have a slot that isn't dropped.
+	 * @param price The price of the level, in ticks.
+	 * @param type The type of the message that will be published for the level.
+	 * @return The slot of the level.
+	 */
+	int add(long price, int type) {
+		if(this.size == this.prices.length) {
+			this.grow();
+		}
+		int slot = this.size++;
+		this.prices[slot] = price;
+		this.types[slot] = type;
+		this.link(slot);
+		return slot;
+	}
+
+	/**
+	 * This method drops a level, so that nothing is published for it.
+	 * @param slot The slot of the level.
+	 */
+	void drop(int slot) {
+		this.types[slot] = DROPPED;
+	}
+
+	/**
+	 * This method sets the latest state of a level.
+	 * @param slot The slot of the level.
+	 * @param volume The total amount of PQoins in the level, in lots.
+	 * @param orders The number of orders in the level.
+	 */
+	void setLevel(int slot, long volume, int orders) {
+		this.volumes[slot] = volume;
+		this.orders[slot] = orders;
+	}
+
+	/**
+	 * Getter method for the price of a level.
+	 * @param slot The slot of the level.
+	 * @return The price of the level, in ticks.
+	 */
+	long getPrice(int slot) {
+		return this.prices[slot];
+	}
+
+	/**
+	 * Getter method for the type of the message of a level.
+	 * @param slot The slot of the level.
+	 * @return The type of the message that will be published for the level.
+	 */
+	int getType(int slot) {
+		return this.types[slot];
+	}
+
+	/**
+	 * Setter method for the type of the message of a level.
+	 * @param slot The slot of the level.
+	 * @param type The type of the message that will be published for the level.
+	 */
+	void setType(int slot, int type) {
+		this.types[slot] = type;
+	}
+
+	/**
+	 * This method checks whether a level has been dropped.
+	 * @param slot The slot of the level.
+	 * @return true if nothing should be published for the level.
+	 */
+	boolean isDropped(int slot) {
+		return this.types[slot] == DROPPED;
+	}
+
+	/**
+	 * Getter method for the total amount of PQoins in a level.
+	 * @param slot The slot of the level.
+	 * @return The latest total amount of PQoins in the level, in lots.
+	 */
+	long getVolume(int slot) {
+		return this.volumes[slot];
+	}
+
+	/**
+	 * Getter method for the number of orders in a level.
+	 * @param slot The slot of the level.
+	 * @return The latest number of orders in the level.
+	 */
+	int getOrders(int slot) {
+		return this.orders[slot];
+	}
+
+	/**
+	 * This method forgets all levels. Only the positions of the hash table that are in use are cleared.
+	 */
+	void clear() {
+		for(int slot = 0; slot < this.size; slot++) {
+			this.table[this.positions[slot]] = 0;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * This method makes the position of the price of a slot in the hash table point to the slot. A dropped slot of
+	 * the same price is replaced, since only the latest slot of a price is ever looked up.
+	 * @param slot The slot.
+	 */
+	private void link(int slot) {
+		long price = this.prices[slot];
+		int mask = this.table.length - 1;
+		int position = PendingLevels.hash(price) & mask;
+		while(this.table[position] != 0 && this.prices[this.table[position] - 1] != price) {
+			position = (position + 1) & mask;
+		}
+		this.table[position] = slot + 1;
+		this.positions[slot] = position;
+	}
+
+	/**
+	 * This method doubles the number of slots and the size of the hash table, and links all slots again.
+	 */
+	private void grow() {
+		int capacity = this.prices.length * 2;
+		this.prices = Arrays.copyOf(this.prices, capacity);
+		this.types = Arrays.copyOf(this.types, capacity);
+		this.volumes = Arrays.copyOf(this.volumes, capacity);
+		this.orders = Arrays.copyOf(this.orders, capacity);
+		this.positions = Arrays.copyOf(this.positions, capacity);
+		this.table = new int[2 * capacity];
+		for(int slot = 0; slot < this.size; slot++) {
+			this.link(slot);
+		}
+	}
+
+	/**
+	 * This method spreads the bits of a price, since neighbouring prices would otherwise form long clusters.
+	 * @param price The price, in ticks.
+	 * @return The hash of the price.
+	 */
+	private static int hash(long price) {
+		long h = price * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,210 @@
+package executable;
+
+/**
+ * This class represents a single parsed query. Which fields are used depends on the opcode of the query:
+ * <ul>
+ * <li>10, 20: trader ID, price and amount</li>
+ * <li>12, 22: trader ID, stop price and amount</li>
+ * <li>13, 23: trader ID, stop price, price and amount</li>
+ * <li>30: trader ID and order ID</li>
+ * <li>31: trader ID, order ID, price and amount</li>
+ * <li>11, 21, 3, 4: trader ID and amount</li>
+ * <li>5: trader ID</li>
+ * <li>666: price</li>
+ * <li>600: count, the number of candles</li>
+ * <li>777, 500, 501, 502, 505, 555, 40, 41: none</li>
+ * </ul>
+ * Query objects are mutable, so the same object can be reused for every query of a file.
+ * @author Eren
+ *
+ */
+public class Query {
+
+	/**
+	 * The flags of the fields a query can use, which are combined in the result of the fields method.
+	 */
+	static final int TRADER_FIELD = 1;
+	static final int ORDER_FIELD = 2;
+	static final int STOP_PRICE_FIELD = 4;
+	static final int PRICE_FIELD = 8;
+	static final int AMOUNT_FIELD = 16;
+	static final int COUNT_FIELD = 32;
+
+	/**
+	 * The opcode of the query.
+	 */
+	int opcode;
+
+	/**
+	 * ID of the trader the query belongs to.
+	 */
+	int traderID;
+
+	/**
+	 * ID of the order the query refers to.
+	 */
+	long orderID;
+
+	/**
+	 * The price in the query, in ticks.
+	 */
+	long price;
+
+	/**
+	 * The stop price in the query, in ticks.
+	 */
+	long stopPrice;
+
+	/**
+	 * The amount of dollars or PQoins in the query, in ticks or lots.
+	 */
+	long amount;
+
+	/**
+	 * The number of items the query asks for, such as the number of candles of #600.
+	 */
+	long count;
+
+	/**
+	 * This method sets all fields of the query apart from the count, which is set to 0. Unused fields should be 0.
+	 * @param opcode The opcode of the query.
+	 * @param traderID ID of the trader the query belongs to.
+	 * @param orderID ID of the order the query refers to.
+	 * @param price The price in the query, in ticks.
+	 * @param stopPrice The stop price in the query, in ticks.
+	 * @param amount The amount of dollars or PQoins in the query, in ticks or lots.
+	 */
+	public void set(int opcode, int traderID, long orderID, long price, long stopPrice, long amount) {
+		this.set(opcode, traderID, orderID, price, stopPrice, amount, 0);
+	}
+
+	/**
+	 * This method sets all fields of the query. Unused fields should be 0.
+	 * @param opcode The opcode of the query.
+	 * @param traderID ID of the trader the query belongs to.
+	 * @param orderID ID of the order the query refers to.
+	 * @param price The price in the query, in ticks.
+	 * @param stopPrice The stop price in the query, in ticks.
+	 * @param amount The amount of dollars or PQoins in the query, in ticks or lots.
+	 * @param count The number of items the query asks for.
+	 */
+	public void set(int opcode, int traderID, long orderID, long price, long stopPrice, long amount, long count) {
+		this.opcode = opcode;
+		this.traderID = traderID;
+		this.orderID = orderID;
+		this.price = price;
+		this.stopPrice = stopPrice;
+		this.amount = amount;
+		this.count = count;
+	}
+
+	/**
+	 * This method reads the next query from a query file into this object. The fields are read in the order they
+	 * appear in the file, and the rest of the line is skipped.
+	 * @param in The reader of the query file.
+	 */
+	public void read(QueryReader in) {
+		this.opcode = in.nextInt();
+		int fields = Query.fields(this.opcode);
+		this.traderID = (fields & TRADER_FIELD) != 0 ? in.nextInt() : 0;
+		this.orderID = (fields & ORDER_FIELD) != 0 ? in.nextLong() : 0;
+		this.count = (fields & COUNT_FIELD) != 0 ? in.nextLong() : 0;
+		this.stopPrice = (fields & STOP_PRICE_FIELD) != 0 ? in.nextFixed() : 0;
+		this.price = (fields & PRICE_FIELD) != 0 ? in.nextFixed() : 0;
+		this.amount = (fields & AMOUNT_FIELD) != 0 ? in.nextFixed() : 0;
+		in.skipLine();
+	}
+
+	/**
+	 * This method finds the fields used by the queries with the given opcode. In query files, the fields come in the
+	 * order trader ID, order ID, count, stop price, price and amount, skipping the unused ones.
+	 * @param opcode The opcode of the query.
+	 * @return The flags of the used fields, 0 for opcodes that use no fields or are unknown.
+	 */
+	static int fields(int opcode) {
+		if(opcode == 10 || opcode == 20) {
+			return TRADER_FIELD | PRICE_FIELD | AMOUNT_FIELD;
+		} else if(opcode == 12 || opcode == 22) {
+			return TRADER_FIELD | STOP_PRICE_FIELD | AMOUNT_FIELD;
+		} else if(opcode == 13 || opcode == 23) {
+			return TRADER_FIELD | STOP_PRICE_FIELD | PRICE_FIELD | AMOUNT_FIELD;
+		} else if(opcode == 11 || opcode == 21 || opcode == 3 || opcode == 4) {
+			return TRADER_FIELD | AMOUNT_FIELD;
+		} else if(opcode == 30) {
+			return TRADER_FIELD | ORDER_FIELD;
+		} else if(opcode == 31) {
+			return TRADER_FIELD | ORDER_FIELD | PRICE_FIELD | AMOUNT_FIELD;
+		} else if(opcode == 5) {
+			return TRADER_FIELD;
+		} else if(opcode == 666) {
+			return PRICE_FIELD;
+		} else if(opcode == 600) {
+			return COUNT_FIELD;
+		}
+		return 0;
+	}
+
+	/**
+	 * This method copies all fields of another query into this object.
+	 * @param other The query to be copied.
+	 */
+	public void copy(Query other) {
+		this.set(other.opcode, other.traderID, other.orderID, other.price, other.stopPrice, other.amount, other.count);
+	}
+
+	/**
+	 * Getter method for the opcode of the query.
+	 * @return The opcode of the query.
+	 */
+	public int getOpcode() {
+		return this.opcode;
+	}
+
+	/**
+	 * Getter method for the trader ID of the query.
+	 * @return ID of the trader the query belongs to.
+	 */
+	public int getTraderID() {
+		return this.traderID;
+	}
+
+	/**
+	 * Getter method for the order ID of the query.
+	 * @return ID of the order the query refers to.
+	 */
+	public long getOrderID() {
+		return this.orderID;
+	}
+
+	/**
+	 * Getter method for the count of the query.
+	 * @return The number of items the query asks for.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Getter method for the price of the query.
+	 * @return The price in the query, in ticks.
+	 */
+	public long getPrice() {
+		return this.price;
+	}
+
+	/**
+	 * Getter method for the stop price of the query.
+	 * @return The stop price in the query, in ticks.
+	 */
+	public long getStopPrice() {
+		return this.stopPrice;
+	}
+
+	/**
+	 * Getter method for the amount of the query.
+	 * @return The amount of dollars or PQoins in the query, in ticks or lots.
+	 */
+	public long getAmount() {
+		return this.amount;
+	}
+}
@@ -0,0 +1,155 @@
+package executable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This program converts a query file between the text format read by Main and the binary format described in the
+ * BinaryQueryFormat class. The direction is chosen by the format of the input file: text files are converted into
+ * binary files, and binary files back into text files. Converting a file there and back gives a file with the same
+ * queries, although numbers may be written differently and anything after the used fields of a line is dropped.
+ * <p>
+ * Usage: QueryConverter [input file] [output file]
+ * @author Eren
+ *
+ */
+public class QueryConverter {
+
+	/**
+	 * The size of the buffer binary files are written through, in bytes.
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	public static void main(String[] args) {
+		if(args.length < 2) {
+			System.out.println("Usage: QueryConverter [input file] [output file]");
+			return;
+		}
+		Path input = Paths.get(args[0]);
+		Path output = Paths.get(args[1]);
+		try {
+			if(BinaryQueryFormat.isBinary(input)) {
+				try(BinaryQueryReader in = new BinaryQueryReader(input); ReportWriter out = new ReportWriter(output)) {
+					QueryConverter.toText(in, out);
+				}
+			} else {
+				try(QueryReader in = new QueryReader(input); FileChannel out = FileChannel.open(output,
+						StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					QueryConverter.toBinary(in, out);
+				}
+			}
+		} catch (IOException e) {
+			System.out.println("Query file couldn't be converted.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * This method converts a text query file into a binary one.
+	 * @param in The reader of the text file.
+	 * @param out The channel of the binary file.
+	 * @throws IOException If the binary file can't be written.
+	 */
+	private static void toBinary(QueryReader in, FileChannel out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.putInt(BinaryQueryFormat.MAGIC);
+		buffer.putLong(in.nextLong());
+		in.skipLine();
+		buffer.putInt(in.nextInt());
+		int numOfUsers = in.nextInt();
+		int numOfQueries = in.nextInt();
+		in.skipLine();
+		buffer.putInt(numOfUsers);
+		buffer.putInt(numOfQueries);
+		for(int i = 0; i < numOfUsers; i++) {
+			if(buffer.remaining() < 2 * Long.BYTES) {
+				QueryConverter.write(out, buffer);
+			}
+			buffer.putLong(in.nextFixed());
+			buffer.putLong(in.nextFixed());
+			in.skipLine();
+		}
+		Query query = new Query();
+		for(int i = 0; i < numOfQueries; i++) {
+			if(buffer.remaining() < BinaryQueryFormat.MAX_RECORD_SIZE) {
+				QueryConverter.write(out, buffer);
+			}
+			query.read(in);
+			BinaryQueryFormat.write(buffer, query);
+		}
+		QueryConverter.write(out, buffer);
+	}
+
+	/**
+	 * This method writes the contents of a buffer to a channel and clears the buffer.
+	 * @param out The channel.
+	 * @param buffer The buffer.
+	 * @throws IOException If the channel can't be written.
+	 */
+	private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * This method converts a binary query file into a text one.
+	 * @param in The reader of the binary file.
+	 * @param out The writer of the text file.
+	 */
+	private static void toText(BinaryQueryReader in, ReportWriter out) {
+		out.print(in.nextLong());
+		out.println();
+		out.print(in.nextInt());
+		out.print(' ');
+		int numOfUsers = in.nextInt();
+		int numOfQueries = in.nextInt();
+		out.print(numOfUsers);
+		out.print(' ');
+		out.print(numOfQueries);
+		out.println();
+		for(int i = 0; i < numOfUsers; i++) {
+			out.printExactFixed(in.nextFixed());
+			out.print(' ');
+			out.printExactFixed(in.nextFixed());
+			out.println();
+		}
+		Query query = new Query();
+		for(int i = 0; i < numOfQueries; i++) {
+			in.nextQuery(query);
+			int fields = Query.fields(query.opcode);
+			out.print(query.opcode);
+			if((fields & Query.TRADER_FIELD) != 0) {
+				out.print(' ');
+				out.print(query.traderID);
+			}
+			if((fields & Query.ORDER_FIELD) != 0) {
+				out.print(' ');
+				out.print(query.orderID);
+			}
+			if((fields & Query.COUNT_FIELD) != 0) {
+				out.print(' ');
+				out.print(query.count);
+			}
+			if((fields & Query.STOP_PRICE_FIELD) != 0) {
+				out.print(' ');
+				out.printExactFixed(query.stopPrice);
+			}
+			if((fields & Query.PRICE_FIELD) != 0) {
+				out.print(' ');
+				out.printExactFixed(query.price);
+			}
+			if((fields & Query.AMOUNT_FIELD) != 0) {
+				out.print(' ');
+				out.printExactFixed(query.amount);
+			}
+			out.println();
+		}
+	}
+}
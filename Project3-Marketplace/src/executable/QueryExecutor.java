@@ -0,0 +1,325 @@
+package executable;
+
+import java.util.Random;
+
+import elements.CandleSeries;
+import elements.FixedPoint;
+import elements.Market;
+import elements.Trader;
+import elements.WalletStore;
+
+/**
+ * This class executes parsed queries on a market and passes their results to a reporter. It holds no state of its
+ * own apart from the market, the random number generator used during order #777 and the reporter, so the same
+ * queries executed on the same market always produce the same output.
+ * @author Eren
+ *
+ */
+public class QueryExecutor {
+	
+	/**
+	 * The market the queries are executed on.
+	 */
+	private final Market market;
+	
+	/**
+	 * The random number generator used during order #777.
+	 */
+	private final Random random;
+	
+	/**
+	 * The reporter the results of the queries are written to.
+	 */
+	private final Reporter out;
+	
+	/**
+	 * The publisher of the market data feed, null if no feed is published.
+	 */
+	private MarketDataPublisher marketData;
+	
+	/**
+	 * The metrics of the executed queries, null if no metrics are collected.
+	 */
+	private QueryMetrics metrics;
+	
+	/**
+	 * The candles built from the fills of the market, null if no candles are built.
+	 */
+	private CandleSeries candles;
+	
+	/**
+	 * The schedule of the call auctions, null if the market isn't run as a series of auctions.
+	 */
+	private AuctionSchedule auctions;
+	
+	/**
+	 * Constructor for the QueryExecutor class.
+	 * @param market The market the queries are executed on.
+	 * @param random The random number generator used during order #777.
+	 * @param out The reporter the results of the queries are written to.
+	 */
+	public QueryExecutor(Market market, Random random, Reporter out) {
+		this.market = market;
+		this.random = random;
+		this.out = out;
+		this.marketData = null;
+		this.metrics = null;
+		this.candles = null;
+		this.auctions = null;
+	}
+	
+	/**
+	 * Setter method for the publisher of the market data feed. The publisher is told about the end of every query.
+	 * @param marketData The publisher, null if no feed is published.
+	 */
+	public void setMarketData(MarketDataPublisher marketData) {
+		this.marketData = marketData;
+	}
+	
+	/**
+	 * Setter method for the metrics of the executed queries.
+	 * @param metrics The metrics every query is recorded in, null to collect no metrics.
+	 */
+	public void setMetrics(QueryMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Setter method for the candles of the market. The candles are told about the end of every query, and are
+	 * reported by order #600.
+	 * @param candles The candles built from the fills of the market, null if no candles are built.
+	 */
+	public void setCandles(CandleSeries candles) {
+		this.candles = candles;
+	}
+	
+	/**
+	 * Setter method for the schedule of the call auctions. The schedule is told about the end of every query, before
+	 * the market data feed and the candles.
+	 * @param auctions The schedule of the call auctions, null if the market isn't run as a series of auctions.
+	 */
+	public void setAuctions(AuctionSchedule auctions) {
+		this.auctions = auctions;
+	}
+	
+	/**
+	 * This method executes a single query. Queries with unknown opcodes are ignored.
+	 * @param query The query to be executed.
+	 */
+	public void execute(Query query) {
+		if(this.metrics == null) {
+			this.dispatch(query);
+		} else {
+			this.metrics.begin(this.market);
+			this.dispatch(query);
+			this.metrics.end(this.market, query.opcode);
+		}
+		
+		if(this.auctions != null) {
+			this.auctions.queryExecuted(this.market);
+		}
+		if(this.marketData != null) {
+			this.marketData.queryExecuted();
+		}
+		if(this.candles != null) {
+			this.candles.queryExecuted();
+		}
+	}
+	
+	/**
+	 * This method executes a single query according to its opcode.
+	 * @param query The query to be executed.
+	 */
+	private void dispatch(Query query) {
+		int tokenID = query.opcode;
+		
+		if(tokenID == 10) {
+			int traderID = query.traderID;
+			long price = query.price;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).buy(amount, price, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 11) {
+			int traderID = query.traderID;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).marketBuy(amount, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 12) {
+			int traderID = query.traderID;
+			long stopPrice = query.stopPrice;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).stopBuy(amount, stopPrice, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 13) {
+			int traderID = query.traderID;
+			long stopPrice = query.stopPrice;
+			long price = query.price;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).stopLimitBuy(amount, stopPrice, price, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 20) {
+			int traderID = query.traderID;
+			long price = query.price;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).sell(amount, price, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 21) {
+			int traderID = query.traderID;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).marketSell(amount, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 22) {
+			int traderID = query.traderID;
+			long stopPrice = query.stopPrice;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).stopSell(amount, stopPrice, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 23) {
+			int traderID = query.traderID;
+			long stopPrice = query.stopPrice;
+			long price = query.price;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).stopLimitSell(amount, stopPrice, price, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 30) {
+			int traderID = query.traderID;
+			long orderID = query.orderID;
+			
+			if(this.market.getTrader(traderID).cancel(orderID, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 31) {
+			int traderID = query.traderID;
+			long orderID = query.orderID;
+			long price = query.price;
+			long amount = query.amount;
+			
+			if(this.market.getTrader(traderID).amend(orderID, amount, price, this.market) == 0) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 3) {
+			int traderID = query.traderID;
+			long amount = query.amount;
+			
+			this.market.getTrader(traderID).deposit(amount);
+			
+		} else if(tokenID == 4) {
+			int traderID = query.traderID;
+			long amount = query.amount;
+			
+			if(!this.market.getTrader(traderID).withdraw(amount)) {
+				this.market.addInvalidQuery();
+			}
+			
+		} else if(tokenID == 5) {
+			int traderID = query.traderID;
+			Trader trader = this.market.getTrader(traderID);
+			
+			this.out.reportTrader(traderID, trader.getTotalDollars(), trader.getTotalCoins());
+			
+		} else if(tokenID == 777) {
+			WalletStore wallets = this.market.getWallets();
+			for(int j = 0; j < wallets.size(); j++) {
+				wallets.addCoins(j, FixedPoint.fromDouble(this.random.nextDouble() * 10));
+			}
+			
+		} else if(tokenID == 666) {
+			long price = query.price;
+			
+			this.market.makeOpenMarketOperation(price);
+			
+		} else if(tokenID == 500) {
+			long dollarSize = this.market.totalDollarInBuying();
+			long PQSize = this.market.totalPQInSelling();
+			
+			this.out.reportMarketSize(dollarSize, PQSize);
+			
+		} else if(tokenID == 501) {
+			this.out.reportSuccessfulTransactions(this.market.getSuccessfulTransactions());
+			
+		} else if(tokenID == 502) {
+			this.out.reportInvalidQueries(this.market.getInvalidQueries());
+			
+		} else if(tokenID == 505) {
+			long smallPrice = this.market.getTopBuyingPrice();
+			long bigPrice = this.market.getTopSellingPrice();
+			// The average is kept with one more decimal than the prices, so that it is exact
+			long avg;
+			
+			if(smallPrice < 0 && bigPrice < 0) {
+				smallPrice = 0;
+				bigPrice = 0;
+				avg = 0;
+			} else if(bigPrice < 0) {
+				bigPrice = 0;
+				avg = smallPrice * 10;
+			} else if(smallPrice < 0) {
+				smallPrice = 0;
+				avg = bigPrice * 10;
+			} else {
+				avg = (smallPrice + bigPrice) * 5;
+			}
+			
+			this.out.reportPrices(smallPrice, bigPrice, avg);
+			
+		} else if(tokenID == 555) {
+			WalletStore wallets = this.market.getWallets();
+			for(int j = 0; j < wallets.size(); j++) {
+				this.out.reportTrader(j, wallets.getTotalDollars(j), wallets.getTotalCoins(j));
+			}
+			
+		} else if(tokenID == 40) {
+			this.market.startAuction();
+			
+		} else if(tokenID == 41) {
+			this.market.endAuction();
+			
+		} else if(tokenID == 600) {
+			// without candles there is nothing to print, so the query is counted as invalid instead of being dropped
+			if(this.candles == null) {
+				this.market.addInvalidQuery();
+				return;
+			}
+			long last = this.candles.getCurrentIndex();
+			long first = Math.max(this.candles.getOldestIndex(), last - query.count + 1);
+			for(long j = first; j <= last; j++) {
+				this.out.reportCandle(j, this.candles.getOpen(j), this.candles.getHigh(j), this.candles.getLow(j),
+						this.candles.getClose(j), this.candles.getVolume(j), this.candles.getVWAP(j));
+			}
+		}
+	}
+	
+	/**
+	 * Getter method for the market the queries are executed on.
+	 * @return The market.
+	 */
+	public Market getMarket() {
+		return this.market;
+	}
+}
@@ -0,0 +1,249 @@
+package executable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is the write-ahead log of the queries of a simulation. Every query is appended to the log before it is
+ * executed, as a fixed-size binary record that also holds the position in the query file right after the query and
+ * the time the query was received. After a crash, the queries in the log can be executed again on top of the last
+ * snapshot at their original times, and the query file can be continued from the position in the last record.
+ * <p>
+ * The records are collected in a buffer and written to the file when the buffer is full, so a crash may lose the last
+ * few records. This is harmless, since those queries are still in the query file and are simply read from there
+ * again.
+ * @author Eren
+ *
+ */
+public class QueryLog implements Closeable {
+
+	/**
+	 * The size of a record in bytes. Each record consists of the sequence number of the query (8 bytes), the opcode
+	 * (4 bytes), the trader ID (4 bytes), the order ID (8 bytes), the price (8 bytes), the stop price (8 bytes), the
+	 * amount (8 bytes), the count (8 bytes), the position in the query file after the query (8 bytes) and the time the
+	 * query was received (8 bytes).
+	 */
+	public static final int RECORD_SIZE = 72;
+
+	/**
+	 * The number of records that fit in the write buffer.
+	 */
+	private static final int BUFFER_RECORDS = 4096;
+
+	/**
+	 * The path of the log file.
+	 */
+	private final Path path;
+
+	/**
+	 * The channel of the log file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The buffer the records are collected in before they are written.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Constructor for the QueryLog class. The complete records of an existing log file are kept, and new records are
+	 * appended after them.
+	 * @param path The path of the log file.
+	 * @throws IOException If the file can't be opened.
+	 */
+	public QueryLog(Path path) throws IOException {
+		this.path = path;
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		long size = this.channel.size();
+		this.channel.truncate(size - size % RECORD_SIZE);
+		this.channel.position(this.channel.size());
+		this.buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFER_RECORDS);
+	}
+
+	/**
+	 * This method appends a query to the log.
+	 * @param sequence The sequence number of the query, i.e. the number of queries executed before it.
+	 * @param query The query.
+	 * @param inputOffset The position in the query file right after the query.
+	 * @param time The time the query was received, in milliseconds since the epoch.
+	 */
+	public void append(long sequence, Query query, long inputOffset, long time) {
+		if(!this.buffer.hasRemaining()) {
+			this.flush();
+		}
+		this.buffer.putLong(sequence);
+		this.buffer.putInt(query.opcode);
+		this.buffer.putInt(query.traderID);
+		this.buffer.putLong(query.orderID);
+		this.buffer.putLong(query.price);
+		this.buffer.putLong(query.stopPrice);
+		this.buffer.putLong(query.amount);
+		this.buffer.putLong(query.count);
+		this.buffer.putLong(inputOffset);
+		this.buffer.putLong(time);
+	}
+
+	/**
+	 * This method writes all buffered records to the log file.
+	 */
+	public void flush() {
+		try {
+			this.buffer.flip();
+			while(this.buffer.hasRemaining()) {
+				this.channel.write(this.buffer);
+			}
+			this.buffer.clear();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Query log couldn't be written", e);
+		}
+	}
+
+	/**
+	 * This method removes all records from the log. It is called after a snapshot has been saved, since the queries
+	 * before the snapshot are never executed again.
+	 */
+	public void reset() {
+		try {
+			this.buffer.clear();
+			this.channel.truncate(0);
+			this.channel.position(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Query log couldn't be reset", e);
+		}
+	}
+
+	/**
+	 * This method opens a reader over all records in the log. The buffered records are written to the file first.
+	 * @return The reader.
+	 * @throws IOException If the file can't be opened.
+	 */
+	public Reader read() throws IOException {
+		this.flush();
+		return new Reader(this.path);
+	}
+
+	/**
+	 * This method writes all buffered records to the log file and closes it.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.flush();
+		this.channel.close();
+	}
+
+	/**
+	 * This class reads the records of a log file one by one. The reader works like a cursor: each call to next reads
+	 * the next query into the given Query object, and the getters return the other fields of the record.
+	 * @author Eren
+	 *
+	 */
+	public static class Reader implements Closeable {
+
+		/**
+		 * The channel of the log file.
+		 */
+		private final FileChannel channel;
+
+		/**
+		 * The buffer the records are read into.
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Sequence number of the current query.
+		 */
+		private long sequence;
+
+		/**
+		 * The position in the query file right after the current query.
+		 */
+		private long inputOffset;
+
+		/**
+		 * The time the current query was received, in milliseconds since the epoch.
+		 */
+		private long time;
+
+		/**
+		 * Constructor for the Reader class.
+		 * @param path The path of the log file.
+		 * @throws IOException If the file can't be opened.
+		 */
+		public Reader(Path path) throws IOException {
+			this.channel = FileChannel.open(path, StandardOpenOption.READ);
+			this.buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFER_RECORDS);
+			this.buffer.flip();
+			this.sequence = -1;
+			this.inputOffset = -1;
+			this.time = 0;
+		}
+
+		/**
+		 * This method moves the reader to the next record.
+		 * @param query The object the query of the record is read into.
+		 * @return true if there is a next record, false if the end of the log has been reached.
+		 * @throws IOException If the file can't be read.
+		 */
+		public boolean next(Query query) throws IOException {
+			if(this.buffer.remaining() < RECORD_SIZE) {
+				this.buffer.compact();
+				while(this.buffer.hasRemaining() && this.channel.read(this.buffer) > 0) {
+					// Keep reading until the buffer is full or the end of the file is reached
+				}
+				this.buffer.flip();
+				if(this.buffer.remaining() < RECORD_SIZE) {
+					return false;
+				}
+			}
+			this.sequence = this.buffer.getLong();
+			int opcode = this.buffer.getInt();
+			int traderID = this.buffer.getInt();
+			long orderID = this.buffer.getLong();
+			long price = this.buffer.getLong();
+			long stopPrice = this.buffer.getLong();
+			long amount = this.buffer.getLong();
+			long count = this.buffer.getLong();
+			query.set(opcode, traderID, orderID, price, stopPrice, amount, count);
+			this.inputOffset = this.buffer.getLong();
+			this.time = this.buffer.getLong();
+			return true;
+		}
+
+		/**
+		 * Getter method for the sequence number of the current query.
+		 * @return The number of queries executed before the current query.
+		 */
+		public long getSequence() {
+			return this.sequence;
+		}
+
+		/**
+		 * Getter method for the position in the query file after the current query.
+		 * @return The position in the query file right after the current query, in bytes.
+		 */
+		public long getInputOffset() {
+			return this.inputOffset;
+		}
+
+		/**
+		 * Getter method for the time the current query was received.
+		 * @return The time the current query was received, in milliseconds since the epoch.
+		 */
+		public long getTime() {
+			return this.time;
+		}
+
+		/**
+		 * This method closes the log file.
+		 */
+		@Override
+		public void close() throws IOException {
+			this.channel.close();
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package executable;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+import elements.Market;
+
+/**
+ * This class collects metrics about the queries executed by a QueryExecutor: the number of queries and a latency
+ * histogram for every opcode, the bytes allocated by every opcode, the number of fills caused by every order, and
+ * samples of the depth of the order books over time. Recording doesn't allocate anything apart from growing the array
+ * of depth samples now and then, and everything is written to a summary file at the end of the run.
+ * <p>
+ * All methods must be called from the thread that executes the queries.
+ * @author Eren
+ *
+ */
+public class QueryMetrics {
+
+	/**
+	 * The size of the tables indexed by opcode. Larger opcodes are counted together with the unknown ones.
+	 */
+	private static final int OPCODES = 1000;
+
+	/**
+	 * The opcodes understood by QueryExecutor, which have their own histograms.
+	 */
+	private static final int[] KNOWN_OPCODES = {3, 4, 5, 10, 11, 12, 13, 20, 21, 22, 23, 30, 31, 40, 41, 500, 501,
+			502, 505, 555, 600, 666, 777};
+
+	/**
+	 * The number of values in each depth sample: the number of executed queries, the number of buying levels, the
+	 * number of buying orders, the number of selling levels and the number of selling orders.
+	 */
+	private static final int SAMPLE_SIZE = 5;
+
+	/**
+	 * The bean that reports the bytes allocated by the current thread, null if this isn't supported by the JVM.
+	 */
+	private final com.sun.management.ThreadMXBean threads;
+
+	/**
+	 * The latency histograms in nanoseconds, indexed by opcode. The histograms of all known opcodes are created with
+	 * the metrics, and the elements of the other opcodes are null.
+	 */
+	private final Histogram[] latencies;
+
+	/**
+	 * The latency histogram of the opcodes that don't have their own histograms.
+	 */
+	private final Histogram otherLatencies;
+
+	/**
+	 * The number of bytes allocated during the queries, indexed by opcode. The last element is for the opcodes that
+	 * don't have their own histograms.
+	 */
+	private final long[] allocations;
+
+	/**
+	 * The histogram of the number of fills caused by every order.
+	 */
+	private final Histogram fillsPerOrder;
+
+	/**
+	 * The number of queries between two depth samples, 0 to take no samples.
+	 */
+	private final int sampleInterval;
+
+	/**
+	 * The depth samples, SAMPLE_SIZE values per sample.
+	 */
+	private long[] samples;
+
+	/**
+	 * The number of values in the depth samples array.
+	 */
+	private int sampleLength;
+
+	/**
+	 * The number of executed queries.
+	 */
+	private long queries;
+
+	/**
+	 * The time the current query started, in nanoseconds.
+	 */
+	private long startTime;
+
+	/**
+	 * The number of bytes allocated by the current thread when the current query started.
+	 */
+	private long startAllocation;
+
+	/**
+	 * The number of successful transactions of the market when the current query started.
+	 */
+	private int startTransactions;
+
+	/**
+	 * The time the first query started, in nanoseconds.
+	 */
+	private long firstStartTime;
+
+	/**
+	 * The time the last query ended, in nanoseconds.
+	 */
+	private long lastEndTime;
+
+	/**
+	 * Constructor for the QueryMetrics class.
+	 * @param sampleInterval The number of queries between two samples of the depth of the order books, 0 to take no
+	 * samples.
+	 */
+	public QueryMetrics(int sampleInterval) {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			this.threads = (com.sun.management.ThreadMXBean) bean;
+			this.threads.setThreadAllocatedMemoryEnabled(true);
+		} else {
+			this.threads = null;
+		}
+		this.latencies = new Histogram[OPCODES];
+		for(int opcode : KNOWN_OPCODES) {
+			this.latencies[opcode] = new Histogram();
+		}
+		this.otherLatencies = new Histogram();
+		this.allocations = new long[OPCODES + 1];
+		this.fillsPerOrder = new Histogram();
+		this.sampleInterval = sampleInterval;
+		this.samples = new long[SAMPLE_SIZE * 64];
+		this.sampleLength = 0;
+		this.queries = 0;
+		this.firstStartTime = 0;
+		this.lastEndTime = 0;
+	}
+
+	/**
+	 * This method is called right before a query is executed.
+	 * @param market The market the query is executed on.
+	 */
+	public void begin(Market market) {
+		this.startTransactions = market.getSuccessfulTransactions();
+		this.startAllocation = this.allocatedBytes();
+		this.startTime = System.nanoTime();
+		if(this.queries == 0) {
+			this.firstStartTime = this.startTime;
+		}
+	}
+
+	/**
+	 * This method is called right after a query is executed, and records its metrics.
+	 * @param market The market the query has been executed on.
+	 * @param opcode The opcode of the query.
+	 */
+	public void end(Market market, int opcode) {
+		long endTime = System.nanoTime();
+		long allocated = this.allocatedBytes() - this.startAllocation;
+		this.lastEndTime = endTime;
+		if(opcode >= 0 && opcode < OPCODES && this.latencies[opcode] != null) {
+			this.latencies[opcode].record(endTime - this.startTime);
+			this.allocations[opcode] += allocated;
+		} else {
+			this.otherLatencies.record(endTime - this.startTime);
+			this.allocations[OPCODES] += allocated;
+		}
+		if(opcode == 10 || opcode == 11 || opcode == 12 || opcode == 13 || opcode == 20 || opcode == 21 || opcode == 22
+				|| opcode == 23 || opcode == 31) {
+			this.fillsPerOrder.record(market.getSuccessfulTransactions() - this.startTransactions);
+		}
+		this.queries++;
+		if(this.sampleInterval > 0 && this.queries % this.sampleInterval == 0) {
+			this.sampleDepth(market);
+		}
+	}
+
+	/**
+	 * This method finds the number of bytes allocated by the current thread so far.
+	 * @return The number of bytes, 0 if this isn't supported by the JVM.
+	 */
+	private long allocatedBytes() {
+		return this.threads == null ? 0 : this.threads.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * This method adds a sample of the depth of the order books.
+	 * @param market The market.
+	 */
+	private void sampleDepth(Market market) {
+		if(this.sampleLength + SAMPLE_SIZE > this.samples.length) {
+			this.samples = Arrays.copyOf(this.samples, this.samples.length * 2);
+		}
+		this.samples[this.sampleLength++] = this.queries;
+		this.samples[this.sampleLength++] = market.getNumberOfBuyingLevels();
+		this.samples[this.sampleLength++] = market.getNumberOfBuyingOrders();
+		this.samples[this.sampleLength++] = market.getNumberOfSellingLevels();
+		this.samples[this.sampleLength++] = market.getNumberOfSellingOrders();
+	}
+
+	/**
+	 * Getter method for the latency histogram of an opcode.
+	 * @param opcode The opcode.
+	 * @return The latency histogram of the opcode in nanoseconds, which is shared by all opcodes that QueryExecutor
+	 * doesn't know.
+	 */
+	public Histogram getLatencies(int opcode) {
+		if(opcode >= 0 && opcode < OPCODES && this.latencies[opcode] != null) {
+			return this.latencies[opcode];
+		}
+		return this.otherLatencies;
+	}
+
+	/**
+	 * Getter method for the histogram of the number of fills per order.
+	 * @return The histogram of the number of fills caused by every buying, selling or amending order.
+	 */
+	public Histogram getFillsPerOrder() {
+		return this.fillsPerOrder;
+	}
+
+	/**
+	 * This method writes a summary of all metrics to a text file. Latencies are in microseconds.
+	 * @param path The path of the summary file. If the file already exists, it is overwritten.
+	 * @throws IOException If the file can't be written.
+	 */
+	public void writeSummary(Path path) throws IOException {
+		try(PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+			double seconds = (this.lastEndTime - this.firstStartTime) / 1e9;
+			out.println(String.format(Locale.ROOT, "queries %d, %.3f s, %.0f queries/s", this.queries, seconds,
+					seconds > 0 ? this.queries / seconds : 0));
+			if(this.threads == null) {
+				out.println("allocation counting isn't supported by this JVM");
+			}
+			out.println();
+			out.println(String.format(Locale.ROOT, "%-8s %10s %10s %10s %10s %10s %10s %10s %12s", "opcode", "count",
+					"mean", "p50", "p90", "p99", "p99.9", "max", "bytes/query"));
+			for(int i = 0; i < OPCODES; i++) {
+				if(this.latencies[i] != null && this.latencies[i].getCount() > 0) {
+					QueryMetrics.writeLatencies(out, Integer.toString(i), this.latencies[i], this.allocations[i]);
+				}
+			}
+			if(this.otherLatencies.getCount() > 0) {
+				QueryMetrics.writeLatencies(out, "other", this.otherLatencies, this.allocations[OPCODES]);
+			}
+			out.println();
+			out.println(String.format(Locale.ROOT, "fills per order: count %d, mean %.3f, p50 %d, p99 %d, max %d",
+					this.fillsPerOrder.getCount(), this.fillsPerOrder.getMean(),
+					this.fillsPerOrder.getValueAtPercentile(50), this.fillsPerOrder.getValueAtPercentile(99),
+					this.fillsPerOrder.getMax()));
+			if(this.sampleLength > 0) {
+				out.println();
+				out.println(String.format(Locale.ROOT, "%12s %12s %12s %12s %12s", "query", "buy levels",
+						"buy orders", "sell levels", "sell orders"));
+				for(int i = 0; i < this.sampleLength; i += SAMPLE_SIZE) {
+					out.println(String.format(Locale.ROOT, "%12d %12d %12d %12d %12d", this.samples[i],
+							this.samples[i + 1], this.samples[i + 2], this.samples[i + 3], this.samples[i + 4]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method writes a line of the latency table of the summary.
+	 * @param out The writer of the summary file.
+	 * @param name The name of the opcode.
+	 * @param latencies The latency histogram of the opcode, in nanoseconds.
+	 * @param allocated The number of bytes allocated by all queries with the opcode.
+	 */
+	private static void writeLatencies(PrintWriter out, String name, Histogram latencies, long allocated) {
+		out.println(String.format(Locale.ROOT, "%-8s %10d %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f %12.1f", name,
+				latencies.getCount(), latencies.getMean() / 1000, latencies.getValueAtPercentile(50) / 1000.0,
+				latencies.getValueAtPercentile(90) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+				latencies.getValueAtPercentile(99.9) / 1000.0, latencies.getMax() / 1000.0,
+				(double) allocated / latencies.getCount()));
+	}
+}
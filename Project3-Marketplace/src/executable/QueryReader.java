@@ -0,0 +1,248 @@
+package executable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import elements.FixedPoint;
+
+/**
+ * This class reads the numbers in a query file directly from its bytes. The file is read through a large buffer,
+ * and each number is decoded from the bytes of the buffer without creating a String for the line or for the number
+ * itself. Tokens are separated by spaces, and the lines can end with either "\n" or "\r\n".
+ * @author Eren
+ *
+ */
+public class QueryReader implements QuerySource {
+
+	/**
+	 * The size of the read buffer in bytes.
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * The maximum length of a single token in bytes.
+	 */
+	private static final int MAX_TOKEN_LENGTH = 64;
+
+	/**
+	 * The channel of the query file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The array that holds the part of the file that is being decoded.
+	 */
+	private final byte[] data;
+
+	/**
+	 * The buffer that wraps the data array, which is used to read from the channel.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The position in the file of the first byte in the data array.
+	 */
+	private long bufferStart;
+
+	/**
+	 * The index of the next unread byte in the data array.
+	 */
+	private int position;
+
+	/**
+	 * The number of valid bytes in the data array.
+	 */
+	private int limit;
+
+	/**
+	 * The array that holds the characters of the current token.
+	 */
+	private final byte[] token;
+
+	/**
+	 * The number of characters in the current token.
+	 */
+	private int tokenLength;
+
+	/**
+	 * Constructor for the QueryReader class.
+	 * @param path The path of the query file.
+	 * @throws IOException If the file can't be opened.
+	 */
+	public QueryReader(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.data = new byte[BUFFER_SIZE];
+		this.buffer = ByteBuffer.wrap(this.data);
+		this.bufferStart = 0;
+		this.position = 0;
+		this.limit = 0;
+		this.token = new byte[MAX_TOKEN_LENGTH];
+		this.tokenLength = 0;
+	}
+
+	/**
+	 * This method makes sure that there is at least one unread byte in the buffer, by reading the next part of the
+	 * file if needed.
+	 * @return true if there is an unread byte, false if the end of the file has been reached.
+	 */
+	private boolean fill() {
+		if(this.position < this.limit) {
+			return true;
+		}
+		try {
+			this.bufferStart += this.limit;
+			this.buffer.clear();
+			int read;
+			do {
+				read = this.channel.read(this.buffer);
+			} while(read == 0);
+			this.position = 0;
+			this.limit = Math.max(read, 0);
+			return read > 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Query file couldn't be read", e);
+		}
+	}
+
+	/**
+	 * Getter method for the position of the reader in the file.
+	 * @return The position of the next unread byte in the file.
+	 */
+	@Override
+	public long offset() {
+		return this.bufferStart + this.position;
+	}
+
+	/**
+	 * This method moves the reader to the given position in the file. The buffer is emptied, so the file is read
+	 * again from the new position.
+	 * @param offset The position of the next byte to be read, as returned by offset.
+	 */
+	@Override
+	public void seek(long offset) {
+		try {
+			this.channel.position(offset);
+			this.bufferStart = offset;
+			this.position = 0;
+			this.limit = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Query file couldn't be read", e);
+		}
+	}
+
+	/**
+	 * This method reads the next token of the file into the token array. Spaces and line breaks before the token are
+	 * skipped.
+	 */
+	private void readToken() {
+		while(this.fill()) {
+			byte c = this.data[this.position];
+			if(c != ' ' && c != '\r' && c != '\n' && c != '\t') {
+				break;
+			}
+			this.position++;
+		}
+		this.tokenLength = 0;
+		while(this.fill()) {
+			byte c = this.data[this.position];
+			if(c == ' ' || c == '\r' || c == '\n' || c == '\t') {
+				break;
+			}
+			if(this.tokenLength == MAX_TOKEN_LENGTH) {
+				throw new NumberFormatException("Token is too long");
+			}
+			this.token[this.tokenLength++] = c;
+			this.position++;
+		}
+		if(this.tokenLength == 0) {
+			throw new IllegalStateException("Unexpected end of the query file");
+		}
+	}
+
+	/**
+	 * This method reads the next token of the file as an integer.
+	 * @return The value of the token.
+	 */
+	@Override
+	public long nextLong() {
+		this.readToken();
+		int index = 0;
+		boolean negative = false;
+		if(this.token[0] == '-' || this.token[0] == '+') {
+			negative = this.token[0] == '-';
+			index++;
+		}
+		if(index == this.tokenLength) {
+			throw new NumberFormatException("Not a number: " + this.tokenString());
+		}
+		long value = 0;
+		for(; index < this.tokenLength; index++) {
+			int digit = this.token[index] - '0';
+			if(digit < 0 || digit > 9) {
+				throw new NumberFormatException("Not a number: " + this.tokenString());
+			}
+			value = Math.addExact(Math.multiplyExact(value, 10), digit);
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * This method reads the next token of the file as an int.
+	 * @return The value of the token.
+	 */
+	@Override
+	public int nextInt() {
+		return Math.toIntExact(this.nextLong());
+	}
+
+	/**
+	 * This method reads the next token of the file as a decimal number, and converts it into a fixed-point value.
+	 * @return The fixed-point value of the token.
+	 */
+	@Override
+	public long nextFixed() {
+		this.readToken();
+		return FixedPoint.parse(this.token, 0, this.tokenLength);
+	}
+
+	/**
+	 * This method skips the rest of the current line, including any tokens that haven't been read.
+	 */
+	@Override
+	public void skipLine() {
+		while(this.fill()) {
+			if(this.data[this.position++] == '\n') {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * This method reads the next query of the file, which is the rest of the current line.
+	 */
+	@Override
+	public void nextQuery(Query query) {
+		query.read(this);
+	}
+
+	/**
+	 * This method creates a String from the current token. It is only used for error messages.
+	 * @return The current token.
+	 */
+	private String tokenString() {
+		return new String(this.token, 0, this.tokenLength, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * This method closes the query file.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
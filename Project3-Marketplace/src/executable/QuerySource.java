@@ -0,0 +1,72 @@
+package executable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * This interface reads a query file, which is either a text file read by the QueryReader class or a binary file read
+ * by the BinaryQueryReader class. The numbers of the header (the seed, the fee, the numbers of traders and queries, and
+ * the wallets of the traders) are read one by one in the order they appear in the text format, and the queries are
+ * read whole.
+ * @author Eren
+ *
+ */
+public interface QuerySource extends Closeable {
+
+	/**
+	 * This method reads the next number of the header as a long.
+	 * @return The value of the number.
+	 */
+	long nextLong();
+
+	/**
+	 * This method reads the next number of the header as an int.
+	 * @return The value of the number.
+	 */
+	int nextInt();
+
+	/**
+	 * This method reads the next number of the header as a fixed-point value.
+	 * @return The fixed-point value of the number.
+	 */
+	long nextFixed();
+
+	/**
+	 * This method skips the rest of the current line of the header. Binary files have no lines, so it does nothing
+	 * for them.
+	 */
+	void skipLine();
+
+	/**
+	 * This method reads the next query of the file.
+	 * @param query The object the query is read into.
+	 */
+	void nextQuery(Query query);
+
+	/**
+	 * Getter method for the position of the reader in the file.
+	 * @return The position of the next unread byte in the file.
+	 */
+	long offset();
+
+	/**
+	 * This method moves the reader to the given position in the file.
+	 * @param offset The position of the next byte to be read, as returned by offset.
+	 */
+	void seek(long offset);
+
+	/**
+	 * This method opens a query file with the reader of its format. Binary files are recognized by their first bytes,
+	 * and all other files are read as text.
+	 * @param path The path of the query file.
+	 * @return The reader of the file.
+	 * @throws IOException If the file can't be opened.
+	 */
+	static QuerySource open(Path path) throws IOException {
+		if(BinaryQueryFormat.isBinary(path)) {
+			return new BinaryQueryReader(path);
+		}
+		return new QueryReader(path);
+	}
+}
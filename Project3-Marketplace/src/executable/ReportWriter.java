@@ -0,0 +1,266 @@
+package executable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import elements.FixedPoint;
+
+/**
+ * This class writes the output of the program into a large buffer, which is written to the output file only when it
+ * is full or when the writer is flushed. Numbers are formatted directly into the buffer. Decimal numbers are always
+ * printed with 5 decimals, rounded half up, exactly like the "%.5f" format of String.format.
+ * @author Eren
+ *
+ */
+public class ReportWriter implements Closeable {
+
+	/**
+	 * The size of the write buffer in bytes.
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * The number of decimals printed for decimal numbers.
+	 */
+	private static final int OUTPUT_DECIMALS = 5;
+
+	/**
+	 * 10 to the power of the number of printed decimals.
+	 */
+	private static final long OUTPUT_SCALE = 100000L;
+
+	/**
+	 * The channel of the output file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The array that holds the output that hasn't been written to the file yet.
+	 */
+	private final byte[] data;
+
+	/**
+	 * The buffer that wraps the data array, which is used to write to the channel.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The number of bytes in the data array.
+	 */
+	private int position;
+
+	/**
+	 * The array used for writing the digits of integers in reverse order.
+	 */
+	private final byte[] digits;
+
+	/**
+	 * Constructor for the ReportWriter class. If the file already exists, it is overwritten.
+	 * @param path The path of the output file.
+	 * @throws IOException If the file can't be created.
+	 */
+	public ReportWriter(Path path) throws IOException {
+		this(path, false);
+	}
+
+	/**
+	 * Constructor for the ReportWriter class.
+	 * @param path The path of the output file.
+	 * @param keep true if the contents of an existing file should be kept, so that the output can be continued with
+	 * truncate, false if the file should be overwritten.
+	 * @throws IOException If the file can't be created.
+	 */
+	public ReportWriter(Path path, boolean keep) throws IOException {
+		if(keep) {
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		} else {
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE);
+		}
+		this.data = new byte[BUFFER_SIZE];
+		this.buffer = ByteBuffer.wrap(this.data);
+		this.position = 0;
+		this.digits = new byte[20];
+	}
+
+	/**
+	 * This method makes sure that there is space for at least the given number of bytes in the buffer, by writing
+	 * the buffer to the file if needed.
+	 * @param length The number of bytes.
+	 */
+	private void ensureSpace(int length) {
+		if(this.position + length > this.data.length) {
+			this.flush();
+		}
+	}
+
+	/**
+	 * This method writes a single ASCII character.
+	 * @param c The character to be written.
+	 */
+	public void print(char c) {
+		this.ensureSpace(1);
+		this.data[this.position++] = (byte) c;
+	}
+
+	/**
+	 * This method writes a String that consists of ASCII characters.
+	 * @param text The String to be written.
+	 */
+	public void print(String text) {
+		int length = text.length();
+		for(int i = 0; i < length; i++) {
+			this.print(text.charAt(i));
+		}
+	}
+
+	/**
+	 * This method writes an integer in decimal notation.
+	 * @param value The integer to be written.
+	 */
+	public void print(long value) {
+		this.ensureSpace(this.digits.length);
+		if(value < 0) {
+			this.data[this.position++] = '-';
+		}
+		int count = 0;
+		do {
+			this.digits[count++] = (byte) ('0' + Math.abs(value % 10));
+			value /= 10;
+		} while(value != 0);
+		while(count > 0) {
+			this.data[this.position++] = this.digits[--count];
+		}
+	}
+
+	/**
+	 * This method writes a line break.
+	 */
+	public void println() {
+		this.print('\n');
+	}
+
+	/**
+	 * This method writes a fixed-point value, such as an amount of dollars or PQoins, with 5 decimals.
+	 * @param value The fixed-point value.
+	 */
+	public void printFixed(long value) {
+		this.printDecimal(value, FixedPoint.DECIMALS);
+	}
+
+	/**
+	 * This method writes a fixed-point value exactly, with as many decimals as it needs and no trailing zeros, so that
+	 * reading it back gives the same value. It is used for writing query files, not the output of the program.
+	 * @param value The fixed-point value.
+	 */
+	public void printExactFixed(long value) {
+		if(value < 0) {
+			this.print('-');
+		}
+		this.print(Math.abs(value / FixedPoint.SCALE));
+		long fraction = Math.abs(value % FixedPoint.SCALE);
+		if(fraction == 0) {
+			return;
+		}
+		int decimals = FixedPoint.DECIMALS;
+		while(fraction % 10 == 0) {
+			fraction /= 10;
+			decimals--;
+		}
+		this.ensureSpace(decimals + 1);
+		this.data[this.position++] = '.';
+		for(int i = decimals - 1; i >= 0; i--) {
+			this.data[this.position + i] = (byte) ('0' + fraction % 10);
+			fraction /= 10;
+		}
+		this.position += decimals;
+	}
+
+	/**
+	 * This method writes the decimal number unscaled * 10^-scale with 5 decimals, rounded half up.
+	 * @param unscaled The digits of the number.
+	 * @param scale The number of decimals in the unscaled value, at least 5.
+	 */
+	public void printDecimal(long unscaled, int scale) {
+		long divisor = 1;
+		for(int i = OUTPUT_DECIMALS; i < scale; i++) {
+			divisor *= 10;
+		}
+		boolean negative = unscaled < 0;
+		long absolute = Math.abs(unscaled);
+		long rounded = absolute / divisor;
+		if((absolute % divisor) * 2 >= divisor && divisor > 1) {
+			rounded++;
+		}
+		if(negative) {
+			this.print('-');
+		}
+		this.print(rounded / OUTPUT_SCALE);
+		this.ensureSpace(OUTPUT_DECIMALS + 1);
+		this.data[this.position++] = '.';
+		long fraction = rounded % OUTPUT_SCALE;
+		for(int i = OUTPUT_DECIMALS - 1; i >= 0; i--) {
+			this.data[this.position + i] = (byte) ('0' + fraction % 10);
+			fraction /= 10;
+		}
+		this.position += OUTPUT_DECIMALS;
+	}
+
+	/**
+	 * This method writes everything in the buffer to the output file.
+	 */
+	public void flush() {
+		try {
+			this.buffer.clear();
+			this.buffer.limit(this.position);
+			while(this.buffer.hasRemaining()) {
+				this.channel.write(this.buffer);
+			}
+			this.position = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Output file couldn't be written", e);
+		}
+	}
+
+	/**
+	 * This method flushes the buffer and returns the size of the output written so far.
+	 * @return The position in the output file at which the next byte will be written.
+	 */
+	public long offset() {
+		this.flush();
+		try {
+			return this.channel.position();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Output file couldn't be read", e);
+		}
+	}
+
+	/**
+	 * This method cuts the output file at the given position, and continues writing from there. Anything in the
+	 * buffer is written before the file is cut.
+	 * @param offset The new size of the output file, as returned by offset.
+	 */
+	public void truncate(long offset) {
+		this.flush();
+		try {
+			this.channel.truncate(offset);
+			this.channel.position(offset);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Output file couldn't be truncated", e);
+		}
+	}
+
+	/**
+	 * This method flushes the buffer and closes the output file.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.flush();
+		this.channel.close();
+	}
+}
@@ -0,0 +1,57 @@
+package executable;
+
+/**
+ * This interface receives the results of the queries that produce output. Implementations decide how and when the
+ * results are written to the output file.
+ * @author Eren
+ *
+ */
+public interface Reporter {
+
+	/**
+	 * This method reports the total amounts of dollars and PQoins of a trader, for orders #5 and #555.
+	 * @param traderID ID of the trader.
+	 * @param dollars Total amount of dollars of the trader, in ticks.
+	 * @param coins Total amount of PQoins of the trader, in lots.
+	 */
+	void reportTrader(int traderID, long dollars, long coins);
+
+	/**
+	 * This method reports the size of the market, for order #500.
+	 * @param dollars Total amount of dollars in the buying orders, in ticks.
+	 * @param coins Total amount of PQoins in the selling orders, in lots.
+	 */
+	void reportMarketSize(long dollars, long coins);
+
+	/**
+	 * This method reports the number of successful transactions, for order #501.
+	 * @param count The number of successful transactions.
+	 */
+	void reportSuccessfulTransactions(int count);
+
+	/**
+	 * This method reports the number of invalid queries, for order #502.
+	 * @param count The number of invalid queries.
+	 */
+	void reportInvalidQueries(int count);
+
+	/**
+	 * This method reports the current prices of the market, for order #505.
+	 * @param buyingPrice The price of the most expensive buying order, in ticks.
+	 * @param sellingPrice The price of the cheapest selling order, in ticks.
+	 * @param average The average of the prices, in tenths of ticks.
+	 */
+	void reportPrices(long buyingPrice, long sellingPrice, long average);
+
+	/**
+	 * This method reports a single candle, for order #600.
+	 * @param index Index of the candle.
+	 * @param open The open price of the candle, in ticks.
+	 * @param high The highest price of the candle, in ticks.
+	 * @param low The lowest price of the candle, in ticks.
+	 * @param close The close price of the candle, in ticks.
+	 * @param volume The traded amount of PQoins during the candle, in lots.
+	 * @param vwap The volume weighted average price of the candle, in ticks.
+	 */
+	void reportCandle(long index, long open, long high, long low, long close, long volume, long vwap);
+}
@@ -0,0 +1,223 @@
+package executable;
+
+/**
+ * This class passes the results of the queries from the thread that executes the queries to the thread that writes
+ * the output, through a ring buffer of preallocated events. The executing thread calls the report methods, and the
+ * writing thread calls forward, which hands every event to the actual reporter in the same order.
+ * @author Eren
+ *
+ */
+public class RingReporter implements Reporter {
+
+	/**
+	 * Kinds of the events in the ring.
+	 */
+	private static final int TRADER = 0;
+	private static final int MARKET_SIZE = 1;
+	private static final int SUCCESSFUL_TRANSACTIONS = 2;
+	private static final int INVALID_QUERIES = 3;
+	private static final int PRICES = 4;
+	private static final int CANDLE = 5;
+	private static final int END = 6;
+
+	/**
+	 * This class represents a single report in the ring. The meaning of the fields depends on the kind of the
+	 * report, and follows the parameters of the corresponding method of the Reporter interface.
+	 * @author Eren
+	 *
+	 */
+	private static class Event {
+
+		/**
+		 * Kind of the report.
+		 */
+		int kind;
+
+		/**
+		 * The integer parameter of the report.
+		 */
+		int id;
+
+		/**
+		 * The first long parameter of the report.
+		 */
+		long first;
+
+		/**
+		 * The second long parameter of the report.
+		 */
+		long second;
+
+		/**
+		 * The third long parameter of the report.
+		 */
+		long third;
+
+		/**
+		 * The fourth long parameter of the report.
+		 */
+		long fourth;
+
+		/**
+		 * The fifth long parameter of the report.
+		 */
+		long fifth;
+
+		/**
+		 * The sixth long parameter of the report.
+		 */
+		long sixth;
+
+		/**
+		 * The seventh long parameter of the report.
+		 */
+		long seventh;
+	}
+
+	/**
+	 * The ring the events are passed through.
+	 */
+	private final SpscRing<Event> ring;
+
+	/**
+	 * Constructor for the RingReporter class.
+	 * @param capacity The number of events the ring can hold.
+	 */
+	public RingReporter(int capacity) {
+		this.ring = new SpscRing<Event>(capacity, Event::new);
+	}
+
+	/**
+	 * This method puts an event into the ring.
+	 * @param kind Kind of the event.
+	 * @param id The integer parameter of the event.
+	 * @param first The first long parameter of the event.
+	 * @param second The second long parameter of the event.
+	 * @param third The third long parameter of the event.
+	 */
+	private void put(int kind, int id, long first, long second, long third) {
+		Event event = this.ring.claim();
+		event.kind = kind;
+		event.id = id;
+		event.first = first;
+		event.second = second;
+		event.third = third;
+		this.ring.publish();
+	}
+
+	/**
+	 * This method puts the report into the ring, to be written by the writing thread.
+	 */
+	@Override
+	public void reportTrader(int traderID, long dollars, long coins) {
+		this.put(TRADER, traderID, dollars, coins, 0);
+	}
+
+	/**
+	 * This method puts the report into the ring, to be written by the writing thread.
+	 */
+	@Override
+	public void reportMarketSize(long dollars, long coins) {
+		this.put(MARKET_SIZE, 0, dollars, coins, 0);
+	}
+
+	/**
+	 * This method puts the report into the ring, to be written by the writing thread.
+	 */
+	@Override
+	public void reportSuccessfulTransactions(int count) {
+		this.put(SUCCESSFUL_TRANSACTIONS, count, 0, 0, 0);
+	}
+
+	/**
+	 * This method puts the report into the ring, to be written by the writing thread.
+	 */
+	@Override
+	public void reportInvalidQueries(int count) {
+		this.put(INVALID_QUERIES, count, 0, 0, 0);
+	}
+
+	/**
+	 * This method puts the report into the ring, to be written by the writing thread.
+	 */
+	@Override
+	public void reportPrices(long buyingPrice, long sellingPrice, long average) {
+		this.put(PRICES, 0, buyingPrice, sellingPrice, average);
+	}
+
+	/**
+	 * This method puts the report into the ring, to be written by the writing thread.
+	 */
+	@Override
+	public void reportCandle(long index, long open, long high, long low, long close, long volume, long vwap) {
+		Event event = this.ring.claim();
+		event.kind = CANDLE;
+		event.first = index;
+		event.second = open;
+		event.third = high;
+		event.fourth = low;
+		event.fifth = close;
+		event.sixth = volume;
+		event.seventh = vwap;
+		this.ring.publish();
+	}
+
+	/**
+	 * This method is called by the executing thread after the last query, to tell the writing thread that there are
+	 * no more reports.
+	 */
+	public void finish() {
+		this.put(END, 0, 0, 0, 0);
+	}
+
+	/**
+	 * This method is called by the writing thread. It hands all events in the ring to the given reporter, until the
+	 * executing thread calls finish. If the reporter fails, the remaining events are still taken out of the ring so
+	 * that the executing thread never waits forever, and the failure is thrown after the last event.
+	 * @param target The reporter that actually writes the output.
+	 */
+	public void forward(Reporter target) {
+		RuntimeException failure = null;
+		while(true) {
+			Event event = this.ring.take();
+			int kind = event.kind;
+			if(failure == null) {
+				try {
+					RingReporter.dispatch(event, target);
+				} catch (RuntimeException e) {
+					failure = e;
+				}
+			}
+			this.ring.release();
+			if(kind == END) {
+				if(failure != null) {
+					throw failure;
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * This method hands a single event to a reporter.
+	 * @param event The event.
+	 * @param target The reporter.
+	 */
+	private static void dispatch(Event event, Reporter target) {
+		int kind = event.kind;
+		if(kind == TRADER) {
+			target.reportTrader(event.id, event.first, event.second);
+		} else if(kind == MARKET_SIZE) {
+			target.reportMarketSize(event.first, event.second);
+		} else if(kind == SUCCESSFUL_TRANSACTIONS) {
+			target.reportSuccessfulTransactions(event.id);
+		} else if(kind == INVALID_QUERIES) {
+			target.reportInvalidQueries(event.id);
+		} else if(kind == PRICES) {
+			target.reportPrices(event.first, event.second, event.third);
+		} else if(kind == CANDLE) {
+			target.reportCandle(event.first, event.second, event.third, event.fourth, event.fifth, event.sixth,
+					event.seventh);
+		}
+	}
+}
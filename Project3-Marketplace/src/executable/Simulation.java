@@ -0,0 +1,467 @@
+package executable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import elements.CandleSeries;
+import elements.Market;
+import elements.TradeJournal;
+import elements.Trader;
+
+/**
+ * This class represents a single run of the marketplace over one query file. Each simulation has its own market,
+ * traders and random number generator, so any number of simulations can run at the same time in different threads.
+ * @author Eren
+ *
+ */
+public class Simulation {
+	
+	/**
+	 * The number of slots in each ring of the pipelined mode.
+	 */
+	private static final int RING_SIZE = 4096;
+	
+	/**
+	 * The opcode the parsing thread puts into the query ring when it fails.
+	 */
+	private static final int PARSE_FAILED = -1;
+	
+	/**
+	 * The reader of the query file.
+	 */
+	private final QuerySource in;
+	
+	/**
+	 * The writer of the output file.
+	 */
+	private final ReportWriter out;
+	
+	/**
+	 * The journal the transactions are recorded in, null if a temporary journal is used.
+	 */
+	private final TradeJournal journal;
+	
+	/**
+	 * The random number generator of the simulation, which is used during order #777.
+	 */
+	private Random random;
+	
+	/**
+	 * The market of the simulation.
+	 */
+	private Market market;
+	
+	/**
+	 * The store of the snapshots and the write-ahead log, null if no snapshots are taken.
+	 */
+	private SnapshotStore snapshots;
+	
+	/**
+	 * The number of queries between two snapshots.
+	 */
+	private int snapshotInterval;
+	
+	/**
+	 * Whether the simulation continues from the state in the snapshot store instead of starting from scratch.
+	 */
+	private boolean recover;
+	
+	/**
+	 * The sink of the level 2 market data feed, null if no feed is published.
+	 */
+	private MarketDataSink marketData;
+	
+	/**
+	 * The number of queries whose changes are conflated in the market data feed.
+	 */
+	private int depthBatchSize;
+	
+	/**
+	 * The number of queries between two snapshots of the market data feed.
+	 */
+	private int depthSnapshotInterval;
+	
+	/**
+	 * The metrics of the executed queries, null if no metrics are collected.
+	 */
+	private QueryMetrics metrics;
+	
+	/**
+	 * The number of queries or fills covered by each candle, 0 if no candles are built.
+	 */
+	private int candlePeriod;
+	
+	/**
+	 * true if each candle covers a number of fills, false if it covers a number of queries.
+	 */
+	private boolean candlesByTrades;
+	
+	/**
+	 * The number of latest candles that are kept.
+	 */
+	private int candleCapacity;
+	
+	/**
+	 * The schedule of the call auctions, null if the market is matched continuously.
+	 */
+	private AuctionSchedule auctions;
+	
+	/**
+	 * The time the current auction window started in milliseconds since the epoch, which is restored from the
+	 * snapshot when the simulation continues from one, -1 to start the first window at the first query.
+	 */
+	private long auctionWindowStart;
+	
+	/**
+	 * Constructor for the Simulation class.
+	 * @param in The reader of the query file.
+	 * @param out The writer of the output file.
+	 * @param journal The journal the transactions are recorded in, null to use a temporary journal.
+	 */
+	public Simulation(QuerySource in, ReportWriter out, TradeJournal journal) {
+		this.in = in;
+		this.out = out;
+		this.journal = journal;
+		this.snapshots = null;
+		this.snapshotInterval = 0;
+		this.recover = false;
+		this.marketData = null;
+		this.depthBatchSize = 0;
+		this.depthSnapshotInterval = 0;
+		this.metrics = null;
+		this.candlePeriod = 0;
+		this.candlesByTrades = false;
+		this.candleCapacity = 0;
+		this.auctions = null;
+		this.auctionWindowStart = -1;
+	}
+	
+	/**
+	 * This method makes the simulation take a snapshot of its state after every given number of queries, and log
+	 * every query before it is executed. If recover is true, the simulation doesn't start from scratch: it loads the
+	 * latest snapshot, executes the queries logged after it again, and continues the query file from the first query
+	 * that isn't in the log. In that case, the output file and the trade journal must have been opened with their
+	 * contents kept, so that they can be cut back to their state at the time of the snapshot.
+	 * @param store The store of the snapshots and the write-ahead log.
+	 * @param interval The number of queries between two snapshots.
+	 * @param recover true to continue from the state in the store, false to start from scratch.
+	 */
+	public void enableSnapshots(SnapshotStore store, int interval, boolean recover) {
+		this.snapshots = store;
+		this.snapshotInterval = interval;
+		this.recover = recover;
+	}
+	
+	/**
+	 * This method makes the simulation publish the level 2 market data feed of its market. The feed starts with a
+	 * snapshot of the depth when the queries start, which is the restored depth if the simulation continues from a
+	 * snapshot. The sink is closed at the end of the run.
+	 * @param sink The sink of the feed.
+	 * @param batchSize The number of queries whose changes are conflated, 1 or less to disable conflation.
+	 * @param snapshotInterval The number of queries between two snapshots of the depth, 0 to only publish the first
+	 * one.
+	 */
+	public void publishMarketData(MarketDataSink sink, int batchSize, int snapshotInterval) {
+		this.marketData = sink;
+		this.depthBatchSize = batchSize;
+		this.depthSnapshotInterval = snapshotInterval;
+	}
+	
+	/**
+	 * This method makes the simulation record the metrics of every query it executes, including the queries that are
+	 * executed again from the write-ahead log during recovery.
+	 * @param metrics The metrics the queries are recorded in.
+	 */
+	public void collectMetrics(QueryMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * This method makes the simulation build OHLCV candles from the fills of its market, which can be read with order
+	 * #600. Candles aren't part of the snapshots, so after a recovery they start again from the restored state.
+	 * @param period The number of queries or fills covered by each candle.
+	 * @param byTrades true if each candle covers a number of fills, false if it covers a number of queries.
+	 * @param capacity The number of latest candles that are kept.
+	 */
+	public void buildCandles(int period, boolean byTrades, int capacity) {
+		this.candlePeriod = period;
+		this.candlesByTrades = byTrades;
+		this.candleCapacity = capacity;
+	}
+	
+	/**
+	 * This method makes the simulation run its market as a series of call auctions. The orders of each window are
+	 * collected and then uncrossed at a single price, instead of being matched as soon as they arrive. Orders that are
+	 * still collecting at the end of the file are left in the books.
+	 * @param auctions The schedule of the auctions.
+	 */
+	public void runAuctions(AuctionSchedule auctions) {
+		this.auctions = auctions;
+	}
+	
+	/**
+	 * This method processes the whole query file, writing the results of the queries to the output file. The trade
+	 * journal and the market data sink are closed at the end, but the query reader and the output writer are left
+	 * open.
+	 * <p>
+	 * If the system property "market.pipelined" is true, the queries are parsed and the results are written by two
+	 * extra threads, while the current thread only executes the queries. The output is the same in both modes. The
+	 * pipelined mode isn't used when snapshots are enabled. If the system property "market.offHeapOrders" is true, the
+	 * active orders of the market are stored outside of the heap.
+	 * @throws IOException If the trade journal or the market data sink can't be closed, or the snapshots can't be read
+	 * or written.
+	 */
+	public void run() throws IOException {
+		long seed = this.in.nextLong();
+		this.in.skipLine();
+		
+		int marketFee = this.in.nextInt();
+		int numOfUsers = this.in.nextInt();
+		int numOfQueries = this.in.nextInt();
+		this.in.skipLine();
+		
+		boolean offHeapOrders = Boolean.getBoolean("market.offHeapOrders");
+		long executed = 0;
+		DataInputStream snapshot = this.recover ? this.snapshots.openSnapshot() : null;
+		if(snapshot != null) {
+			executed = this.restoreSnapshot(snapshot, offHeapOrders);
+			snapshot.close();
+		} else {
+			this.random = new Random(seed);
+			TradeJournal journal = this.journal != null ? this.journal : TradeJournal.createTemporary();
+			this.market = new Market(marketFee, journal, offHeapOrders);
+			for(int i = 0; i < numOfUsers; i++) {
+				long dollars = this.in.nextFixed();
+				long coins = this.in.nextFixed();
+				this.in.skipLine();
+				new Trader(this.market, dollars, coins);
+			}
+			if(this.recover) {
+				this.out.truncate(0);
+			} else if(this.snapshots != null) {
+				this.snapshots.clear();
+			}
+		}
+		this.market.setVerificationInterval(Integer.getInteger("market.verifyInterval", 0));
+		MarketDataPublisher publisher = null;
+		if(this.marketData != null) {
+			publisher = new MarketDataPublisher(this.market, this.marketData, this.depthBatchSize,
+					this.depthSnapshotInterval);
+			publisher.start();
+		}
+		CandleSeries candles = null;
+		if(this.candlePeriod > 0) {
+			candles = new CandleSeries(this.candlePeriod, this.candlesByTrades, this.candleCapacity);
+			this.market.setTradeListener(candles);
+		}
+		if(this.auctions != null) {
+			this.auctions.start(this.market, executed, this.auctionWindowStart);
+		}
+		
+		if(Boolean.getBoolean("market.pipelined") && this.snapshots == null) {
+			this.runPipelined(numOfQueries, publisher, candles);
+		} else {
+			QueryExecutor executor = new QueryExecutor(this.market, this.random, new TextReporter(this.out));
+			executor.setMarketData(publisher);
+			executor.setMetrics(this.metrics);
+			executor.setCandles(candles);
+			executor.setAuctions(this.auctions);
+			Query query = new Query();
+			if(this.recover) {
+				executed = this.replayLog(executor, query, executed);
+			}
+			for(long i = executed; i < numOfQueries; i++) {
+				this.in.nextQuery(query);
+				long time = System.currentTimeMillis();
+				if(this.snapshots != null) {
+					this.snapshots.getLog().append(i, query, this.in.offset(), time);
+				}
+				if(this.auctions != null) {
+					this.auctions.setTime(time);
+				}
+				executor.execute(query);
+				if(this.snapshots != null && (i + 1) % this.snapshotInterval == 0) {
+					this.saveSnapshot(i + 1);
+				}
+			}
+		}
+		
+		if(publisher != null) {
+			publisher.close();
+		}
+		this.market.getTradeJournal().close();
+	}
+	
+	/**
+	 * This method saves a snapshot of the whole state of the simulation: the position in the query file, the size of
+	 * the output file, the state of the random number generator, the start of the current auction window and the
+	 * state of the market.
+	 * @param executed The number of queries executed so far.
+	 * @throws IOException If the snapshot can't be written.
+	 */
+	private void saveSnapshot(long executed) throws IOException {
+		long outputOffset = this.out.offset();
+		ByteArrayOutputStream random = new ByteArrayOutputStream();
+		try(ObjectOutputStream randomOut = new ObjectOutputStream(random)) {
+			randomOut.writeObject(this.random);
+		}
+		
+		DataOutputStream snapshot = this.snapshots.beginSnapshot();
+		snapshot.writeLong(executed);
+		snapshot.writeLong(this.in.offset());
+		snapshot.writeLong(outputOffset);
+		snapshot.writeInt(random.size());
+		random.writeTo(snapshot);
+		snapshot.writeLong(this.auctions != null ? this.auctions.getWindowStart() : -1);
+		this.market.writeSnapshot(snapshot);
+		this.snapshots.commitSnapshot(snapshot);
+	}
+	
+	/**
+	 * This method restores the state of the simulation from a snapshot written by saveSnapshot. The query file and
+	 * the output file are moved back to their positions at the time of the snapshot.
+	 * @param snapshot The stream of the snapshot.
+	 * @param offHeapOrders true to store the active orders of the restored market outside of the heap.
+	 * @return The number of queries executed before the snapshot.
+	 * @throws IOException If the snapshot can't be read.
+	 */
+	private long restoreSnapshot(DataInputStream snapshot, boolean offHeapOrders) throws IOException {
+		long executed = snapshot.readLong();
+		long inputOffset = snapshot.readLong();
+		long outputOffset = snapshot.readLong();
+		byte[] random = new byte[snapshot.readInt()];
+		snapshot.readFully(random);
+		try(ObjectInputStream randomIn = new ObjectInputStream(new ByteArrayInputStream(random))) {
+			this.random = (Random) randomIn.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Random number generator couldn't be restored", e);
+		}
+		this.auctionWindowStart = snapshot.readLong();
+		this.market = Market.readSnapshot(snapshot, this.journal, offHeapOrders);
+		
+		this.in.seek(inputOffset);
+		this.out.truncate(outputOffset);
+		return executed;
+	}
+	
+	/**
+	 * This method executes the queries in the write-ahead log that come after the restored state, then moves the
+	 * query file to the first query that isn't in the log. The outputs of these queries are written again.
+	 * @param executor The query executor.
+	 * @param query The object the queries are read into.
+	 * @param executed The number of queries executed before the restored state.
+	 * @return The number of queries executed after the log has been replayed.
+	 * @throws IOException If the log can't be read.
+	 */
+	private long replayLog(QueryExecutor executor, Query query, long executed) throws IOException {
+		long inputOffset = -1;
+		try(QueryLog.Reader log = this.snapshots.getLog().read()) {
+			while(log.next(query)) {
+				if(log.getSequence() < executed) {
+					continue;
+				}
+				if(log.getSequence() > executed) {
+					break;
+				}
+				if(this.auctions != null) {
+					this.auctions.setTime(log.getTime());
+				}
+				executor.execute(query);
+				executed++;
+				inputOffset = log.getInputOffset();
+			}
+		}
+		if(inputOffset >= 0) {
+			this.in.seek(inputOffset);
+		}
+		return executed;
+	}
+	
+	/**
+	 * This method processes the queries in three stages that run at the same time: a parsing thread reads the
+	 * queries into a ring, the current thread executes them in order, and a writing thread takes the results from a
+	 * second ring and writes them to the output file. The risk checks of the traders and the matching of the orders
+	 * are both done by the current thread, since both of them change the wallets and the order of these changes
+	 * decides the results.
+	 * @param numOfQueries The number of queries in the file.
+	 * @param publisher The publisher of the market data feed, null if no feed is published.
+	 * @param candles The candles built from the fills of the market, null if no candles are built.
+	 */
+	private void runPipelined(int numOfQueries, MarketDataPublisher publisher, CandleSeries candles) {
+		SpscRing<Query> queries = new SpscRing<Query>(RING_SIZE, Query::new);
+		RingReporter reports = new RingReporter(RING_SIZE);
+		TextReporter text = new TextReporter(this.out);
+		AtomicReference<Throwable> parseFailure = new AtomicReference<Throwable>();
+		AtomicReference<Throwable> reportFailure = new AtomicReference<Throwable>();
+		
+		Thread parser = new Thread(() -> {
+			try {
+				for(int i = 0; i < numOfQueries; i++) {
+					Query query = queries.claim();
+					this.in.nextQuery(query);
+					queries.publish();
+				}
+			} catch (Throwable e) {
+				parseFailure.set(e);
+				queries.claim().set(PARSE_FAILED, 0, 0, 0, 0, 0);
+				queries.publish();
+			}
+		}, "query-parser");
+		Thread writer = new Thread(() -> {
+			try {
+				reports.forward(text);
+			} catch (Throwable e) {
+				reportFailure.set(e);
+			}
+		}, "report-writer");
+		parser.setDaemon(true);
+		parser.start();
+		writer.start();
+		
+		QueryExecutor executor = new QueryExecutor(this.market, this.random, reports);
+		executor.setMarketData(publisher);
+		executor.setMetrics(this.metrics);
+		executor.setCandles(candles);
+		executor.setAuctions(this.auctions);
+		try {
+			for(int i = 0; i < numOfQueries; i++) {
+				Query query = queries.take();
+				if(query.getOpcode() == PARSE_FAILED) {
+					break;
+				}
+				if(this.auctions != null) {
+					this.auctions.setTime(System.currentTimeMillis());
+				}
+				executor.execute(query);
+				queries.release();
+			}
+		} finally {
+			reports.finish();
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		Throwable failure = parseFailure.get() != null ? parseFailure.get() : reportFailure.get();
+		if(failure != null) {
+			throw new IllegalStateException("The pipeline failed.", failure);
+		}
+	}
+	
+	/**
+	 * Getter method for the market of the simulation.
+	 * @return The market of the simulation, null if the simulation hasn't started yet.
+	 */
+	public Market getMarket() {
+		return this.market;
+	}
+}
@@ -0,0 +1,140 @@
+package executable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * This class manages the directory in which a simulation keeps its recovery state: the latest snapshot and the
+ * write-ahead log of the queries executed after it. A new snapshot is first written to a temporary file and then moved
+ * over the old one, so there is always a complete snapshot in the directory, even if the program crashes while a
+ * snapshot is being written.
+ * @author Eren
+ *
+ */
+public class SnapshotStore implements Closeable {
+
+	/**
+	 * The number written at the start of every snapshot file.
+	 */
+	private static final int MAGIC = 0x4D4B5453;
+
+	/**
+	 * The version of the snapshot format.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * The path of the latest snapshot.
+	 */
+	private final Path snapshotPath;
+
+	/**
+	 * The path the next snapshot is written to before it replaces the latest one.
+	 */
+	private final Path temporaryPath;
+
+	/**
+	 * The write-ahead log of the queries.
+	 */
+	private final QueryLog log;
+
+	/**
+	 * The stream of the file of the snapshot being written, null if no snapshot is being written.
+	 */
+	private FileOutputStream pending;
+
+	/**
+	 * Constructor for the SnapshotStore class. The directory is created if it doesn't exist yet.
+	 * @param directory The directory of the recovery state.
+	 * @throws IOException If the directory or the log file can't be created.
+	 */
+	public SnapshotStore(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		this.snapshotPath = directory.resolve("snapshot.bin");
+		this.temporaryPath = directory.resolve("snapshot.tmp");
+		this.log = new QueryLog(directory.resolve("queries.log"));
+		this.pending = null;
+	}
+
+	/**
+	 * Getter method for the write-ahead log of the queries.
+	 * @return The write-ahead log.
+	 */
+	public QueryLog getLog() {
+		return this.log;
+	}
+
+	/**
+	 * This method removes the latest snapshot and all records of the write-ahead log. It is called when a simulation
+	 * starts from scratch, so that the state of an earlier run is never restored.
+	 * @throws IOException If the snapshot can't be deleted.
+	 */
+	public void clear() throws IOException {
+		Files.deleteIfExists(this.snapshotPath);
+		this.log.reset();
+	}
+
+	/**
+	 * This method opens the latest snapshot for reading.
+	 * @return The stream of the snapshot, positioned after its header, or null if there is no snapshot.
+	 * @throws IOException If the snapshot can't be read, or it isn't a snapshot of the current format.
+	 */
+	public DataInputStream openSnapshot() throws IOException {
+		if(!Files.exists(this.snapshotPath)) {
+			return null;
+		}
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.snapshotPath)));
+		if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+			in.close();
+			throw new IOException("Unknown snapshot format in " + this.snapshotPath);
+		}
+		return in;
+	}
+
+	/**
+	 * This method starts writing a new snapshot. The snapshot replaces the latest one only after commitSnapshot is
+	 * called.
+	 * @return The stream the snapshot should be written to, positioned after its header.
+	 * @throws IOException If the file of the snapshot can't be created.
+	 */
+	public DataOutputStream beginSnapshot() throws IOException {
+		this.pending = new FileOutputStream(this.temporaryPath.toFile());
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(this.pending));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		return out;
+	}
+
+	/**
+	 * This method finishes the snapshot started by beginSnapshot. The snapshot is forced to the disk and replaces the
+	 * latest one, then the write-ahead log is emptied, since the queries in it are already part of the snapshot.
+	 * @param out The stream returned by beginSnapshot.
+	 * @throws IOException If the snapshot can't be written.
+	 */
+	public void commitSnapshot(DataOutputStream out) throws IOException {
+		out.flush();
+		this.pending.getFD().sync();
+		out.close();
+		this.pending = null;
+		Files.move(this.temporaryPath, this.snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		this.log.reset();
+	}
+
+	/**
+	 * This method writes the buffered records of the write-ahead log to the disk and closes it.
+	 * @throws IOException If the log can't be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.log.close();
+	}
+}
@@ -0,0 +1,165 @@
+package executable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * This class is a bounded ring buffer between exactly one producer thread and exactly one consumer thread. All slots
+ * are allocated when the ring is created and are reused forever: the producer claims a slot, fills it in place and
+ * publishes it, and the consumer takes the slot, reads it and releases it. No objects are created while the ring is in
+ * use, and the two threads only communicate through two counters.
+ * @author Eren
+ *
+ * @param <T> Type of the slots.
+ */
+public class SpscRing<T> {
+
+	/**
+	 * The number of times a waiting thread spins before it starts parking.
+	 */
+	private static final int SPIN_LIMIT = 1000;
+
+	/**
+	 * The slots of the ring.
+	 */
+	private final Object[] slots;
+
+	/**
+	 * The number of slots minus 1. The number of slots is a power of two, so this is used instead of the modulo
+	 * operation.
+	 */
+	private final int mask;
+
+	/**
+	 * The number of slots released by the consumer so far. It is only written by the consumer.
+	 */
+	private final AtomicLong head;
+
+	/**
+	 * The number of slots published by the producer so far. It is only written by the producer.
+	 */
+	private final AtomicLong tail;
+
+	/**
+	 * The last value of the head seen by the producer.
+	 */
+	private long cachedHead;
+
+	/**
+	 * The last value of the tail seen by the consumer.
+	 */
+	private long cachedTail;
+
+	/**
+	 * Constructor for the SpscRing class.
+	 * @param capacity The minimum number of slots. It is rounded up to a power of two.
+	 * @param factory The factory that creates the objects in the slots.
+	 */
+	public SpscRing(int capacity, Supplier<T> factory) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		this.slots = new Object[size];
+		for(int i = 0; i < size; i++) {
+			this.slots[i] = factory.get();
+		}
+		this.mask = size - 1;
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+		this.cachedHead = 0;
+		this.cachedTail = 0;
+	}
+
+	/**
+	 * This method is called by the producer to get the next free slot, waiting until the consumer releases one if
+	 * the ring is full. The slot must be published before the next one is claimed.
+	 * @return The next free slot.
+	 */
+	@SuppressWarnings("unchecked")
+	public T claim() {
+		long position = this.tail.get();
+		int idle = 0;
+		while(position - this.cachedHead >= this.slots.length) {
+			this.cachedHead = this.head.get();
+			idle = SpscRing.idle(idle);
+		}
+		return (T) this.slots[(int) position & this.mask];
+	}
+
+	/**
+	 * This method is called by the producer to get the next free slot without waiting. The slot must be published
+	 * before the next one is claimed.
+	 * @return The next free slot, null if the ring is full.
+	 */
+	@SuppressWarnings("unchecked")
+	public T tryClaim() {
+		long position = this.tail.get();
+		if(position - this.cachedHead >= this.slots.length) {
+			this.cachedHead = this.head.get();
+			if(position - this.cachedHead >= this.slots.length) {
+				return null;
+			}
+		}
+		return (T) this.slots[(int) position & this.mask];
+	}
+
+	/**
+	 * This method is called by the producer to hand the last claimed slot to the consumer.
+	 */
+	public void publish() {
+		this.tail.lazySet(this.tail.get() + 1);
+	}
+
+	/**
+	 * This method is called by the consumer to get the next published slot, waiting until the producer publishes
+	 * one if the ring is empty. The slot must be released before the next one is taken.
+	 * @return The next published slot.
+	 */
+	@SuppressWarnings("unchecked")
+	public T take() {
+		long position = this.head.get();
+		int idle = 0;
+		while(position >= this.cachedTail) {
+			this.cachedTail = this.tail.get();
+			idle = SpscRing.idle(idle);
+		}
+		return (T) this.slots[(int) position & this.mask];
+	}
+
+	/**
+	 * This method is called by the consumer to get the next published slot without waiting. The slot must be
+	 * released before the next one is taken.
+	 * @return The next published slot, null if the ring is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public T poll() {
+		long position = this.head.get();
+		if(position >= this.cachedTail) {
+			this.cachedTail = this.tail.get();
+			if(position >= this.cachedTail) {
+				return null;
+			}
+		}
+		return (T) this.slots[(int) position & this.mask];
+	}
+
+	/**
+	 * This method is called by the consumer to give the last taken slot back to the producer.
+	 */
+	public void release() {
+		this.head.lazySet(this.head.get() + 1);
+	}
+
+	/**
+	 * This method makes a waiting thread spin for a while, and park for short periods after that.
+	 * @param idle The number of times the thread has waited so far.
+	 * @return The new number of times the thread has waited.
+	 */
+	private static int idle(int idle) {
+		if(idle < SPIN_LIMIT) {
+			Thread.onSpinWait();
+		} else {
+			LockSupport.parkNanos(10000);
+		}
+		return idle + 1;
+	}
+}
@@ -0,0 +1,107 @@
+package executable;
+
+import elements.FixedPoint;
+
+/**
+ * This class writes the results of the queries as lines of text, in the output format of the program.
+ * @author Eren
+ *
+ */
+public class TextReporter implements Reporter {
+
+	/**
+	 * The writer of the output file.
+	 */
+	private final ReportWriter out;
+
+	/**
+	 * Constructor for the TextReporter class.
+	 * @param out The writer of the output file.
+	 */
+	public TextReporter(ReportWriter out) {
+		this.out = out;
+	}
+
+	/**
+	 * This method prints a line in the format "Trader [ID]: [dollars]$ [PQoins]PQ".
+	 */
+	@Override
+	public void reportTrader(int traderID, long dollars, long coins) {
+		this.out.print("Trader ");
+		this.out.print(traderID);
+		this.out.print(": ");
+		this.out.printFixed(dollars);
+		this.out.print("$ ");
+		this.out.printFixed(coins);
+		this.out.print("PQ");
+		this.out.println();
+	}
+
+	/**
+	 * This method prints a line in the format "Current market size: [dollars] [PQoins]".
+	 */
+	@Override
+	public void reportMarketSize(long dollars, long coins) {
+		this.out.print("Current market size: ");
+		this.out.printFixed(dollars);
+		this.out.print(' ');
+		this.out.printFixed(coins);
+		this.out.println();
+	}
+
+	/**
+	 * This method prints a line in the format "Number of successful transactions: [count]".
+	 */
+	@Override
+	public void reportSuccessfulTransactions(int count) {
+		this.out.print("Number of successful transactions: ");
+		this.out.print(count);
+		this.out.println();
+	}
+
+	/**
+	 * This method prints a line in the format "Number of invalid queries: [count]".
+	 */
+	@Override
+	public void reportInvalidQueries(int count) {
+		this.out.print("Number of invalid queries: ");
+		this.out.print(count);
+		this.out.println();
+	}
+
+	/**
+	 * This method prints a line in the format "Current prices: [buying price] [selling price] [average]".
+	 */
+	@Override
+	public void reportPrices(long buyingPrice, long sellingPrice, long average) {
+		this.out.print("Current prices: ");
+		this.out.printFixed(buyingPrice);
+		this.out.print(' ');
+		this.out.printFixed(sellingPrice);
+		this.out.print(' ');
+		this.out.printDecimal(average, FixedPoint.DECIMALS + 1);
+		this.out.println();
+	}
+
+	/**
+	 * This method prints a line in the format "Candle [index]: [open] [high] [low] [close] [volume] [VWAP]".
+	 */
+	@Override
+	public void reportCandle(long index, long open, long high, long low, long close, long volume, long vwap) {
+		this.out.print("Candle ");
+		this.out.print(index);
+		this.out.print(": ");
+		this.out.printFixed(open);
+		this.out.print(' ');
+		this.out.printFixed(high);
+		this.out.print(' ');
+		this.out.printFixed(low);
+		this.out.print(' ');
+		this.out.printFixed(close);
+		this.out.print(' ');
+		this.out.printFixed(volume);
+		this.out.print(' ');
+		this.out.printFixed(vwap);
+		this.out.println();
+	}
+}
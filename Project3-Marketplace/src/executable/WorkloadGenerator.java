@@ -0,0 +1,355 @@
+package executable;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import elements.FixedPoint;
+
+/**
+ * This program writes a synthetic query file in the format read by Main, for load tests and benchmarks. The file is
+ * generated from a seed, so the same arguments always produce the same file. The seed is also written as the first
+ * line of the file, so it seeds the random number generator of the market too.
+ * <p>
+ * Prices follow a random walk around a mid price. A limit order crosses the spread with a given probability, in which
+ * case it is priced on the other side of the mid price, and otherwise it rests some distance away from the mid price
+ * on its own side. Stop orders are priced on the other side of the mid price, so that they are triggered when the price
+ * moves against them, and the limit price of a stop-limit order lies beyond its stop price. All prices and amounts
+ * are multiples of 0.01.
+ * <p>
+ * Usage: WorkloadGenerator [output file] [number of traders] [number of queries] [seed], with the following optional
+ * system properties:
+ * <ul>
+ * <li>gen.mix: the relative weights of the opcodes, as a comma-separated list of "opcode:weight" pairs. Opcodes that
+ * aren't listed keep their default weights, which are 30 for #10 and #20, 5 for #11, #21, #3, #4 and #5, 1 for #777
+ * and #666, 3 for #500, #501, #502 and #505, and 0 for #12, #13, #22, #23, #30, #31 and #555. Orders #777 and #555
+ * go through every trader, so their weights should be kept low for files with many traders.</li>
+ * <li>gen.fee: the market fee, 5 by default</li>
+ * <li>gen.mid: the initial mid price, 50 by default</li>
+ * <li>gen.volatility: the standard deviation of each step of the mid price, 0.02 by default</li>
+ * <li>gen.spread: the average distance of resting orders from the mid price, 0.5 by default</li>
+ * <li>gen.cross: the probability that a limit order crosses the spread, 0.2 by default</li>
+ * <li>gen.maxAmount: the largest amount of PQoins in an order, 10 by default</li>
+ * <li>gen.maxDollars, gen.maxCoins: the largest initial amounts of dollars and PQoins of a trader, 10000 and 1000 by
+ * default</li>
+ * <li>gen.maxDeposit: the largest amount of dollars in a deposit or a withdrawal, 1000 by default</li>
+ * </ul>
+ * @author Eren
+ *
+ */
+public class WorkloadGenerator {
+
+	/**
+	 * All opcodes the generator can write.
+	 */
+	private static final int[] OPCODES = {10, 11, 20, 21, 30, 31, 3, 4, 5, 777, 666, 500, 501, 502, 505, 555, 12, 13, 22,
+		23};
+
+	/**
+	 * The default weights of the opcodes, in the same order as OPCODES.
+	 */
+	private static final int[] DEFAULT_WEIGHTS = {30, 5, 30, 5, 0, 0, 5, 5, 5, 1, 1, 3, 3, 3, 3, 0, 0, 0, 0, 0};
+
+	/**
+	 * The value of 0.01 in ticks, which is the grid all prices and amounts are on.
+	 */
+	private static final long CENT = FixedPoint.SCALE / 100;
+
+	public static void main(String[] args) {
+		if(args.length < 3) {
+			System.out.println("Usage: WorkloadGenerator [output file] [number of traders] [number of queries] [seed]");
+			return;
+		}
+		int numOfTraders = Integer.parseInt(args[1]);
+		int numOfQueries = Integer.parseInt(args[2]);
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+		try(ReportWriter out = new ReportWriter(Paths.get(args[0]))) {
+			new WorkloadGenerator(seed).generate(out, numOfTraders, numOfQueries);
+		} catch (IOException e) {
+			System.out.println("Output file couldn't be written.");
+			e.printStackTrace();
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		}
+	}
+
+	/**
+	 * The seed of the generated file.
+	 */
+	private final long seed;
+
+	/**
+	 * The random number generator of the generator.
+	 */
+	private final Random random;
+
+	/**
+	 * The cumulative weights of the opcodes, in the same order as OPCODES.
+	 */
+	private final int[] cumulativeWeights;
+
+	/**
+	 * The market fee.
+	 */
+	private final int fee;
+
+	/**
+	 * The standard deviation of each step of the mid price, in cents.
+	 */
+	private final double volatility;
+
+	/**
+	 * The average distance of resting orders from the mid price, in cents.
+	 */
+	private final double spread;
+
+	/**
+	 * The probability that a limit order crosses the spread.
+	 */
+	private final double crossProbability;
+
+	/**
+	 * The largest amount of PQoins in an order, in cents.
+	 */
+	private final int maxAmount;
+
+	/**
+	 * The largest initial amount of dollars of a trader, in cents.
+	 */
+	private final int maxDollars;
+
+	/**
+	 * The largest initial amount of PQoins of a trader, in cents.
+	 */
+	private final int maxCoins;
+
+	/**
+	 * The largest amount of dollars in a deposit or a withdrawal, in cents.
+	 */
+	private final int maxDeposit;
+
+	/**
+	 * The current mid price, in cents.
+	 */
+	private double mid;
+
+	/**
+	 * The number of limit and stop orders written so far, which is an upper bound for the order IDs given by the
+	 * market.
+	 */
+	private long orders;
+
+	/**
+	 * Constructor for the WorkloadGenerator class. The parameters of the workload are read from the system
+	 * properties.
+	 * @param seed The seed of the generated file.
+	 * @throws IllegalArgumentException If the opcode mix can't be parsed.
+	 */
+	public WorkloadGenerator(long seed) {
+		this.seed = seed;
+		this.random = new Random(seed);
+		this.cumulativeWeights = WorkloadGenerator.parseMix(System.getProperty("gen.mix", ""));
+		this.fee = Integer.getInteger("gen.fee", 5);
+		this.mid = WorkloadGenerator.cents("gen.mid", 50);
+		this.volatility = WorkloadGenerator.cents("gen.volatility", 0.02);
+		this.spread = WorkloadGenerator.cents("gen.spread", 0.5);
+		this.crossProbability = Double.parseDouble(System.getProperty("gen.cross", "0.2"));
+		this.maxAmount = (int) WorkloadGenerator.cents("gen.maxAmount", 10);
+		this.maxDollars = (int) WorkloadGenerator.cents("gen.maxDollars", 10000);
+		this.maxCoins = (int) WorkloadGenerator.cents("gen.maxCoins", 1000);
+		this.maxDeposit = (int) WorkloadGenerator.cents("gen.maxDeposit", 1000);
+		this.orders = 0;
+	}
+
+	/**
+	 * This method reads a system property that holds an amount, and converts it to cents.
+	 * @param key The name of the property.
+	 * @param defaultValue The value used if the property isn't set.
+	 * @return The amount in cents.
+	 */
+	private static double cents(String key, double defaultValue) {
+		String value = System.getProperty(key);
+		return 100 * (value == null ? defaultValue : Double.parseDouble(value));
+	}
+
+	/**
+	 * This method parses an opcode mix and calculates the cumulative weights of all opcodes.
+	 * @param mix The mix as a comma-separated list of "opcode:weight" pairs, possibly empty.
+	 * @return The cumulative weights, in the same order as OPCODES.
+	 * @throws IllegalArgumentException If the mix contains an unknown opcode or a negative weight, or if all weights
+	 * are 0.
+	 */
+	private static int[] parseMix(String mix) {
+		int[] weights = DEFAULT_WEIGHTS.clone();
+		for(String pair : mix.split(",")) {
+			if(pair.isEmpty()) {
+				continue;
+			}
+			String[] parts = pair.split(":");
+			int opcode = Integer.parseInt(parts[0].trim());
+			int weight = Integer.parseInt(parts[1].trim());
+			int index = -1;
+			for(int i = 0; i < OPCODES.length; i++) {
+				if(OPCODES[i] == opcode) {
+					index = i;
+				}
+			}
+			if(index < 0 || weight < 0) {
+				throw new IllegalArgumentException("Invalid opcode mix entry: " + pair);
+			}
+			weights[index] = weight;
+		}
+		for(int i = 1; i < weights.length; i++) {
+			weights[i] += weights[i - 1];
+		}
+		if(weights[weights.length - 1] == 0) {
+			throw new IllegalArgumentException("All opcode weights are 0");
+		}
+		return weights;
+	}
+
+	/**
+	 * This method writes a whole query file.
+	 * @param out The writer of the query file.
+	 * @param numOfTraders The number of traders, including the market itself.
+	 * @param numOfQueries The number of queries.
+	 */
+	public void generate(ReportWriter out, int numOfTraders, int numOfQueries) {
+		out.print(this.seed);
+		out.println();
+		out.print(this.fee);
+		out.print(' ');
+		out.print(numOfTraders);
+		out.print(' ');
+		out.print(numOfQueries);
+		out.println();
+		for(int i = 0; i < numOfTraders; i++) {
+			out.printFixed(this.random.nextInt(this.maxDollars + 1) * CENT);
+			out.print(' ');
+			out.printFixed(this.random.nextInt(this.maxCoins + 1) * CENT);
+			out.println();
+		}
+		for(int i = 0; i < numOfQueries; i++) {
+			this.mid = Math.max(1, this.mid + this.random.nextGaussian() * this.volatility);
+			this.writeQuery(out, numOfTraders);
+		}
+	}
+
+	/**
+	 * This method writes a single random query.
+	 * @param out The writer of the query file.
+	 * @param numOfTraders The number of traders, including the market itself.
+	 */
+	private void writeQuery(ReportWriter out, int numOfTraders) {
+		int draw = this.random.nextInt(this.cumulativeWeights[this.cumulativeWeights.length - 1]);
+		int index = 0;
+		while(this.cumulativeWeights[index] <= draw) {
+			index++;
+		}
+		int opcode = OPCODES[index];
+		// The market itself never places orders, so queries of traders use IDs from 1 when possible
+		int traderID = numOfTraders > 1 ? 1 + this.random.nextInt(numOfTraders - 1) : 0;
+
+		out.print(opcode);
+		if(opcode == 10 || opcode == 20) {
+			out.print(' ');
+			out.print(traderID);
+			out.print(' ');
+			out.printFixed(this.limitPrice(opcode == 10));
+			out.print(' ');
+			out.printFixed(this.amount());
+			this.orders++;
+		} else if(opcode == 12 || opcode == 13 || opcode == 22 || opcode == 23) {
+			boolean buying = opcode == 12 || opcode == 13;
+			long stopPrice = this.stopPrice(buying);
+			out.print(' ');
+			out.print(traderID);
+			out.print(' ');
+			out.printFixed(stopPrice);
+			if(opcode == 13 || opcode == 23) {
+				out.print(' ');
+				out.printFixed(this.stopLimitPrice(buying, stopPrice));
+			}
+			out.print(' ');
+			out.printFixed(this.amount());
+			this.orders++;
+		} else if(opcode == 11 || opcode == 21) {
+			out.print(' ');
+			out.print(traderID);
+			out.print(' ');
+			out.printFixed(this.amount());
+		} else if(opcode == 30 || opcode == 31) {
+			out.print(' ');
+			out.print(traderID);
+			out.print(' ');
+			out.print(this.orders > 0 ? 1 + (long) (this.random.nextDouble() * this.orders) : 1);
+			if(opcode == 31) {
+				out.print(' ');
+				out.printFixed(this.limitPrice(this.random.nextBoolean()));
+				out.print(' ');
+				out.printFixed(this.amount());
+			}
+		} else if(opcode == 3 || opcode == 4) {
+			out.print(' ');
+			out.print(traderID);
+			out.print(' ');
+			out.printFixed(this.random.nextInt(this.maxDeposit + 1) * CENT);
+		} else if(opcode == 5) {
+			out.print(' ');
+			out.print(traderID);
+		} else if(opcode == 666) {
+			out.print(' ');
+			out.printFixed(Math.round(this.mid) * CENT);
+		}
+		out.println();
+	}
+
+	/**
+	 * This method generates the price of a limit order. With the crossing probability, the order is priced on the
+	 * other side of the mid price, so that it is likely to be filled immediately. Otherwise it is priced on its own
+	 * side, at an exponentially distributed distance from the mid price.
+	 * @param buying true for a buying order, false for a selling order.
+	 * @return The price, in ticks.
+	 */
+	private long limitPrice(boolean buying) {
+		double distance = -Math.log(1 - this.random.nextDouble()) * this.spread;
+		if(this.random.nextDouble() < this.crossProbability) {
+			distance = -distance;
+		}
+		double price = buying ? this.mid - distance : this.mid + distance;
+		return Math.max(1, Math.round(price)) * CENT;
+	}
+
+	/**
+	 * This method generates the stop price of a stop order. Buying stops are priced above the mid price and selling
+	 * stops below it, at an exponentially distributed distance.
+	 * @param buying true for a buying order, false for a selling order.
+	 * @return The stop price, in ticks.
+	 */
+	private long stopPrice(boolean buying) {
+		double distance = -Math.log(1 - this.random.nextDouble()) * this.spread;
+		double price = buying ? this.mid + distance : this.mid - distance;
+		return Math.max(1, Math.round(price)) * CENT;
+	}
+
+	/**
+	 * This method generates the limit price of a stop-limit order, which lies beyond its stop price by an
+	 * exponentially distributed distance, so that the limit order is likely to be filled once it is triggered.
+	 * @param buying true for a buying order, false for a selling order.
+	 * @param stopPrice The stop price of the order, in ticks.
+	 * @return The limit price, in ticks.
+	 */
+	private long stopLimitPrice(boolean buying, long stopPrice) {
+		long distance = Math.round(-Math.log(1 - this.random.nextDouble()) * this.spread) * CENT;
+		return Math.max(CENT, buying ? stopPrice + distance : stopPrice - distance);
+	}
+
+	/**
+	 * This method generates the amount of an order.
+	 * @return An amount between 0.01 and the largest amount, in lots.
+	 */
+	private long amount() {
+		return (1 + this.random.nextInt(Math.max(this.maxAmount, 1))) * CENT;
+	}
+}